@@ -44,11 +44,18 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class DirectoryConfiguration {
 
@@ -93,19 +100,39 @@ public class DirectoryConfiguration {
     }
 
     public static void copy(Collection<DirectoryConfiguration> configurations, Path destinationDirectory) throws IOException {
+        copy(configurations, destinationDirectory, null);
+    }
+
+    /**
+     * Copies the configuration directories into {@code META-INF/native-image} of the destination
+     * directory. Files are hard-linked from the repository when the file system allows it, and
+     * copied otherwise. Files which already have the same content at the destination are left
+     * untouched, so that repeated copies of the same configurations are nearly free.
+     *
+     * @param configurations the configurations to copy
+     * @param destinationDirectory the destination directory
+     * @param copiedFiles a file listing the files written by the previous copy into the same
+     * destination, which are deleted when they are no longer selected, or null to keep them
+     * @throws IOException if a configuration cannot be copied
+     */
+    public static void copy(Collection<DirectoryConfiguration> configurations, Path destinationDirectory, Path copiedFiles) throws IOException {
         Path nativeImageDestination = destinationDirectory.resolve("META-INF").resolve("native-image");
+        Set<Path> written = new LinkedHashSet<>();
         for (DirectoryConfiguration configuration : configurations) {
             Path target = nativeImageDestination
                     .resolve(configuration.groupId)
                     .resolve(configuration.artifactId)
                     .resolve((configuration.version != null) ? configuration.version :
                             configuration.getDirectory().getFileName().toString());
-            copyFileTree(configuration.directory, target);
-            writeConfigurationProperties(configuration, target);
+            copyFileTree(configuration.directory, target, configuration.isOverride(), written);
+            writeConfigurationProperties(configuration, target, written);
+        }
+        if (copiedFiles != null) {
+            deleteStaleFiles(nativeImageDestination, written, copiedFiles);
         }
     }
 
-    private static void copyFileTree(Path source, Path target) throws IOException {
+    private static void copyFileTree(Path source, Path target, boolean override, Set<Path> written) throws IOException {
         if (Files.notExists(source)) {
             return;
         }
@@ -113,31 +140,100 @@ public class DirectoryConfiguration {
 
             @Override
             public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attrs) throws IOException {
-                Files.createDirectories(target.resolve(source.relativize(directory)));
+                Files.createDirectories(target.resolve(source.relativize(directory).toString()));
                 return FileVisitResult.CONTINUE;
             }
 
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                if (!"index.json".equalsIgnoreCase(file.getFileName().toString())) {
-                    Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
+                String fileName = file.getFileName().toString();
+                // The properties of an override are generated, instead of linking the shipped file
+                if (!"index.json".equalsIgnoreCase(fileName) && !(override && PROPERTIES.equals(fileName))) {
+                    Path destination = target.resolve(source.relativize(file).toString());
+                    linkOrCopy(file, destination);
+                    written.add(destination);
                 }
                 return FileVisitResult.CONTINUE;
             }
         });
     }
 
-    private static void writeConfigurationProperties(DirectoryConfiguration configuration, Path target)
-            throws IOException {
-        if (Files.notExists(target)) {
-            Files.createDirectories(target);
+    private static void linkOrCopy(Path source, Path destination) throws IOException {
+        if (Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+            if (hasSameContent(source, destination)) {
+                return;
+            }
+            Files.delete(destination);
+        }
+        if (source.getFileSystem() == destination.getFileSystem()) {
+            try {
+                Files.createLink(destination, source);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                // Different file stores, or hard links aren't supported: fall back to copying
+            }
         }
+        Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean hasSameContent(Path source, Path destination) throws IOException {
+        if (!Files.isRegularFile(destination, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if (source.getFileSystem() == destination.getFileSystem() && Files.isSameFile(source, destination)) {
+            return true;
+        }
+        return Files.size(source) == Files.size(destination) && Files.mismatch(source, destination) == -1;
+    }
+
+    private static void writeConfigurationProperties(DirectoryConfiguration configuration, Path target, Set<Path> written)
+            throws IOException {
+        Path properties = target.resolve(PROPERTIES);
         StringBuilder content = new StringBuilder();
         if (configuration.isOverride()) {
             content.append("override=true\n");
         }
         if (content.length() > 0) {
-            Files.write(target.resolve(PROPERTIES), content.toString().getBytes(StandardCharsets.ISO_8859_1));
+            byte[] bytes = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+            if (!Files.isRegularFile(properties, LinkOption.NOFOLLOW_LINKS) || !Arrays.equals(bytes, Files.readAllBytes(properties))) {
+                Files.createDirectories(target);
+                // The destination may be a link into the repository, which must never be written through
+                Files.deleteIfExists(properties);
+                Files.write(properties, bytes);
+            }
+            written.add(properties);
+        }
+    }
+
+    private static void deleteStaleFiles(Path nativeImageDestination, Set<Path> written, Path copiedFiles) throws IOException {
+        if (Files.isRegularFile(copiedFiles)) {
+            for (String line : Files.readAllLines(copiedFiles, StandardCharsets.UTF_8)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Path stale = nativeImageDestination.resolve(line).normalize();
+                if (stale.startsWith(nativeImageDestination) && !written.contains(stale) && Files.deleteIfExists(stale)) {
+                    deleteEmptyParents(stale.getParent(), nativeImageDestination);
+                }
+            }
+        }
+        List<String> lines = new ArrayList<>(written.size());
+        for (Path file : written) {
+            lines.add(nativeImageDestination.relativize(file).toString().replace('\\', '/'));
+        }
+        Files.createDirectories(copiedFiles.toAbsolutePath().getParent());
+        Files.write(copiedFiles, lines, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteEmptyParents(Path directory, Path root) throws IOException {
+        while (directory != null && directory.startsWith(root) && !directory.equals(root)) {
+            try (Stream<Path> entries = Files.list(directory)) {
+                if (entries.findAny().isPresent()) {
+                    return;
+                }
+            }
+            Files.delete(directory);
+            directory = directory.getParent();
         }
     }
 }
@@ -41,6 +41,9 @@
 package org.graalvm.reachability;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -109,4 +112,54 @@ public interface GraalVMReachabilityMetadataRepository {
     default Set<DirectoryConfiguration> findConfigurationsFor(Collection<String> modules) {
         return findConfigurationsFor(q -> q.forArtifacts(modules));
     }
+
+    /**
+     * Resolves the configuration directories of every artifact of a classpath
+     * at once. Each artifact is looked up as if it was queried individually
+     * with {@link Query#useLatestConfigWhenVersionIsUntested()}, unless a
+     * configuration version is forced for its module.
+     * @param gavCoordinates the artifacts of the classpath (group:artifact:version)
+     * @param excludedModules the modules (group:artifact) which must not be looked up
+     * @param forcedVersions the configuration version to use for a module (group:artifact)
+     * @return the configurations of each artifact, in the order of the supplied coordinates. Never null.
+     */
+    default Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(Collection<String> gavCoordinates,
+                                                                                   Set<String> excludedModules,
+                                                                                   Map<String, String> forcedVersions) {
+        Map<String, Set<DirectoryConfiguration>> result = new LinkedHashMap<>();
+        for (String gav : gavCoordinates) {
+            int versionSeparator = gav.lastIndexOf(':');
+            String module = versionSeparator > 0 ? gav.substring(0, versionSeparator) : gav;
+            if (excludedModules.contains(module)) {
+                result.put(gav, Collections.emptySet());
+            } else {
+                result.put(gav, findConfigurationsFor(q -> q.forArtifact(artifact -> {
+                    artifact.gav(gav);
+                    if (forcedVersions.containsKey(module)) {
+                        artifact.forceConfigVersion(forcedVersions.get(module));
+                    } else {
+                        artifact.useLatestConfigWhenVersionIsUntested();
+                    }
+                })));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a listener which is notified of the queries answered by this
+     * repository. Repositories which do not report their queries ignore it.
+     * @param listener the listener
+     */
+    default void addQueryListener(RepositoryQueryListener listener) {
+
+    }
+
+    /**
+     * Unregisters a listener previously registered with {@link #addQueryListener(RepositoryQueryListener)}.
+     * @param listener the listener
+     */
+    default void removeQueryListener(RepositoryQueryListener listener) {
+
+    }
 }
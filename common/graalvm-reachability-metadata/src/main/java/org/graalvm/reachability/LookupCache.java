@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import com.github.openjson.JSONException;
+import com.github.openjson.JSONObject;
+import org.graalvm.buildtools.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * On-disk cache of the results of remote lookups performed while reporting
+ * missing metadata (§FS-common-libraries.6). Each entry is stored in its own
+ * file, named after the hash of its key, and replaced atomically so that
+ * concurrent builds sharing the cache directory never observe partial entries.
+ * Positive and negative answers expire after their own time to live. Failing
+ * to read or write the cache never fails the lookup: such entries are
+ * treated as missing.
+ */
+final class LookupCache {
+    private final Path directory;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    LookupCache(Path directory, Duration ttl, Duration negativeTtl, Clock clock) {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the entry cached for the given key.
+     *
+     * @param key the lookup key
+     * @param allowStale whether expired entries are returned as well
+     * @return the cached entry, or empty if there is none or if it expired
+     */
+    Optional<Entry> get(String key, boolean allowStale) {
+        Path file = fileFor(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            if (!key.equals(json.optString("key"))) {
+                return Optional.empty();
+            }
+            boolean positive = json.getBoolean("positive");
+            long ageMillis = clock.millis() - json.getLong("storedAt");
+            boolean stale = ageMillis < 0 || ageMillis > (positive ? ttl : negativeTtl).toMillis();
+            if (stale && !allowStale) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(json.optString("value", null), positive, stale));
+        } catch (IOException | JSONException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the answer to a lookup.
+     *
+     * @param key the lookup key
+     * @param value the answer, may be null for negative answers
+     * @param positive whether the lookup found what it was looking for
+     */
+    void put(String key, String value, boolean positive) {
+        JSONObject json = new JSONObject();
+        json.put("key", key);
+        json.put("positive", positive);
+        json.put("storedAt", clock.millis());
+        if (value != null) {
+            json.put("value", value);
+        }
+        try {
+            FileUtils.writeAtomically(fileFor(key), file -> Files.writeString(file, json.toString(), StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            // The cache is an optimization: the entry is looked up again next time
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return directory.resolve(HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8))) + ".json");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
+    record Entry(String value, boolean positive, boolean stale) {
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+import org.graalvm.reachability.internal.FileSystemRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records the configuration directories selected for each artifact of a
+ * classpath, so that later builds can resolve them without querying the
+ * repository indexes. §FS-common-libraries.5.3.
+ * <p>
+ * Entries are keyed by {@code group:artifact:version} coordinates and written
+ * in sorted order, so that the lock file can be committed and reviewed. An
+ * entry is only used when the configuration version forced for its module is
+ * the same as when the lock file was generated; other artifacts are resolved
+ * with a regular query. The whole lock file is ignored when the repository
+ * content hash doesn't match the one it was generated from.
+ */
+public final class MetadataLockFile {
+    public static final String DEFAULT_FILE_NAME = "reachability-metadata-lock.json";
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String repository;
+    private final String repositoryHash;
+    private final Map<String, LockedArtifact> artifacts;
+
+    private MetadataLockFile(String repository, String repositoryHash, Map<String, LockedArtifact> artifacts) {
+        this.repository = repository;
+        this.repositoryHash = repositoryHash;
+        this.artifacts = artifacts;
+    }
+
+    /**
+     * Queries the repository for a classpath and records the result.
+     *
+     * @param repository the repository to query
+     * @param repositoryDescription a human-readable description of the repository, for example its version
+     * @param gavCoordinates the {@code group:artifact:version} coordinates of the classpath entries
+     * @param excludedModules the {@code group:artifact} modules which must not be looked up
+     * @param forcedVersions the configuration version to use, keyed by {@code group:artifact} module
+     * @return the lock file
+     */
+    public static MetadataLockFile generate(FileSystemRepository repository,
+                                            String repositoryDescription,
+                                            Collection<String> gavCoordinates,
+                                            Set<String> excludedModules,
+                                            Map<String, String> forcedVersions) {
+        Path root = repository.getRootDirectory();
+        Map<String, LockedArtifact> artifacts = new TreeMap<>();
+        repository.findConfigurationsForClasspath(gavCoordinates, excludedModules, forcedVersions).forEach((gav, configurations) -> {
+            String module = moduleOf(gav);
+            if (excludedModules.contains(module)) {
+                return;
+            }
+            List<LockedConfiguration> locked = new ArrayList<>();
+            for (DirectoryConfiguration configuration : configurations) {
+                String directory = root.relativize(configuration.getDirectory()).toString().replace('\\', '/');
+                String version = Objects.equals(configuration.getVersion(), versionOf(gav)) ? null : configuration.getVersion();
+                locked.add(new LockedConfiguration(directory, version, configuration.isOverride()));
+            }
+            locked.sort((a, b) -> a.directory.compareTo(b.directory));
+            artifacts.put(gav, new LockedArtifact(forcedVersions.get(module), locked));
+        });
+        return new MetadataLockFile(repositoryDescription, repository.getContentHash(), artifacts);
+    }
+
+    /**
+     * Reads a lock file.
+     *
+     * @param file the lock file
+     * @return the lock file, or an empty optional if the file doesn't exist
+     * @throws IOException if the file cannot be read
+     */
+    public static Optional<MetadataLockFile> read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+        int version = json.getInt("version");
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported reachability metadata lock file version " + version + " in " + file);
+        }
+        Map<String, LockedArtifact> artifacts = new TreeMap<>();
+        JSONObject entries = json.getJSONObject("artifacts");
+        for (String gav : entries.keySet()) {
+            JSONObject entry = entries.getJSONObject(gav);
+            List<LockedConfiguration> configurations = new ArrayList<>();
+            JSONArray array = entry.getJSONArray("configurations");
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject configuration = array.getJSONObject(i);
+                configurations.add(new LockedConfiguration(configuration.getString("directory"),
+                        configuration.optString("version", null), configuration.optBoolean("override", false)));
+            }
+            artifacts.put(gav, new LockedArtifact(entry.optString("forcedVersion", null), configurations));
+        }
+        return Optional.of(new MetadataLockFile(json.optString("repository", null), json.getString("repositoryHash"), artifacts));
+    }
+
+    /**
+     * Writes this lock file.
+     *
+     * @param file the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("version", FORMAT_VERSION);
+        if (repository != null) {
+            json.put("repository", repository);
+        }
+        json.put("repositoryHash", repositoryHash);
+        JSONObject entries = new JSONObject();
+        artifacts.forEach((gav, artifact) -> {
+            JSONObject entry = new JSONObject();
+            if (artifact.forcedVersion != null) {
+                entry.put("forcedVersion", artifact.forcedVersion);
+            }
+            JSONArray configurations = new JSONArray();
+            for (LockedConfiguration configuration : artifact.configurations) {
+                JSONObject locked = new JSONObject();
+                locked.put("directory", configuration.directory);
+                if (configuration.version != null) {
+                    locked.put("version", configuration.version);
+                }
+                if (configuration.override) {
+                    locked.put("override", true);
+                }
+                configurations.put(locked);
+            }
+            entry.put("configurations", configurations);
+            entries.put(gav, entry);
+        });
+        json.put("artifacts", entries);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, json.toString(2) + "\n", StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the description of the repository this lock file was generated from.
+     *
+     * @return the repository description, if it was recorded
+     */
+    public Optional<String> getRepository() {
+        return Optional.ofNullable(repository);
+    }
+
+    /**
+     * Returns the coordinates of the locked artifacts, in sorted order.
+     *
+     * @return the locked {@code group:artifact:version} coordinates
+     */
+    public Set<String> getArtifacts() {
+        return Collections.unmodifiableSet(artifacts.keySet());
+    }
+
+    /**
+     * Tells if this lock file was generated from a repository with the same content.
+     *
+     * @param repository the repository
+     * @return true if the lock file can be used with this repository
+     */
+    public boolean isUpToDate(FileSystemRepository repository) {
+        return repositoryHash.equals(repository.getContentHash());
+    }
+
+    /**
+     * Resolves a classpath, like {@link GraalVMReachabilityMetadataRepository#findConfigurationsForClasspath(Collection, Set, Map)},
+     * using the locked directories of the artifacts this lock file covers. The other artifacts are
+     * looked up with a single query. Callers are expected to check {@link #isUpToDate(FileSystemRepository)} first.
+     *
+     * @param repository the repository this lock file was generated from
+     * @param gavCoordinates the {@code group:artifact:version} coordinates of the classpath entries
+     * @param excludedModules the {@code group:artifact} modules which must not be looked up
+     * @param forcedVersions the configuration version to use, keyed by {@code group:artifact} module
+     * @return the configurations of each artifact, keyed by coordinates, in iteration order of the input
+     */
+    public Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(FileSystemRepository repository,
+                                                                                  Collection<String> gavCoordinates,
+                                                                                  Set<String> excludedModules,
+                                                                                  Map<String, String> forcedVersions) {
+        Map<String, Set<DirectoryConfiguration>> result = new LinkedHashMap<>();
+        List<String> unlocked = new ArrayList<>();
+        for (String gav : gavCoordinates) {
+            String module = moduleOf(gav);
+            LockedArtifact artifact = artifacts.get(gav);
+            if (excludedModules.contains(module)) {
+                result.put(gav, Collections.emptySet());
+            } else if (artifact == null || !Objects.equals(artifact.forcedVersion, forcedVersions.get(module))) {
+                unlocked.add(gav);
+                result.put(gav, Collections.emptySet());
+            } else {
+                Set<DirectoryConfiguration> configurations = resolve(repository, gav, artifact);
+                if (configurations == null) {
+                    unlocked.add(gav);
+                    configurations = Collections.emptySet();
+                }
+                result.put(gav, configurations);
+            }
+        }
+        if (!unlocked.isEmpty()) {
+            result.putAll(repository.findConfigurationsForClasspath(unlocked, excludedModules, forcedVersions));
+        }
+        return result;
+    }
+
+    private static Set<DirectoryConfiguration> resolve(FileSystemRepository repository, String gav, LockedArtifact artifact) {
+        String[] parts = gav.split(":");
+        Set<DirectoryConfiguration> configurations = new LinkedHashSet<>();
+        for (LockedConfiguration configuration : artifact.configurations) {
+            String version = configuration.version != null ? configuration.version : parts[2];
+            Optional<DirectoryConfiguration> resolved = repository.findLockedConfiguration(parts[0], parts[1], version,
+                    configuration.directory, configuration.override);
+            if (!resolved.isPresent()) {
+                return null;
+            }
+            configurations.add(resolved.get());
+        }
+        return configurations;
+    }
+
+    private static String moduleOf(String gav) {
+        int idx = gav.lastIndexOf(':');
+        return idx < 0 ? gav : gav.substring(0, idx);
+    }
+
+    private static String versionOf(String gav) {
+        int idx = gav.lastIndexOf(':');
+        return idx < 0 ? null : gav.substring(idx + 1);
+    }
+
+    private static final class LockedArtifact {
+        private final String forcedVersion;
+        private final List<LockedConfiguration> configurations;
+
+        private LockedArtifact(String forcedVersion, List<LockedConfiguration> configurations) {
+            this.forcedVersion = forcedVersion;
+            this.configurations = configurations;
+        }
+    }
+
+    private static final class LockedConfiguration {
+        private final String directory;
+        private final String version;
+        private final boolean override;
+
+        private LockedConfiguration(String directory, String version, boolean override) {
+            this.directory = directory;
+            this.version = version;
+            this.override = override;
+        }
+    }
+}
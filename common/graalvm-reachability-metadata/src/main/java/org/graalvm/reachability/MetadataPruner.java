@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import org.graalvm.reachability.ReachabilityMetadataMerger.Elements;
+
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Drops the metadata entries which refer to types that aren't on the image
+ * classpath. Types are matched by package, using the package lists of the
+ * classpath entries. Resources and bundles are only dropped based on their
+ * condition, because resources are not part of the package lists.
+ */
+final class MetadataPruner {
+    private static final List<String> ALWAYS_PRESENT_PREFIXES = List.of(
+        "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.graalvm.", "com.oracle.svm."
+    );
+    private static final Set<String> SYSTEM_PACKAGES = systemPackages();
+
+    private final Set<String> classpathPackages;
+    private int prunedEntries;
+
+    MetadataPruner(Set<String> classpathPackages) {
+        this.classpathPackages = classpathPackages;
+    }
+
+    int getPrunedEntries() {
+        return prunedEntries;
+    }
+
+    Object prune(String fileName, Object json) {
+        switch (fileName) {
+            case "reachability-metadata.json":
+                return pruneKeys(json, Map.of(
+                    "reflection", this::isTypeEntryAvailable,
+                    "jni", this::isTypeEntryAvailable,
+                    "resources", this::isConditionAvailable,
+                    "bundles", this::isConditionAvailable));
+            case "reflect-config.json":
+            case "jni-config.json":
+                return pruneElements(json, this::isNamedEntryAvailable);
+            case "proxy-config.json":
+                return pruneElements(json, this::isProxyEntryAvailable);
+            case "resource-config.json":
+                Object pruned = pruneKeys(json, Map.of("bundles", this::isConditionAvailable));
+                if (pruned instanceof Map<?, ?> map && map.get("resources") instanceof Map<?, ?> resources) {
+                    Map<String, Object> result = new TreeMap<>(cast(map));
+                    result.put("resources", pruneKeys(resources, Map.of("includes", this::isConditionAvailable)));
+                    return result;
+                }
+                return pruned;
+            default:
+                return json;
+        }
+    }
+
+    private Object pruneKeys(Object json, Map<String, Predicate<Object>> predicates) {
+        if (!(json instanceof Map<?, ?> map)) {
+            return json;
+        }
+        Map<String, Object> result = new TreeMap<>(cast(map));
+        predicates.forEach((key, predicate) -> {
+            Object value = result.get(key);
+            if (value != null) {
+                result.put(key, pruneElements(value, predicate));
+            }
+        });
+        return result;
+    }
+
+    private Object pruneElements(Object json, Predicate<Object> predicate) {
+        if (!(json instanceof Elements elements)) {
+            return json;
+        }
+        Elements result = elements.filter(predicate);
+        prunedEntries += elements.values().size() - result.values().size();
+        return result;
+    }
+
+    private boolean isTypeEntryAvailable(Object entry) {
+        if (!isConditionAvailable(entry)) {
+            return false;
+        }
+        if (entry instanceof Map<?, ?> map) {
+            Object type = map.get("type");
+            if (type instanceof String name) {
+                return isTypeAvailable(name);
+            }
+            if (type instanceof Map<?, ?> descriptor && descriptor.get("proxy") instanceof Elements interfaces) {
+                return areTypesAvailable(interfaces);
+            }
+        }
+        return true;
+    }
+
+    private boolean isNamedEntryAvailable(Object entry) {
+        if (entry instanceof Map<?, ?> map && map.get("name") instanceof String name) {
+            return isTypeAvailable(name) && isConditionAvailable(entry);
+        }
+        return isConditionAvailable(entry);
+    }
+
+    private boolean isProxyEntryAvailable(Object entry) {
+        if (entry instanceof Elements interfaces) {
+            return areTypesAvailable(interfaces);
+        }
+        if (entry instanceof Map<?, ?> map && map.get("interfaces") instanceof Elements interfaces) {
+            return areTypesAvailable(interfaces) && isConditionAvailable(entry);
+        }
+        return isConditionAvailable(entry);
+    }
+
+    private boolean isConditionAvailable(Object entry) {
+        if (entry instanceof Map<?, ?> map && map.get("condition") instanceof Map<?, ?> condition) {
+            for (String key : List.of("typeReachable", "typeReached")) {
+                if (condition.get(key) instanceof String type && !isTypeAvailable(type)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean areTypesAvailable(Elements types) {
+        for (Object type : types.values()) {
+            if (type instanceof String name && !isTypeAvailable(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells if the package of a type is on the classpath. Types without a package,
+     * such as primitive arrays, are always available.
+     */
+    boolean isTypeAvailable(String typeName) {
+        String name = typeName;
+        while (name.endsWith("[]")) {
+            name = name.substring(0, name.length() - 2);
+        }
+        if (name.startsWith("[")) {
+            name = name.replaceFirst("^\\[+", "");
+            if (!name.startsWith("L") || !name.endsWith(";")) {
+                return true;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        int lastDot = name.lastIndexOf('.');
+        if (lastDot <= 0) {
+            return true;
+        }
+        String packageName = name.substring(0, lastDot);
+        if (classpathPackages.contains(packageName) || SYSTEM_PACKAGES.contains(packageName)) {
+            return true;
+        }
+        for (String prefix : ALWAYS_PRESENT_PREFIXES) {
+            if (packageName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+
+    private static Set<String> systemPackages() {
+        Set<String> packages = new HashSet<>();
+        for (ModuleReference module : ModuleFinder.ofSystem().findAll()) {
+            packages.addAll(module.descriptor().packages());
+        }
+        return packages;
+    }
+}
@@ -43,28 +43,41 @@ package org.graalvm.reachability;
 import com.github.openjson.JSONArray;
 import com.github.openjson.JSONObject;
 import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.buildtools.utils.ParallelTasks;
+import org.graalvm.buildtools.utils.ResumableDownloader;
 import org.graalvm.buildtools.utils.SharedConstants;
 import org.graalvm.reachability.internal.FileSystemRepository;
+import org.graalvm.reachability.internal.index.binary.BinaryRepositoryIndex;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -73,11 +86,19 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Shared support used by Gradle and Maven to report direct runtime dependencies
@@ -100,6 +121,14 @@ public final class MissingMetadataCommandSupport {
     private static final URI MAVEN_CENTRAL_BASE_URI = URI.create("https://repo.maven.apache.org/maven2/");
     private static final Pattern COORDINATES_PATTERN = Pattern.compile("([A-Za-z0-9_.-]+):([A-Za-z0-9_.-]+)(?::([A-Za-z0-9_.-]+))?");
     private static final long GITHUB_CLI_TIMEOUT_SECONDS = 5;
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final Duration GITHUB_MAX_RATE_LIMIT_WAIT = Duration.ofMinutes(1);
+    private static final int MAX_ISSUE_SEARCH_TERMS = 6;
+    private static final int MAX_ISSUE_SEARCH_TERMS_LENGTH = 256;
+    private static final int ISSUE_SEARCH_PAGE_SIZE = 100;
+    private static final String METADATA_RELEASES_DIRECTORY = "metadata-releases";
+    private static final Duration DEFAULT_CACHE_TTL = Duration.ofHours(24);
+    private static final Duration DEFAULT_NEGATIVE_CACHE_TTL = Duration.ofHours(1);
 
     private MissingMetadataCommandSupport() {
     }
@@ -121,39 +150,96 @@ public final class MissingMetadataCommandSupport {
             .distinct()
             .toList();
         GitHubIssueClient issueClient = new GitHubIssueClient(options);
-        NewerMetadataRepositorySupportChecker newerRepositoryChecker = options.newerMetadataRepositorySupportChecker();
-        Map<String, IssueReference> issueCache = new LinkedHashMap<>();
-        List<Result> results = new ArrayList<>(candidates.size());
-        for (DependencyCoordinate dependency : candidates) {
-            try {
+        NewerMetadataRepositorySupportChecker newerRepositoryChecker = options.newerMetadataRepositorySupportChecker() == null
+            ? new OfficialMetadataRepositorySupportChecker(options)
+            : options.newerMetadataRepositorySupportChecker();
+        // Versions of the same module share their issue, so they are looked up in order by the same task
+        Map<String, List<Integer>> candidatesByModule = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            candidatesByModule.computeIfAbsent(candidates.get(i).groupAndArtifact(), k -> new ArrayList<>()).add(i);
+        }
+        ResultFile results = ResultFile.create(candidates);
+        try {
+            lookUpAll(repository, effectiveForcedVersions, options, candidates, candidatesByModule, results,
+                issueClient, newerRepositoryChecker);
+        } catch (RuntimeException ex) {
+            results.close();
+            throw ex;
+        }
+        return new Report(options, candidates.size(), results);
+    }
+
+    private static void lookUpAll(GraalVMReachabilityMetadataRepository repository,
+                                  Map<String, String> effectiveForcedVersions,
+                                  Options options,
+                                  List<DependencyCoordinate> candidates,
+                                  Map<String, List<Integer>> candidatesByModule,
+                                  ResultFile results,
+                                  GitHubIssueClient issueClient,
+                                  NewerMetadataRepositorySupportChecker newerRepositoryChecker) {
+        ModuleLookups lookups = new ModuleLookups(candidates, options, results);
+        lookups.run(candidatesByModule.values(), () -> new ModuleLookup() {
+            private boolean moduleNeedsIssue;
+
+            @Override
+            public Result lookUp(DependencyCoordinate dependency) {
                 String forcedVersion = effectiveForcedVersions.get(dependency.groupAndArtifact());
-                boolean covered = isCoveredByRepository(repository, dependency, forcedVersion);
-                if (covered) {
-                    results.add(Result.supported(dependency));
-                    continue;
+                if (isCoveredByRepository(repository, dependency, forcedVersion)) {
+                    return Result.supported(dependency);
                 }
                 Optional<SupportingMetadataRepository> supportingRepository = newerRepositoryChecker
                     .findSupportingRepository(dependency, forcedVersion);
                 if (supportingRepository.isPresent()) {
-                    results.add(Result.supportedInNewerMetadataRepository(dependency, supportingRepository.get()));
-                    continue;
+                    return Result.supportedInNewerMetadataRepository(dependency, supportingRepository.get());
                 }
-                IssueReference issue = issueCache.get(dependency.groupAndArtifact());
-                if (issue == null) {
-                    issue = resolveIssue(issueClient, dependency);
-                    if (!issue.isSkippedIssueCreation()) {
-                        issueCache.put(dependency.groupAndArtifact(), issue);
-                    }
+                if (!moduleNeedsIssue && !issueClient.isAvailableInMavenCentral(dependency)) {
+                    return Result.missing(dependency, IssueReference.skippedIssueCreation());
                 }
-                results.add(Result.missing(dependency, issue));
-            } catch (Exception ex) {
-                if (options.createIssues()) {
-                    throw createIssuesFailure(dependency, ex);
-                }
-                results.add(Result.error(dependency, ex));
+                moduleNeedsIssue = true;
+                return null;
             }
+        });
+        // Issues are searched for all remaining modules at once, in as few requests as possible
+        Map<String, List<Integer>> pendingByModule = lookups.pendingByModule(candidatesByModule);
+        if (!pendingByModule.isEmpty()) {
+            issueClient.prefetchOpenIssues(pendingByModule.keySet());
+            lookups.run(pendingByModule.values(), () -> new ModuleLookup() {
+                private IssueReference moduleIssue;
+
+                @Override
+                public Result lookUp(DependencyCoordinate dependency) {
+                    if (moduleIssue == null) {
+                        moduleIssue = resolveIssue(issueClient, dependency);
+                    }
+                    return Result.missing(dependency, moduleIssue);
+                }
+            });
+        }
+        lookups.rethrowFailure();
+    }
+
+    /**
+     * Returns the directory in which lookups are cached by default, shared by all
+     * builds of the current user: {@code native-build-tools/missing-metadata} in
+     * {@code $XDG_CACHE_HOME}, {@code %LOCALAPPDATA%} or {@code ~/.cache}.
+     *
+     * @return the default cache directory
+     */
+    public static Path defaultCacheDirectory() {
+        String cacheHome = blankToNull(System.getenv("XDG_CACHE_HOME"));
+        if (cacheHome == null) {
+            cacheHome = blankToNull(System.getenv("LOCALAPPDATA"));
+        }
+        Path root = cacheHome == null ? Path.of(System.getProperty("user.home"), ".cache") : Path.of(cacheHome);
+        return root.resolve("native-build-tools").resolve("missing-metadata");
+    }
+
+    private static void runAll(List<Callable<Void>> tasks, int parallelism) {
+        try {
+            ParallelTasks.invokeAll(tasks, parallelism, "missing-metadata-lookup");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        return new Report(options, candidates.size(), results);
     }
 
     private static boolean isCoveredByRepository(GraalVMReachabilityMetadataRepository repository,
@@ -180,19 +266,195 @@ public final class MissingMetadataCommandSupport {
     }
 
     private static IssueReference resolveIssue(GitHubIssueClient issueClient, DependencyCoordinate dependency) {
-        if (!issueClient.isAvailableInMavenCentral(dependency)) {
-            return IssueReference.skippedIssueCreation();
-        }
         Optional<IssueReference> existing = issueClient.findOpenIssue(dependency);
         if (existing.isPresent()) {
             return existing.get();
         }
         if (issueClient.options.createIssues()) {
-            return issueClient.createIssue(dependency);
+            IssueReference created = issueClient.createIssue(dependency);
+            issueClient.cacheIssue(dependency, created);
+            return created;
         }
         return issueClient.newIssueLink(dependency);
     }
 
+    private interface ModuleLookup {
+        /**
+         * Looks up a version of the module. Versions are looked up in order.
+         *
+         * @param dependency the dependency to look up
+         * @return the result, or null if the dependency needs an issue
+         */
+        Result lookUp(DependencyCoordinate dependency) throws Exception;
+    }
+
+    /**
+     * Runs lookups concurrently, one task per module, and records their results
+     * as soon as they are produced. Failures are reported as error results, except
+     * when creating issues where the first failure stops all lookups.
+     */
+    private static final class ModuleLookups {
+        private final List<DependencyCoordinate> candidates;
+        private final Options options;
+        private final ResultFile results;
+        private final Map<Integer, RuntimeException> failures = new ConcurrentSkipListMap<>();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        private ModuleLookups(List<DependencyCoordinate> candidates, Options options, ResultFile results) {
+            this.candidates = candidates;
+            this.options = options;
+            this.results = results;
+        }
+
+        private void run(Collection<List<Integer>> modules, Supplier<ModuleLookup> lookupFactory) {
+            if (failed.get()) {
+                return;
+            }
+            List<Callable<Void>> tasks = new ArrayList<>(modules.size());
+            for (List<Integer> indexes : modules) {
+                tasks.add(() -> {
+                    ModuleLookup lookup = lookupFactory.get();
+                    for (int index : indexes) {
+                        if (failed.get()) {
+                            return null;
+                        }
+                        DependencyCoordinate dependency = candidates.get(index);
+                        Result result;
+                        try {
+                            result = lookup.lookUp(dependency);
+                        } catch (Exception ex) {
+                            if (options.createIssues()) {
+                                failures.put(index, createIssuesFailure(dependency, ex));
+                                failed.set(true);
+                                return null;
+                            }
+                            result = Result.error(dependency, ex);
+                        }
+                        if (result != null) {
+                            results.record(index, result);
+                        }
+                    }
+                    return null;
+                });
+            }
+            runAll(tasks, options.parallelism());
+        }
+
+        private Map<String, List<Integer>> pendingByModule(Map<String, List<Integer>> candidatesByModule) {
+            Map<String, List<Integer>> pending = new LinkedHashMap<>();
+            if (failed.get()) {
+                return pending;
+            }
+            candidatesByModule.forEach((module, indexes) -> {
+                List<Integer> pendingIndexes = indexes.stream().filter(index -> !results.isRecorded(index)).toList();
+                if (!pendingIndexes.isEmpty()) {
+                    pending.put(module, pendingIndexes);
+                }
+            });
+            return pending;
+        }
+
+        private void rethrowFailure() {
+            if (!failures.isEmpty()) {
+                throw failures.values().iterator().next();
+            }
+        }
+    }
+
+    /**
+     * Records each result to a temporary file as soon as it is produced, so
+     * that only its position and the summary counts are kept in memory.
+     */
+    private static final class ResultFile implements AutoCloseable {
+        private final List<DependencyCoordinate> candidates;
+        private final FileChannel channel;
+        private final long[] positions;
+        private final int[] lengths;
+        private final long[] statusCounts = new long[Status.values().length];
+        private final long[] issueStatusCounts = new long[IssueStatus.values().length];
+        private long size;
+
+        private ResultFile(List<DependencyCoordinate> candidates, FileChannel channel) {
+            this.candidates = candidates;
+            this.channel = channel;
+            this.positions = new long[candidates.size()];
+            this.lengths = new int[candidates.size()];
+        }
+
+        private static ResultFile create(List<DependencyCoordinate> candidates) {
+            try {
+                Path file = Files.createTempFile("missing-metadata-results", ".jsonl");
+                return new ResultFile(candidates, FileChannel.open(file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private synchronized void record(int index, Result result) throws IOException {
+            ByteBuffer line = ByteBuffer.wrap((result.toRecord() + "\n").getBytes(StandardCharsets.UTF_8));
+            positions[index] = size;
+            lengths[index] = line.remaining();
+            while (line.hasRemaining()) {
+                size += channel.write(line, size);
+            }
+            statusCounts[result.status.ordinal()]++;
+            if (result.issueStatus != null) {
+                issueStatusCounts[result.issueStatus.ordinal()]++;
+            }
+        }
+
+        private synchronized boolean isRecorded(int index) {
+            return lengths[index] > 0;
+        }
+
+        private synchronized long count(Status status) {
+            return statusCounts[status.ordinal()];
+        }
+
+        private synchronized long count(IssueStatus issueStatus) {
+            return issueStatusCounts[issueStatus.ordinal()];
+        }
+
+        /**
+         * Reads the results back, one at a time, in the order of the candidates.
+         */
+        private void forEach(ResultAction action) throws IOException {
+            for (int index = 0; index < candidates.size(); index++) {
+                Result result = read(index);
+                if (result != null) {
+                    action.accept(result);
+                }
+            }
+        }
+
+        private synchronized Result read(int index) throws IOException {
+            if (lengths[index] == 0) {
+                return null;
+            }
+            ByteBuffer line = ByteBuffer.allocate(lengths[index]);
+            while (line.hasRemaining()) {
+                if (channel.read(line, positions[index] + line.position()) < 0) {
+                    throw new EOFException("Truncated missing metadata results");
+                }
+            }
+            return Result.fromRecord(candidates.get(index), new JSONObject(new String(line.array(), StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private interface ResultAction {
+        void accept(Result result) throws IOException;
+    }
+
     public static final class Options {
         private final String buildTool;
         private final String projectName;
@@ -206,6 +468,11 @@ public final class MissingMetadataCommandSupport {
         private final ArtifactAvailabilityChecker artifactAvailabilityChecker;
         private final Consumer<String> warningSink;
         private final NewerMetadataRepositorySupportChecker newerMetadataRepositorySupportChecker;
+        private final int parallelism;
+        private final Path cacheDirectory;
+        private final Duration cacheTtl;
+        private final Duration negativeCacheTtl;
+        private final boolean offline;
 
         public Options(String buildTool,
                        String projectName,
@@ -282,9 +549,43 @@ public final class MissingMetadataCommandSupport {
             this.gitHubCliTokenSupplier = Objects.requireNonNull(gitHubCliTokenSupplier, "gitHubCliTokenSupplier");
             this.artifactAvailabilityChecker = Objects.requireNonNull(artifactAvailabilityChecker, "artifactAvailabilityChecker");
             this.warningSink = warningSink == null ? message -> { } : warningSink;
-            this.newerMetadataRepositorySupportChecker = newerMetadataRepositorySupportChecker == null
-                ? new OfficialMetadataRepositorySupportChecker(this.metadataRepositoryUri, this.warningSink)
-                : newerMetadataRepositorySupportChecker;
+            this.newerMetadataRepositorySupportChecker = newerMetadataRepositorySupportChecker;
+            this.parallelism = DEFAULT_PARALLELISM;
+            this.cacheDirectory = null;
+            this.cacheTtl = DEFAULT_CACHE_TTL;
+            this.negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
+            this.offline = false;
+        }
+
+        private Options(Options options,
+                        int parallelism,
+                        Path cacheDirectory,
+                        Duration cacheTtl,
+                        Duration negativeCacheTtl,
+                        boolean offline) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be at least 1");
+            }
+            if (cacheTtl.isNegative() || negativeCacheTtl.isNegative()) {
+                throw new IllegalArgumentException("cache time to live must not be negative");
+            }
+            this.buildTool = options.buildTool;
+            this.projectName = options.projectName;
+            this.metadataRepositoryUri = options.metadataRepositoryUri;
+            this.createIssues = options.createIssues;
+            this.githubToken = options.githubToken;
+            this.targetRepository = options.targetRepository;
+            this.githubApiUrl = options.githubApiUrl;
+            this.clock = options.clock;
+            this.gitHubCliTokenSupplier = options.gitHubCliTokenSupplier;
+            this.artifactAvailabilityChecker = options.artifactAvailabilityChecker;
+            this.warningSink = options.warningSink;
+            this.newerMetadataRepositorySupportChecker = options.newerMetadataRepositorySupportChecker;
+            this.parallelism = parallelism;
+            this.cacheDirectory = cacheDirectory;
+            this.cacheTtl = cacheTtl;
+            this.negativeCacheTtl = negativeCacheTtl;
+            this.offline = offline;
         }
 
         public String buildTool() {
@@ -334,6 +635,66 @@ public final class MissingMetadataCommandSupport {
         NewerMetadataRepositorySupportChecker newerMetadataRepositorySupportChecker() {
             return newerMetadataRepositorySupportChecker;
         }
+
+        public int parallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Returns a copy of these options which looks up at most the given number
+         * of dependencies concurrently.
+         *
+         * @param parallelism the maximum number of concurrent lookups
+         * @return the new options
+         */
+        public Options withParallelism(int parallelism) {
+            return new Options(this, parallelism, cacheDirectory, cacheTtl, negativeCacheTtl, offline);
+        }
+
+        public Path cacheDirectory() {
+            return cacheDirectory;
+        }
+
+        public Duration cacheTtl() {
+            return cacheTtl;
+        }
+
+        public Duration negativeCacheTtl() {
+            return negativeCacheTtl;
+        }
+
+        public boolean offline() {
+            return offline;
+        }
+
+        /**
+         * Returns a copy of these options which caches the answers of Maven Central
+         * and GitHub issue lookups in the given directory. Answers which found the
+         * artifact or issue expire after {@code ttl}, the others after
+         * {@code negativeTtl}.
+         *
+         * @param directory the cache directory, or null to disable caching
+         * @param ttl the time to live of positive answers, or null for the default
+         * @param negativeTtl the time to live of negative answers, or null for the default
+         * @return the new options
+         */
+        public Options withCache(Path directory, Duration ttl, Duration negativeTtl) {
+            return new Options(this, parallelism, directory,
+                ttl == null ? DEFAULT_CACHE_TTL : ttl,
+                negativeTtl == null ? DEFAULT_NEGATIVE_CACHE_TTL : negativeTtl,
+                offline);
+        }
+
+        /**
+         * Returns a copy of these options which never performs remote lookups when
+         * {@code offline} is true. Cached answers are then used even if they expired.
+         *
+         * @param offline whether remote lookups are disabled
+         * @return the new options
+         */
+        public Options withOffline(boolean offline) {
+            return new Options(this, parallelism, cacheDirectory, cacheTtl, negativeCacheTtl, offline);
+        }
     }
 
     public record DependencyCoordinate(String groupId, String artifactId, String version)
@@ -501,52 +862,140 @@ public final class MissingMetadataCommandSupport {
             return Optional.ofNullable(supportingMetadataRepositoryUri);
         }
 
-        private JSONObject toJson() {
-            JSONObject json = new JSONObject();
-            json.put("coordinates", dependency.coordinates());
-            json.put("scope", DEFAULT_SCOPE);
-            json.put("status", status.jsonValue());
+        private JSONObject toRecord() {
+            JSONObject record = new JSONObject();
+            record.put("status", status.name());
+            record.put("issueStatus", issueStatus == null ? null : issueStatus.name());
+            record.put("issueUrl", issueUrl);
+            record.put("issueNumber", issueNumber);
+            record.put("supportingMetadataRepositoryVersion", supportingMetadataRepositoryVersion);
+            record.put("supportingMetadataRepositoryUri", supportingMetadataRepositoryUri);
+            record.put("error", errorMessage);
+            return record;
+        }
+
+        private static Result fromRecord(DependencyCoordinate dependency, JSONObject record) {
+            return new Result(
+                dependency,
+                Status.valueOf(record.getString("status")),
+                record.has("issueStatus") ? IssueStatus.valueOf(record.getString("issueStatus")) : null,
+                record.has("issueUrl") ? record.getString("issueUrl") : null,
+                record.has("issueNumber") ? record.getInt("issueNumber") : null,
+                record.has("supportingMetadataRepositoryVersion") ? record.getString("supportingMetadataRepositoryVersion") : null,
+                record.has("supportingMetadataRepositoryUri") ? record.getString("supportingMetadataRepositoryUri") : null,
+                record.has("error") ? record.getString("error") : null
+            );
+        }
+
+        private void writeJson(JsonWriter json) throws IOException {
+            json.beginObject();
+            json.field("coordinates", dependency.coordinates());
+            json.field("scope", DEFAULT_SCOPE);
+            json.field("status", status.jsonValue());
             if (issueStatus != null) {
-                json.put("issueStatus", issueStatus.jsonValue());
+                json.field("issueStatus", issueStatus.jsonValue());
             }
             if (issueUrl != null) {
-                json.put("issueUrl", issueUrl);
+                json.field("issueUrl", issueUrl);
             }
             if (issueNumber != null) {
-                json.put("issueNumber", issueNumber);
+                json.field("issueNumber", issueNumber);
             }
             if (supportingMetadataRepositoryVersion != null) {
-                json.put("supportingMetadataRepositoryVersion", supportingMetadataRepositoryVersion);
+                json.field("supportingMetadataRepositoryVersion", supportingMetadataRepositoryVersion);
             }
             if (supportingMetadataRepositoryUri != null) {
-                json.put("supportingMetadataRepositoryUri", supportingMetadataRepositoryUri);
+                json.field("supportingMetadataRepositoryUri", supportingMetadataRepositoryUri);
             }
             if (errorMessage != null) {
-                json.put("error", errorMessage);
+                json.field("error", errorMessage);
             }
-            return json;
+            json.endObject();
         }
     }
 
-    public static final class Report {
+    /**
+     * The report of a scan. Results are kept in a temporary file, which is
+     * deleted when the report is closed, and the JSON report and the console
+     * output are written from it one result at a time.
+     */
+    public static final class Report implements AutoCloseable {
         private final Options options;
         private final int scanned;
         private final Instant scannedAt;
-        private final List<Result> results;
+        private final ResultFile results;
 
-        private Report(Options options, int scanned, List<Result> results) {
+        private Report(Options options, int scanned, ResultFile results) {
             this.options = options;
             this.scanned = scanned;
             this.scannedAt = Instant.now(options.clock());
-            this.results = List.copyOf(results);
+            this.results = results;
         }
 
+        /**
+         * Returns all the results, in the order of the scanned dependencies.
+         * The results are read back into memory, so large reports should
+         * rather be written with {@link #writeJson(Writer)}.
+         *
+         * @return the results
+         */
         public List<Result> results() {
-            return results;
+            List<Result> all = new ArrayList<>();
+            forEachResult(all::add);
+            return Collections.unmodifiableList(all);
         }
 
         public String toJsonString() {
-            return toJson().toString(2);
+            StringWriter writer = new StringWriter();
+            try {
+                writeJson(writer);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return writer.toString();
+        }
+
+        /**
+         * Writes the JSON report to the given writer, one result at a time, so
+         * that no intermediate representation of the whole report is built.
+         *
+         * @param writer the writer receiving the report
+         * @throws IOException if writing fails
+         */
+        public void writeJson(Writer writer) throws IOException {
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            json.field("$schema", REPORT_SCHEMA_URI);
+            json.field("command", COMMAND_NAME);
+            json.field("mode", options.createIssues() ? "create" : "list");
+            json.field("targetRepository", options.targetRepository());
+            if (options.metadataRepositoryUri() != null) {
+                json.field("metadataRepositoryUri", options.metadataRepositoryUri());
+            }
+            json.field("scannedAt", DateTimeFormatter.ISO_INSTANT.format(scannedAt));
+            json.name("project");
+            json.beginObject();
+            json.field("buildTool", options.buildTool().toLowerCase(Locale.US));
+            json.field("name", options.projectName());
+            json.endObject();
+            json.name("summary");
+            json.beginObject();
+            json.field("scanned", scanned);
+            json.field("supported", results.count(Status.SUPPORTED));
+            json.field("supportedInNewerMetadataRepository", results.count(Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY));
+            json.field("missing", results.count(Status.MISSING));
+            json.field("existingOpenIssue", results.count(IssueStatus.EXISTING_OPEN_ISSUE));
+            json.field("newIssueLinks", results.count(IssueStatus.NEW_ISSUE_LINK_GENERATED));
+            json.field("createdIssues", results.count(IssueStatus.CREATED_ISSUE));
+            json.field("skippedIssueCreation", results.count(IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL));
+            json.field("errors", results.count(Status.ERROR));
+            json.endObject();
+            json.name("results");
+            json.beginArray();
+            results.forEach(result -> result.writeJson(json));
+            json.endArray();
+            json.endObject();
+            writer.flush();
         }
 
         public String renderConsoleOutput() {
@@ -554,92 +1003,91 @@ public final class MissingMetadataCommandSupport {
         }
 
         public String renderConsoleOutput(String reportFilePath) {
-            List<Result> coveredInNewerRepository = results.stream()
-                .filter(r -> r.status == Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY)
-                .toList();
-            List<Result> existing = filterByIssueStatus(IssueStatus.EXISTING_OPEN_ISSUE);
-            List<Result> created = filterByIssueStatus(IssueStatus.CREATED_ISSUE);
-            List<Result> needRequest = filterByIssueStatus(IssueStatus.NEW_ISSUE_LINK_GENERATED);
-            List<Result> skipped = filterByIssueStatus(IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL);
-            List<Result> errors = results.stream().filter(r -> r.status == Status.ERROR).toList();
-            int unresolvedTotal = existing.size() + created.size() + needRequest.size() + skipped.size();
-            int attentionTotal = coveredInNewerRepository.size() + unresolvedTotal + errors.size();
+            StringJoiner out = new StringJoiner("\n");
+            writeConsoleOutput(reportFilePath, out::add);
+            return out.toString();
+        }
+
+        /**
+         * Writes the console output line by line. Each section is written
+         * while reading the results back, so the output is never held in
+         * memory as a whole.
+         *
+         * @param reportFilePath the path of the JSON report, or null
+         * @param lineConsumer receives the lines of the console output
+         */
+        public void writeConsoleOutput(String reportFilePath, Consumer<String> lineConsumer) {
+            ConsoleWriter out = new ConsoleWriter(lineConsumer);
+            try {
+                writeConsoleOutput(reportFilePath, out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            out.finish();
+        }
+
+        private void writeConsoleOutput(String reportFilePath, ConsoleWriter out) throws IOException {
+            long coveredInNewerRepository = results.count(Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY);
+            long existing = results.count(IssueStatus.EXISTING_OPEN_ISSUE);
+            long created = results.count(IssueStatus.CREATED_ISSUE);
+            long needRequest = results.count(IssueStatus.NEW_ISSUE_LINK_GENERATED);
+            long skipped = results.count(IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL);
+            long errors = results.count(Status.ERROR);
+            long unresolvedTotal = existing + created + needRequest + skipped;
+            long attentionTotal = coveredInNewerRepository + unresolvedTotal + errors;
             if (attentionTotal == 0) {
-                StringBuilder out = new StringBuilder();
                 out.append("All ").append(scanned).append(" direct dependencies are supported by the reachability metadata repository.");
                 if (reportFilePath != null) {
-                    out.append('\n').append('\n').append("Full report: ").append(reportFilePath);
+                    out.append("\n\nFull report: ").append(reportFilePath);
                 }
-                return out.toString();
-            }
-
-            Map<Result, String> labels = new LinkedHashMap<>();
-            LinkedHashMap<String, String> footnotes = new LinkedHashMap<>();
-            int existingIdx = 1;
-            for (Result r : existing) {
-                String label = "[E" + existingIdx++ + "]";
-                labels.put(r, label);
-                footnotes.put(label, r.issueUrl);
-            }
-            int createdIdx = 1;
-            for (Result r : created) {
-                String label = "[C" + createdIdx++ + "]";
-                labels.put(r, label);
-                footnotes.put(label, r.issueUrl);
-            }
-            int newIdx = 1;
-            for (Result r : needRequest) {
-                String label = "[" + newIdx++ + "]";
-                labels.put(r, label);
-                footnotes.put(label, r.issueUrl);
+                return;
             }
 
-            StringBuilder out = new StringBuilder();
             out.append("Dependencies needing attention: ").append(attentionTotal)
                 .append(" of ").append(scanned).append(" scanned");
-            if (!coveredInNewerRepository.isEmpty()) {
-                out.append(" (").append(coveredInNewerRepository.size())
-                    .append(coveredInNewerRepository.size() == 1
+            if (coveredInNewerRepository > 0) {
+                out.append(" (").append(coveredInNewerRepository)
+                    .append(coveredInNewerRepository == 1
                         ? " covered in a newer metadata repository release"
                         : " covered in newer metadata repository releases");
-                if (!existing.isEmpty()) {
-                    out.append(", ").append(existing.size()).append(" already requested");
+                if (existing > 0) {
+                    out.append(", ").append(existing).append(" already requested");
                 }
                 out.append(")");
-            } else if (!existing.isEmpty()) {
-                out.append(" (").append(existing.size()).append(" already requested)");
+            } else if (existing > 0) {
+                out.append(" (").append(existing).append(" already requested)");
             }
             out.append(".\n\n");
 
-            if (!coveredInNewerRepository.isEmpty()) {
+            if (coveredInNewerRepository > 0) {
                 out.append("Covered in a newer metadata repository release (update metadata repository or Native Build Tools):\n");
-                renderNewerRepositoryList(out, coveredInNewerRepository);
-                out.append('\n');
+                renderNewerRepositoryList(out);
+                out.append("\n");
             }
 
-            if (!existing.isEmpty()) {
+            if (existing > 0) {
                 out.append("Already requested (no action needed):\n");
-                renderBulletList(out, existing, labels, "existing request");
-                out.append('\n');
+                renderBulletList(out, IssueStatus.EXISTING_OPEN_ISSUE, "existing request", "E");
+                out.append("\n");
             }
 
-            if (!created.isEmpty()) {
-                out.append("Requested support for ").append(created.size())
-                    .append(created.size() == 1 ? " library:\n" : " libraries:\n");
-                renderBulletList(out, created, labels, "request created");
-                out.append('\n');
+            if (created > 0) {
+                out.append("Requested support for ").append(created)
+                    .append(created == 1 ? " library:\n" : " libraries:\n");
+                renderBulletList(out, IssueStatus.CREATED_ISSUE, "request created", "C");
+                out.append("\n");
             }
 
-            if (!needRequest.isEmpty()) {
+            if (needRequest > 0) {
                 String quantifier;
-                if (needRequest.size() == 1) {
-                    quantifier = !existing.isEmpty() || !created.isEmpty() || !skipped.isEmpty()
+                if (needRequest == 1) {
+                    quantifier = existing > 0 || created > 0 || skipped > 0
                         ? "the remaining library"
                         : "this library";
                 } else {
-                    quantifier = !existing.isEmpty() || !created.isEmpty() || !skipped.isEmpty()
-                        ? "the remaining " + needRequest.size() + " libraries"
-                        : "all " + needRequest.size() + " libraries";
+                    quantifier = existing > 0 || created > 0 || skipped > 0
+                        ? "the remaining " + needRequest + " libraries"
+                        : "all " + needRequest + " libraries";
                 }
                 out.append("To request support for ").append(quantifier)
                     .append(" automatically, re-run with createIssues=true:\n\n");
@@ -648,80 +1096,112 @@ public final class MissingMetadataCommandSupport {
                 out.append("    ").append(tokenSourcesLine(options.buildTool())).append("\n\n");
 
                 out.append("Or request support manually, one library at a time:\n");
-                renderBulletList(out, needRequest, labels, "request support");
-                out.append('\n');
+                renderBulletList(out, IssueStatus.NEW_ISSUE_LINK_GENERATED, "request support", "");
+                out.append("\n");
             }
 
-            if (!skipped.isEmpty()) {
-                out.append("Skipped support requests for ").append(skipped.size())
-                    .append(skipped.size() == 1 ? " library" : " libraries")
+            if (skipped > 0) {
+                out.append("Skipped support requests for ").append(skipped)
+                    .append(skipped == 1 ? " library" : " libraries")
                     .append(" not found in Maven Central:\n");
-                renderSkippedList(out, skipped);
-                out.append('\n');
+                renderSkippedList(out);
+                out.append("\n");
             }
 
-            if (!errors.isEmpty()) {
-                out.append("Errors (").append(errors.size()).append("):\n");
-                int maxWidth = maxCoordinateWidth(errors);
-                for (Result r : errors) {
-                    out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
-                        .append("  ").append(r.errorMessage().orElse("Unknown error")).append('\n');
-                }
-                out.append('\n');
+            if (errors > 0) {
+                out.append("Errors (").append(errors).append("):\n");
+                int maxWidth = maxCoordinateWidth(r -> r.status == Status.ERROR);
+                forEachResult(r -> {
+                    if (r.status == Status.ERROR) {
+                        out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
+                            .append("  ").append(r.errorMessage().orElse("Unknown error")).append("\n");
+                    }
+                });
+                out.append("\n");
             }
 
-            if (!footnotes.isEmpty()) {
-                for (Map.Entry<String, String> entry : footnotes.entrySet()) {
-                    out.append("  ").append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
-                }
-                out.append('\n');
+            if (existing + created + needRequest > 0) {
+                renderFootnotes(out, IssueStatus.EXISTING_OPEN_ISSUE, "E");
+                renderFootnotes(out, IssueStatus.CREATED_ISSUE, "C");
+                renderFootnotes(out, IssueStatus.NEW_ISSUE_LINK_GENERATED, "");
+                out.append("\n");
             }
 
             if (reportFilePath != null) {
-                out.append("Full report: ").append(reportFilePath).append('\n');
+                out.append("Full report: ").append(reportFilePath).append("\n");
             }
-
-            return out.toString().stripTrailing();
         }
 
-        private List<Result> filterByIssueStatus(IssueStatus issueStatus) {
-            return results.stream()
-                .filter(r -> r.status == Status.MISSING && r.issueStatus == issueStatus)
-                .toList();
+        @Override
+        public void close() {
+            results.close();
         }
 
-        private void renderSkippedList(StringBuilder out, List<Result> entries) {
-            int maxWidth = maxCoordinateWidth(entries);
-            for (Result r : entries) {
-                out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
-                    .append("  support request skipped\n");
+        private void forEachResult(Consumer<Result> action) {
+            try {
+                results.forEach(action::accept);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
         }
 
-        private void renderNewerRepositoryList(StringBuilder out, List<Result> entries) {
-            for (Result r : entries) {
-                String supportedVersion = r.supportingMetadataRepositoryVersion().orElse("a newer release");
-                out.append("  - ").append(r.dependency.coordinates())
-                    .append(" -> supported in ")
-                    .append(supportedVersion)
-                    .append('\n');
-                out.append("      update metadata repository to ")
-                    .append(supportedVersion)
-                    .append(" or upgrade Native Build Tools\n");
-            }
+        private static boolean hasIssueStatus(Result result, IssueStatus issueStatus) {
+            return result.status == Status.MISSING && result.issueStatus == issueStatus;
         }
 
-        private void renderBulletList(StringBuilder out, List<Result> entries,
-                                      Map<Result, String> labels, String actionWord) {
-            int maxWidth = maxCoordinateWidth(entries);
-            for (Result r : entries) {
-                out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
-                    .append("  -> ").append(actionWord).append(' ').append(labels.get(r)).append('\n');
-            }
+        private void renderSkippedList(ConsoleWriter out) {
+            int maxWidth = maxCoordinateWidth(r -> hasIssueStatus(r, IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL));
+            forEachResult(r -> {
+                if (hasIssueStatus(r, IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL)) {
+                    out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
+                        .append("  support request skipped\n");
+                }
+            });
+        }
+
+        private void renderNewerRepositoryList(ConsoleWriter out) {
+            forEachResult(r -> {
+                if (r.status == Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY) {
+                    String supportedVersion = r.supportingMetadataRepositoryVersion().orElse("a newer release");
+                    out.append("  - ").append(r.dependency.coordinates())
+                        .append(" -> supported in ")
+                        .append(supportedVersion)
+                        .append("\n");
+                    out.append("      update metadata repository to ")
+                        .append(supportedVersion)
+                        .append(" or upgrade Native Build Tools\n");
+                }
+            });
+        }
+
+        private void renderBulletList(ConsoleWriter out, IssueStatus issueStatus, String actionWord, String labelPrefix) {
+            int maxWidth = maxCoordinateWidth(r -> hasIssueStatus(r, issueStatus));
+            int[] label = new int[1];
+            forEachResult(r -> {
+                if (hasIssueStatus(r, issueStatus)) {
+                    out.append("  - ").append(padRight(r.dependency.coordinates(), maxWidth))
+                        .append("  -> ").append(actionWord).append(" [").append(labelPrefix).append(++label[0]).append("]\n");
+                }
+            });
         }
 
-        private static int maxCoordinateWidth(List<Result> entries) {
-            return entries.stream().mapToInt(r -> r.dependency.coordinates().length()).max().orElse(0);
+        private void renderFootnotes(ConsoleWriter out, IssueStatus issueStatus, String labelPrefix) {
+            int[] label = new int[1];
+            forEachResult(r -> {
+                if (hasIssueStatus(r, issueStatus)) {
+                    out.append("  [").append(labelPrefix).append(++label[0]).append("] ").append(r.issueUrl).append("\n");
+                }
+            });
+        }
+
+        private int maxCoordinateWidth(Predicate<Result> filter) {
+            int[] maxWidth = new int[1];
+            forEachResult(r -> {
+                if (filter.test(r)) {
+                    maxWidth[0] = Math.max(maxWidth[0], r.dependency.coordinates().length());
+                }
+            });
+            return maxWidth[0];
         }
 
         private static String padRight(String value, int width) {
@@ -756,69 +1236,131 @@ public final class MissingMetadataCommandSupport {
             return "explicit token  ->  $GITHUB_TOKEN  ->  $GH_TOKEN  ->  `gh auth token`";
         }
 
-        private JSONObject toJson() {
-            JSONObject json = new JSONObject();
-            json.put("$schema", REPORT_SCHEMA_URI);
-            json.put("command", COMMAND_NAME);
-            json.put("mode", options.createIssues() ? "create" : "list");
-            json.put("targetRepository", options.targetRepository());
-            if (options.metadataRepositoryUri() != null) {
-                json.put("metadataRepositoryUri", options.metadataRepositoryUri());
+    }
+
+    /**
+     * Splits console output into lines, dropping trailing blank lines.
+     */
+    private static final class ConsoleWriter {
+        private final Consumer<String> lineConsumer;
+        private final StringBuilder line = new StringBuilder();
+        private int pendingBlankLines;
+
+        private ConsoleWriter(Consumer<String> lineConsumer) {
+            this.lineConsumer = lineConsumer;
+        }
+
+        private ConsoleWriter append(Object value) {
+            String text = String.valueOf(value);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\n') {
+                    endLine();
+                } else {
+                    line.append(c);
+                }
             }
-            json.put("scannedAt", DateTimeFormatter.ISO_INSTANT.format(scannedAt));
-            JSONObject project = new JSONObject();
-            project.put("buildTool", options.buildTool().toLowerCase(Locale.US));
-            project.put("name", options.projectName());
-            json.put("project", project);
-            JSONObject summary = new JSONObject();
-            summary.put("scanned", scanned);
-            summary.put("supported", supportedCount());
-            summary.put("supportedInNewerMetadataRepository", supportedInNewerMetadataRepositoryCount());
-            summary.put("missing", missingCount());
-            summary.put("existingOpenIssue", existingIssueCount());
-            summary.put("newIssueLinks", newIssueLinkCount());
-            summary.put("createdIssues", createdIssueCount());
-            summary.put("skippedIssueCreation", skippedIssueCreationCount());
-            summary.put("errors", errorCount());
-            json.put("summary", summary);
-            JSONArray resultsJson = new JSONArray();
-            for (Result result : results) {
-                resultsJson.put(result.toJson());
+            return this;
+        }
+
+        private void endLine() {
+            if (line.length() == 0) {
+                pendingBlankLines++;
+            } else {
+                for (; pendingBlankLines > 0; pendingBlankLines--) {
+                    lineConsumer.accept("");
+                }
+                lineConsumer.accept(line.toString());
             }
-            json.put("results", resultsJson);
-            return json;
+            line.setLength(0);
+        }
+
+        private void finish() {
+            if (line.length() > 0) {
+                endLine();
+            }
+        }
+    }
+
+    /**
+     * Minimal JSON writer producing the same layout as {@code JSONObject.toString(2)}.
+     */
+    private static final class JsonWriter {
+        private final Writer writer;
+        private final Deque<Boolean> hasElements = new ArrayDeque<>();
+        private boolean afterName;
+
+        private JsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void beginObject() throws IOException {
+            open('{');
         }
 
-        private long supportedCount() {
-            return results.stream().filter(result -> result.status == Status.SUPPORTED).count();
+        private void endObject() throws IOException {
+            close('}');
         }
 
-        private long supportedInNewerMetadataRepositoryCount() {
-            return results.stream().filter(result -> result.status == Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY).count();
+        private void beginArray() throws IOException {
+            open('[');
         }
 
-        private long missingCount() {
-            return results.stream().filter(result -> result.status == Status.MISSING).count();
+        private void endArray() throws IOException {
+            close(']');
         }
 
-        private long existingIssueCount() {
-            return results.stream().filter(result -> result.issueStatus == IssueStatus.EXISTING_OPEN_ISSUE).count();
+        private void name(String name) throws IOException {
+            beforeValue();
+            writer.write(JSONObject.quote(name));
+            writer.write(": ");
+            afterName = true;
         }
 
-        private long newIssueLinkCount() {
-            return results.stream().filter(result -> result.issueStatus == IssueStatus.NEW_ISSUE_LINK_GENERATED).count();
+        private void field(String name, String value) throws IOException {
+            name(name);
+            beforeValue();
+            writer.write(JSONObject.quote(value));
         }
 
-        private long createdIssueCount() {
-            return results.stream().filter(result -> result.issueStatus == IssueStatus.CREATED_ISSUE).count();
+        private void field(String name, long value) throws IOException {
+            name(name);
+            beforeValue();
+            writer.write(Long.toString(value));
         }
 
-        private long skippedIssueCreationCount() {
-            return results.stream().filter(result -> result.issueStatus == IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL).count();
+        private void open(char bracket) throws IOException {
+            beforeValue();
+            writer.write(bracket);
+            hasElements.push(false);
         }
 
-        private long errorCount() {
-            return results.stream().filter(result -> result.status == Status.ERROR).count();
+        private void close(char bracket) throws IOException {
+            if (hasElements.pop()) {
+                newLine();
+            }
+            writer.write(bracket);
+        }
+
+        private void beforeValue() throws IOException {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (!hasElements.isEmpty()) {
+                if (hasElements.pop()) {
+                    writer.write(',');
+                }
+                hasElements.push(true);
+                newLine();
+            }
+        }
+
+        private void newLine() throws IOException {
+            writer.write('\n');
+            for (int i = 0; i < hasElements.size(); i++) {
+                writer.write("  ");
+            }
         }
     }
 
@@ -852,16 +1394,24 @@ public final class MissingMetadataCommandSupport {
         private final URI apiBaseUri;
         private final URI htmlBaseUri;
         private final String githubToken;
+        private final GitHubRequestScheduler scheduler = new GitHubRequestScheduler(GITHUB_MAX_RATE_LIMIT_WAIT);
         private final AtomicBoolean lookupFailureWarned = new AtomicBoolean();
+        private final AtomicBoolean offlineMissWarned = new AtomicBoolean();
+        private final LookupCache cache;
+        private final Map<String, IssueSearch> prefetchedIssues = new ConcurrentHashMap<>();
 
         private GitHubIssueClient(Options options) {
             this.options = options;
+            this.cache = lookupCache(options);
             this.client = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
             this.apiBaseUri = URI.create(options.githubApiUrl());
             this.htmlBaseUri = htmlBaseUri(options.githubApiUrl());
             this.githubToken = resolveGithubToken(options.githubToken(), options.githubApiUrl(), options.gitHubCliTokenSupplier());
+            if (options.createIssues() && options.offline()) {
+                throw new IllegalArgumentException("createIssues=true cannot be used in offline mode.");
+            }
             if (options.createIssues() && githubToken == null) {
                 throw new IllegalArgumentException(missingGithubTokenMessage(options.buildTool()));
             }
@@ -878,26 +1428,26 @@ public final class MissingMetadataCommandSupport {
         }
 
         private Optional<IssueReference> findOpenIssue(DependencyCoordinate dependency) {
+            // Issue creation must not rely on a cached "no issue" answer, as that would create duplicates
+            Optional<LookupCache.Entry> cached = options.createIssues() ? Optional.empty() : cached(issueCacheKey(dependency.groupAndArtifact()));
+            if (cached.isPresent()) {
+                return cached.get().positive() ? Optional.of(issueFromJson(new JSONObject(cached.get().value()))) : Optional.empty();
+            }
+            if (options.offline()) {
+                warnOfflineMiss();
+                return Optional.empty();
+            }
             try {
-                String query = "repo:" + options.targetRepository()
-                    + " is:issue is:open label:library-new-request \"" + dependency.groupAndArtifact() + "\"";
-                URI uri = URI.create(apiBaseUri + "/search/issues?q=" + encode(query) + "&per_page=20");
-                JSONObject json = send(request(uri).GET().build(), false);
-                JSONArray items = json.optJSONArray("items");
-                if (items == null) {
-                    return Optional.empty();
-                }
-                for (int i = 0; i < items.length(); i++) {
-                    JSONObject item = items.getJSONObject(i);
-                    if (referencesGroupAndArtifact(item.optString("title"), dependency.groupAndArtifact())) {
-                        return Optional.of(new IssueReference(
-                            IssueStatus.EXISTING_OPEN_ISSUE,
-                            item.getString("html_url"),
-                            item.optInt("number")
-                        ));
-                    }
+                IssueSearch prefetched = prefetchedIssues.get(dependency.groupAndArtifact());
+                Optional<IssueReference> issue = prefetched != null
+                    ? prefetched.issue()
+                    : Optional.ofNullable(searchOpenIssues(List.of(dependency.groupAndArtifact())).issues().get(dependency.groupAndArtifact()));
+                if (issue.isPresent()) {
+                    cacheIssue(dependency, issue.get());
+                } else {
+                    cache(issueCacheKey(dependency.groupAndArtifact()), null, false);
                 }
-                return Optional.empty();
+                return issue;
             } catch (RuntimeException ex) {
                 if (options.createIssues()) {
                     throw ex;
@@ -913,6 +1463,67 @@ public final class MissingMetadataCommandSupport {
             }
         }
 
+        /**
+         * Searches the open issues of the given modules in batches, so that looking
+         * them up afterwards doesn't send one search request per module. Modules
+         * with a cached answer are skipped.
+         */
+        private void prefetchOpenIssues(Collection<String> groupAndArtifacts) {
+            if (options.offline()) {
+                return;
+            }
+            List<String> uncached = groupAndArtifacts.stream()
+                .filter(groupAndArtifact -> options.createIssues() || cached(issueCacheKey(groupAndArtifact)).isEmpty())
+                .toList();
+            List<Callable<Void>> searches = new ArrayList<>();
+            for (List<String> batch : issueSearchBatches(uncached)) {
+                searches.add(() -> {
+                    try {
+                        IssueSearchResult result = searchOpenIssues(batch);
+                        for (String groupAndArtifact : batch) {
+                            IssueReference issue = result.issues().get(groupAndArtifact);
+                            // Modules missing from incomplete results are searched again on their own
+                            if (issue != null || result.complete()) {
+                                prefetchedIssues.put(groupAndArtifact, new IssueSearch(issue, null));
+                            }
+                        }
+                    } catch (RuntimeException ex) {
+                        for (String groupAndArtifact : batch) {
+                            prefetchedIssues.put(groupAndArtifact, new IssueSearch(null, ex));
+                        }
+                    }
+                    return null;
+                });
+            }
+            runAll(searches, options.parallelism());
+        }
+
+        private IssueSearchResult searchOpenIssues(List<String> groupAndArtifacts) {
+            String query = "repo:" + options.targetRepository() + " is:issue is:open label:library-new-request "
+                + groupAndArtifacts.stream().map(MissingMetadataCommandSupport::issueSearchTerm).collect(Collectors.joining(" OR "));
+            URI uri = URI.create(apiBaseUri + "/search/issues?q=" + encode(query) + "&per_page=" + ISSUE_SEARCH_PAGE_SIZE);
+            JSONObject json = send(request(uri).GET().build(), false);
+            JSONArray items = json.optJSONArray("items");
+            if (items == null) {
+                return new IssueSearchResult(Collections.emptyMap(), true);
+            }
+            Map<String, IssueReference> issues = new LinkedHashMap<>();
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                for (String groupAndArtifact : groupAndArtifacts) {
+                    if (!issues.containsKey(groupAndArtifact) && referencesGroupAndArtifact(item.optString("title"), groupAndArtifact)) {
+                        issues.put(groupAndArtifact, new IssueReference(
+                            IssueStatus.EXISTING_OPEN_ISSUE,
+                            item.getString("html_url"),
+                            item.optInt("number")
+                        ));
+                    }
+                }
+            }
+            boolean complete = !json.optBoolean("incomplete_results") && items.length() >= json.optInt("total_count", items.length());
+            return new IssueSearchResult(issues, complete);
+        }
+
         private IssueReference newIssueLink(DependencyCoordinate dependency) {
             String issueUrl = htmlBaseUri + "/" + options.targetRepository() + "/issues/new?template=" + encode(ISSUE_TEMPLATE)
                 + "&title=" + encodeReadableQueryValue(issueTitle(dependency));
@@ -940,8 +1551,61 @@ public final class MissingMetadataCommandSupport {
             );
         }
 
+        private void cacheIssue(DependencyCoordinate dependency, IssueReference issue) {
+            JSONObject json = new JSONObject();
+            json.put("status", issue.issueStatus().jsonValue());
+            json.put("url", issue.issueUrl());
+            if (issue.issueNumber() != null) {
+                json.put("number", issue.issueNumber());
+            }
+            cache(issueCacheKey(dependency.groupAndArtifact()), json.toString(), true);
+        }
+
+        private IssueReference issueFromJson(JSONObject json) {
+            // Issues created by a previous run are existing issues for this one
+            return new IssueReference(
+                IssueStatus.EXISTING_OPEN_ISSUE,
+                json.getString("url"),
+                json.has("number") ? json.getInt("number") : null
+            );
+        }
+
+        private String issueCacheKey(String groupAndArtifact) {
+            return "issue:" + options.githubApiUrl() + "/" + options.targetRepository() + ":" + groupAndArtifact;
+        }
+
         private boolean isAvailableInMavenCentral(DependencyCoordinate dependency) {
-            return options.artifactAvailabilityChecker().isAvailable(dependency);
+            String key = "central:" + dependency.coordinates();
+            Optional<LookupCache.Entry> cached = cached(key);
+            if (cached.isPresent()) {
+                return cached.get().positive();
+            }
+            if (options.offline()) {
+                warnOfflineMiss();
+                return true;
+            }
+            boolean available = options.artifactAvailabilityChecker().isAvailable(dependency);
+            cache(key, null, available);
+            return available;
+        }
+
+        private Optional<LookupCache.Entry> cached(String key) {
+            return cache == null ? Optional.empty() : cache.get(key, options.offline());
+        }
+
+        private void cache(String key, String value, boolean positive) {
+            if (cache != null) {
+                cache.put(key, value, positive);
+            }
+        }
+
+        private void warnOfflineMiss() {
+            if (offlineMissWarned.compareAndSet(false, true)) {
+                options.warningSink().accept(
+                    "Offline mode: some Maven Central or GitHub issue lookups are not cached. "
+                        + "Those libraries are assumed to be published and to have no open issue; run online to refresh the cache."
+                );
+            }
         }
 
         private HttpRequest.Builder request(URI uri) {
@@ -958,7 +1622,7 @@ public final class MissingMetadataCommandSupport {
 
         private JSONObject send(HttpRequest request, boolean authenticatedOperation) {
             try {
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                HttpResponse<String> response = scheduler.send(client, request);
                 int statusCode = response.statusCode();
                 if (statusCode >= 200 && statusCode < 300) {
                     return new JSONObject(response.body());
@@ -976,6 +1640,130 @@ public final class MissingMetadataCommandSupport {
         }
     }
 
+    private record IssueSearchResult(Map<String, IssueReference> issues, boolean complete) {
+    }
+
+    private record IssueSearch(IssueReference found, RuntimeException failure) {
+        private Optional<IssueReference> issue() {
+            if (failure != null) {
+                throw failure;
+            }
+            return Optional.ofNullable(found);
+        }
+    }
+
+    /**
+     * Splits modules into batches which can each be searched with a single query:
+     * GitHub search queries combine at most {@value #MAX_ISSUE_SEARCH_TERMS} terms
+     * and are limited to {@value #MAX_ISSUE_SEARCH_TERMS_LENGTH} characters,
+     * excluding qualifiers.
+     */
+    static List<List<String>> issueSearchBatches(Collection<String> groupAndArtifacts) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int batchLength = 0;
+        for (String groupAndArtifact : groupAndArtifacts) {
+            int termLength = issueSearchTerm(groupAndArtifact).length() + " OR ".length();
+            if (!batch.isEmpty() && (batch.size() == MAX_ISSUE_SEARCH_TERMS || batchLength + termLength > MAX_ISSUE_SEARCH_TERMS_LENGTH)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchLength = 0;
+            }
+            batch.add(groupAndArtifact);
+            batchLength += termLength;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static String issueSearchTerm(String groupAndArtifact) {
+        return "\"" + groupAndArtifact + "\"";
+    }
+
+    /**
+     * Paces the requests sent to the GitHub API using its rate limit headers, so
+     * that concurrent lookups don't exhaust the rate limits. Once the primary rate
+     * limit is used up ({@code X-RateLimit-Remaining: 0}), requests wait until
+     * {@code X-RateLimit-Reset}. Requests rejected by a secondary rate limit are
+     * retried after their {@code Retry-After} delay. Requests which would have to
+     * wait longer than the maximum wait fail instead.
+     */
+    static final class GitHubRequestScheduler {
+        private static final int MAX_ATTEMPTS = 3;
+
+        private final Duration maxWait;
+        private long pausedUntilMillis;
+
+        GitHubRequestScheduler(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        HttpResponse<String> send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                awaitPermit();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                long pauseMillis = pauseMillis(response);
+                if (pauseMillis >= 0) {
+                    pauseFor(pauseMillis);
+                }
+                if (!isRateLimited(response) || attempt == MAX_ATTEMPTS) {
+                    return response;
+                }
+            }
+        }
+
+        private void awaitPermit() throws InterruptedException {
+            while (true) {
+                long waitMillis;
+                synchronized (this) {
+                    waitMillis = pausedUntilMillis - System.currentTimeMillis();
+                }
+                if (waitMillis <= 0) {
+                    return;
+                }
+                if (waitMillis > maxWait.toMillis()) {
+                    throw new GitHubApiException("GitHub API rate limit exceeded, retry after " + Instant.ofEpochMilli(System.currentTimeMillis() + waitMillis));
+                }
+                Thread.sleep(waitMillis);
+            }
+        }
+
+        private synchronized void pauseFor(long pauseMillis) {
+            pausedUntilMillis = Math.max(pausedUntilMillis, System.currentTimeMillis() + pauseMillis);
+        }
+
+        private static boolean isRateLimited(HttpResponse<String> response) {
+            int statusCode = response.statusCode();
+            return statusCode == 429 || statusCode == 403 && (response.headers().firstValue("Retry-After").isPresent()
+                || "0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null)));
+        }
+
+        /**
+         * Returns how long to wait before the next request, or -1 if requests don't need to wait.
+         */
+        private static long pauseMillis(HttpResponse<String> response) {
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                return TimeUnit.SECONDS.toMillis(parseLong(retryAfter.get(), 0));
+            }
+            Optional<String> reset = response.headers().firstValue("X-RateLimit-Reset");
+            if ("0".equals(response.headers().firstValue("X-RateLimit-Remaining").orElse(null)) && reset.isPresent()) {
+                return Math.max(0, TimeUnit.SECONDS.toMillis(parseLong(reset.get(), 0)) - System.currentTimeMillis());
+            }
+            return -1;
+        }
+
+        private static long parseLong(String value, long defaultValue) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                return defaultValue;
+            }
+        }
+    }
+
     private static String issueTitle(DependencyCoordinate dependency) {
         return "Support for " + dependency.coordinates();
     }
@@ -1168,16 +1956,32 @@ public final class MissingMetadataCommandSupport {
         Optional<SupportingMetadataRepository> findSupportingRepository(DependencyCoordinate dependency, String forcedVersion);
     }
 
+    /**
+     * Checks coverage against the latest official metadata release. Each release
+     * is downloaded once: only its binary index and schemas are kept, in the
+     * {@code metadata-releases} directory of the lookup cache, so that later runs
+     * answer coverage queries from the memory-mapped index without downloading or
+     * extracting the release again. The latest release tag is cached like other
+     * lookups; offline runs only use releases which were already indexed.
+     */
     private static final class OfficialMetadataRepositorySupportChecker implements NewerMetadataRepositorySupportChecker {
         private final String configuredMetadataRepositoryUri;
         private final Consumer<String> warningSink;
+        private final LookupCache cache;
+        private final Path releasesDirectory;
+        private final boolean offline;
         private final AtomicBoolean warningEmitted = new AtomicBoolean();
         private volatile RepositorySnapshot repositorySnapshot;
         private volatile boolean initialized;
 
-        private OfficialMetadataRepositorySupportChecker(String configuredMetadataRepositoryUri, Consumer<String> warningSink) {
-            this.configuredMetadataRepositoryUri = blankToNull(configuredMetadataRepositoryUri);
-            this.warningSink = warningSink;
+        private OfficialMetadataRepositorySupportChecker(Options options) {
+            this.configuredMetadataRepositoryUri = blankToNull(options.metadataRepositoryUri());
+            this.warningSink = options.warningSink();
+            this.cache = lookupCache(options);
+            this.releasesDirectory = options.cacheDirectory() == null
+                ? Path.of(System.getProperty("java.io.tmpdir"), "native-build-tools", "metadata-release-cache")
+                : options.cacheDirectory().resolve(METADATA_RELEASES_DIRECTORY);
+            this.offline = options.offline();
         }
 
         @Override
@@ -1210,27 +2014,19 @@ public final class MissingMetadataCommandSupport {
 
         private RepositorySnapshot loadRepositorySnapshot() {
             try {
-                HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-                HttpRequest request = HttpRequest.newBuilder(URI.create(DEFAULT_GITHUB_API_URL + "/repos/" + OFFICIAL_METADATA_REPOSITORY + "/releases/latest"))
-                    .timeout(Duration.ofSeconds(20))
-                    .header("Accept", "application/vnd.github+json")
-                    .header("User-Agent", "native-build-tools-missing-metadata")
-                    .GET()
-                    .build();
-                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-                if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                    throw new RuntimeException("GitHub releases lookup failed with status " + response.statusCode());
-                }
-                JSONObject json = new JSONObject(response.body());
-                String version = json.optString("tag_name", "");
-                if (version.isBlank()) {
-                    throw new RuntimeException("GitHub releases lookup did not return a release tag");
+                String version = latestReleaseTag();
+                if (version == null) {
+                    return null;
                 }
                 String repositoryUri = String.format(SharedConstants.METADATA_REPO_URL_TEMPLATE, version);
-                FileSystemRepository repository = downloadRepository(repositoryUri);
-                return new RepositorySnapshot(version, repositoryUri, repository);
+                Path indexDirectory = releasesDirectory.resolve(FileUtils.hashFor(URI.create(repositoryUri)));
+                if (BinaryRepositoryIndex.open(indexDirectory).isEmpty()) {
+                    if (offline) {
+                        return null;
+                    }
+                    indexRelease(repositoryUri, indexDirectory);
+                }
+                return new RepositorySnapshot(version, repositoryUri, new FileSystemRepository(indexDirectory));
             } catch (Exception ex) {
                 if (warningEmitted.compareAndSet(false, true)) {
                     warningSink.accept(
@@ -1243,38 +2039,100 @@ public final class MissingMetadataCommandSupport {
             }
         }
 
-        private FileSystemRepository downloadRepository(String repositoryUri) throws IOException {
-            Path cacheRoot = Path.of(System.getProperty("java.io.tmpdir"), "native-build-tools", "metadata-release-cache");
-            Files.createDirectories(cacheRoot);
-            String cacheKey = FileUtils.hashFor(URI.create(repositoryUri));
-            Path extractedRepository = cacheRoot.resolve(cacheKey + "-extracted");
-            if (!Files.exists(extractedRepository)) {
+        private String latestReleaseTag() throws IOException, InterruptedException {
+            String key = "latest-release:" + OFFICIAL_METADATA_REPOSITORY;
+            Optional<LookupCache.Entry> cached = cache == null ? Optional.empty() : cache.get(key, offline);
+            if (cached.isPresent()) {
+                return cached.get().value();
+            }
+            if (offline) {
+                return null;
+            }
+            HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(DEFAULT_GITHUB_API_URL + "/repos/" + OFFICIAL_METADATA_REPOSITORY + "/releases/latest"))
+                .timeout(Duration.ofSeconds(20))
+                .header("Accept", "application/vnd.github+json")
+                .header("User-Agent", "native-build-tools-missing-metadata")
+                .GET()
+                .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new RuntimeException("GitHub releases lookup failed with status " + response.statusCode());
+            }
+            JSONObject json = new JSONObject(response.body());
+            String version = json.optString("tag_name", "");
+            if (version.isBlank()) {
+                throw new RuntimeException("GitHub releases lookup did not return a release tag");
+            }
+            if (cache != null) {
+                cache.put(key, version, true);
+            }
+            return version;
+        }
+
+        private void indexRelease(String repositoryUri, Path indexDirectory) throws IOException {
+            Files.createDirectories(releasesDirectory);
+            Path workDirectory = Files.createTempDirectory(releasesDirectory, indexDirectory.getFileName() + ".");
+            try {
                 URL url = URI.create(repositoryUri).toURL();
-                Path downloadDirectory = cacheRoot.resolve(cacheKey);
-                Optional<Path> downloaded = existingDownloadedArchive(downloadDirectory)
-                    .or(() -> FileUtils.download(url, downloadDirectory, message -> { }));
-                if (downloaded.isEmpty()) {
-                    throw new IOException("Unable to download metadata repository " + repositoryUri);
-                }
-                AtomicBoolean extractionFailed = new AtomicBoolean();
-                FileUtils.extract(downloaded.get(), extractedRepository, message -> extractionFailed.set(true));
-                if (extractionFailed.get()) {
-                    throw new IOException("Unable to extract metadata repository " + repositoryUri);
+                String path = url.getPath();
+                Path archive = ResumableDownloader.get()
+                    .download(url, workDirectory.resolve(path.substring(path.lastIndexOf('/') + 1)));
+                Path extractedRepository = workDirectory.resolve("extracted");
+                List<String> errors = new ArrayList<>();
+                FileUtils.extract(archive, extractedRepository, errors::add);
+                if (!errors.isEmpty()) {
+                    throw new IOException("Unable to extract metadata repository " + repositoryUri + ": " + errors.get(0));
                 }
+                writeReleaseIndex(extractedRepository, indexDirectory);
+            } finally {
+                FileUtils.deleteRecursively(workDirectory);
             }
-            return new FileSystemRepository(extractedRepository);
         }
+    }
 
-        private Optional<Path> existingDownloadedArchive(Path downloadDirectory) throws IOException {
-            if (!Files.isDirectory(downloadDirectory)) {
-                return Optional.empty();
+    /**
+     * Indexes an extracted metadata repository and publishes the index together with
+     * the repository schemas into the index directory, which is then a repository
+     * answering coverage queries without any configuration directory.
+     *
+     * @param extractedRepository the extracted repository, which receives the binary index
+     * @param indexDirectory the directory to publish the index into
+     * @throws IOException if the index cannot be written or published
+     */
+    static void writeReleaseIndex(Path extractedRepository, Path indexDirectory) throws IOException {
+        FileSystemRepository.writeBinaryIndex(extractedRepository);
+        Path temporary = indexDirectory.resolveSibling(indexDirectory.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(temporary.resolve("schemas"));
+            try (DirectoryStream<Path> schemas = Files.newDirectoryStream(extractedRepository.resolve("schemas"))) {
+                for (Path schema : schemas) {
+                    Files.copy(schema, temporary.resolve("schemas").resolve(schema.getFileName().toString()));
+                }
             }
-            try (java.util.stream.Stream<Path> paths = Files.list(downloadDirectory)) {
-                return paths.filter(Files::isRegularFile).findFirst();
+            Files.copy(extractedRepository.resolve(BinaryRepositoryIndex.FILE_NAME), temporary.resolve(BinaryRepositoryIndex.FILE_NAME));
+            FileUtils.deleteRecursively(indexDirectory);
+            try {
+                Files.move(temporary, indexDirectory, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                // Published concurrently by another build
+                if (BinaryRepositoryIndex.open(indexDirectory).isEmpty()) {
+                    throw ex;
+                }
             }
+        } finally {
+            FileUtils.deleteRecursively(temporary);
         }
     }
 
+    private static LookupCache lookupCache(Options options) {
+        return options.cacheDirectory() == null
+            ? null
+            : new LookupCache(options.cacheDirectory(), options.cacheTtl(), options.negativeCacheTtl(), options.clock());
+    }
+
     private record RepositorySnapshot(String version, String repositoryUri, FileSystemRepository repository) {
     }
 
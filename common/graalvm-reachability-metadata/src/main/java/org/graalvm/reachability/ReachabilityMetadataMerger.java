@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONException;
+import com.github.openjson.JSONObject;
+import com.github.openjson.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Merges the reachability metadata of several configuration directories into
+ * a single directory, so that Native Image only has to be given one
+ * configuration directory per binary. §FS-common-libraries.5.4.
+ * <p>
+ * Both the {@code reachability-metadata.json} file and the legacy
+ * {@code *-config.json} files are merged: arrays are concatenated without
+ * duplicates and objects are merged key by key. The output is canonical, with
+ * sorted object keys, so that the same inputs always produce the same files.
+ * The merge is skipped when the output directory was produced from the same
+ * inputs.
+ */
+public final class ReachabilityMetadataMerger {
+    static final String INPUTS_HASH_FILE = ".merged-inputs";
+
+    private static final String PREDEFINED_CLASSES_DIRECTORY = "agent-extracted-predefined-classes";
+    private static final List<String> METADATA_FILES = List.of(
+        "reachability-metadata.json",
+        "reflect-config.json",
+        "jni-config.json",
+        "proxy-config.json",
+        "resource-config.json",
+        "serialization-config.json",
+        "predefined-classes-config.json"
+    );
+
+    private ReachabilityMetadataMerger() {
+    }
+
+    /**
+     * Merges the metadata of the configuration directories into the output directory.
+     *
+     * @param directories the configuration directories, in classpath order
+     * @param outputDirectory the directory which receives the merged metadata
+     * @return the result of the merge
+     * @throws IOException if a metadata file cannot be read or written
+     */
+    public static Result merge(Collection<Path> directories, Path outputDirectory) throws IOException {
+        return merge(directories, outputDirectory, null);
+    }
+
+    /**
+     * Merges the metadata of the configuration directories into the output directory,
+     * dropping the entries which refer to types that aren't on the image classpath.
+     * Reflection, JNI and proxy entries are dropped when one of their types is missing,
+     * and any entry is dropped when the type of its condition is missing. Types of the
+     * JDK and of Native Image itself are always considered present.
+     *
+     * @param directories the configuration directories, in classpath order
+     * @param outputDirectory the directory which receives the merged metadata
+     * @param classpathPackages the packages of the image classpath, or null to keep all entries
+     * @return the result of the merge
+     * @throws IOException if a metadata file cannot be read or written
+     */
+    public static Result merge(Collection<Path> directories, Path outputDirectory, Set<String> classpathPackages) throws IOException {
+        MessageDigest digest = sha256();
+        Map<String, List<Path>> filesByName = new LinkedHashMap<>();
+        List<Path> predefinedClasses = new ArrayList<>();
+        for (Path directory : directories) {
+            digest.update(directory.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+            for (String name : METADATA_FILES) {
+                Path file = directory.resolve(name);
+                if (Files.isRegularFile(file)) {
+                    digest.update(name.getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                    filesByName.computeIfAbsent(name, n -> new ArrayList<>()).add(file);
+                }
+            }
+            Path classes = directory.resolve(PREDEFINED_CLASSES_DIRECTORY);
+            if (Files.isDirectory(classes)) {
+                predefinedClasses.add(classes);
+            }
+        }
+        if (classpathPackages != null) {
+            for (String packageName : new TreeSet<>(classpathPackages)) {
+                digest.update((packageName + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        String inputsHash = HexFormat.of().formatHex(digest.digest());
+        Path inputsHashFile = outputDirectory.resolve(INPUTS_HASH_FILE);
+        if (Files.isRegularFile(inputsHashFile)) {
+            Properties previous = new Properties();
+            try (Reader reader = Files.newBufferedReader(inputsHashFile, StandardCharsets.UTF_8)) {
+                previous.load(reader);
+            }
+            if (inputsHash.equals(previous.getProperty("inputs"))) {
+                return new Result(false, Integer.parseInt(previous.getProperty("prunedEntries", "0")));
+            }
+        }
+        clean(outputDirectory);
+        Files.createDirectories(outputDirectory);
+        MetadataPruner pruner = classpathPackages == null ? null : new MetadataPruner(classpathPackages);
+        for (Map.Entry<String, List<Path>> entry : filesByName.entrySet()) {
+            Object merged = null;
+            for (Path file : entry.getValue()) {
+                merged = merge(merged, normalize(entry.getKey(), parse(file)));
+            }
+            if (pruner != null) {
+                merged = pruner.prune(entry.getKey(), merged);
+            }
+            Files.writeString(outputDirectory.resolve(entry.getKey()), toJson(merged).toString() + "\n", StandardCharsets.UTF_8);
+        }
+        for (Path classes : predefinedClasses) {
+            // Predefined classes are named after their hash, so files with the same name have the same content
+            Path target = Files.createDirectories(outputDirectory.resolve(PREDEFINED_CLASSES_DIRECTORY));
+            try (Stream<Path> files = Files.list(classes)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, target.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        int prunedEntries = pruner == null ? 0 : pruner.getPrunedEntries();
+        Files.writeString(inputsHashFile, "inputs=" + inputsHash + "\nprunedEntries=" + prunedEntries + "\n", StandardCharsets.UTF_8);
+        return new Result(true, prunedEntries);
+    }
+
+    private static Object parse(Path file) throws IOException {
+        try {
+            return canonicalize(new JSONTokener(Files.readString(file, StandardCharsets.UTF_8)).nextValue());
+        } catch (JSONException e) {
+            throw new IOException("Unable to parse reachability metadata file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts the older layouts of the legacy files to their current layout,
+     * so that files written in different layouts can be merged.
+     */
+    private static Object normalize(String fileName, Object json) {
+        if ("resource-config.json".equals(fileName) && json instanceof Map<?, ?> map && map.get("resources") instanceof Elements patterns) {
+            Map<String, Object> resources = new TreeMap<>();
+            resources.put("includes", patterns);
+            return merge(withoutKey(map, "resources"), Map.of("resources", resources));
+        }
+        if ("serialization-config.json".equals(fileName) && json instanceof Elements types) {
+            Map<String, Object> serialization = new TreeMap<>();
+            serialization.put("types", types);
+            return serialization;
+        }
+        return json;
+    }
+
+    private static Map<String, Object> withoutKey(Map<?, ?> map, String key) {
+        Map<String, Object> result = new TreeMap<>();
+        map.forEach((k, v) -> {
+            if (!key.equals(k)) {
+                result.put((String) k, v);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Converts parsed JSON into sorted maps and duplicate-free element lists.
+     */
+    private static Object canonicalize(Object json) {
+        if (json instanceof JSONObject object) {
+            Map<String, Object> result = new TreeMap<>();
+            for (Iterator<String> it = object.keys(); it.hasNext(); ) {
+                String key = it.next();
+                result.put(key, canonicalize(object.get(key)));
+            }
+            return result;
+        }
+        if (json instanceof JSONArray array) {
+            Elements result = new Elements();
+            for (int i = 0; i < array.length(); i++) {
+                result.add(canonicalize(array.get(i)));
+            }
+            return result;
+        }
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object merge(Object target, Object source) {
+        if (target == null) {
+            return source;
+        }
+        if (target instanceof Elements elements && source instanceof Elements other) {
+            Elements result = new Elements();
+            result.addAll(elements);
+            result.addAll(other);
+            return result;
+        }
+        if (target instanceof Map<?, ?> map && source instanceof Map<?, ?> other) {
+            Map<String, Object> result = new TreeMap<>((Map<String, Object>) map);
+            other.forEach((key, value) -> result.put((String) key, merge(result.get(key), value)));
+            return result;
+        }
+        // Scalars, such as comments, can't be combined: the first directory wins
+        return target;
+    }
+
+    private static Object toJson(Object node) {
+        if (node instanceof Map<?, ?> map) {
+            JSONObject object = new JSONObject();
+            map.forEach((key, value) -> object.put((String) key, toJson(value)));
+            return object;
+        }
+        if (node instanceof Elements elements) {
+            JSONArray array = new JSONArray();
+            for (Object element : elements.values()) {
+                array.put(toJson(element));
+            }
+            return array;
+        }
+        return node;
+    }
+
+    private static void clean(Path outputDirectory) throws IOException {
+        if (!Files.isDirectory(outputDirectory)) {
+            return;
+        }
+        Files.deleteIfExists(outputDirectory.resolve(INPUTS_HASH_FILE));
+        for (String name : METADATA_FILES) {
+            Files.deleteIfExists(outputDirectory.resolve(name));
+        }
+        Path classes = outputDirectory.resolve(PREDEFINED_CLASSES_DIRECTORY);
+        if (Files.isDirectory(classes)) {
+            try (Stream<Path> files = Files.list(classes)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(classes);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The outcome of a merge.
+     */
+    public static final class Result {
+        private final boolean written;
+        private final int prunedEntries;
+
+        private Result(boolean written, int prunedEntries) {
+            this.written = written;
+            this.prunedEntries = prunedEntries;
+        }
+
+        /**
+         * Tells if the output directory was written, or if it was already up-to-date.
+         *
+         * @return true if the output directory was written
+         */
+        public boolean isWritten() {
+            return written;
+        }
+
+        /**
+         * Returns the number of entries which were dropped because they refer to
+         * types which aren't on the image classpath.
+         *
+         * @return the number of pruned entries
+         */
+        public int getPrunedEntries() {
+            return prunedEntries;
+        }
+    }
+
+    /**
+     * The elements of a JSON array, in first-seen order and without duplicates.
+     * Elements are compared by their canonical JSON form.
+     */
+    static final class Elements {
+        private final Map<String, Object> elements = new LinkedHashMap<>();
+
+        void add(Object element) {
+            elements.putIfAbsent(new JSONArray().put(toJson(element)).toString(), element);
+        }
+
+        void addAll(Elements other) {
+            other.elements.forEach(elements::putIfAbsent);
+        }
+
+        Collection<Object> values() {
+            return elements.values();
+        }
+
+        Elements filter(Predicate<Object> predicate) {
+            Elements result = new Elements();
+            elements.forEach((key, element) -> {
+                if (predicate.test(element)) {
+                    result.elements.put(key, element);
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import com.github.openjson.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counters and timers about the queries answered by a reachability
+ * metadata repository (§FS-common-libraries.5). An instance can be registered
+ * on several repositories, and can be updated concurrently.
+ */
+public final class RepositoryMetrics implements RepositoryQueryListener {
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queriedArtifacts = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder moduleHits = new LongAdder();
+    private final LongAdder moduleMisses = new LongAdder();
+    private final Map<Selection, LongAdder> selections = new EnumMap<>(Selection.class);
+    private final LongAdder artifactIndexLoads = new LongAdder();
+    private final LongAdder artifactIndexNanos = new LongAdder();
+    private final LongAdder artifactIndexCacheHits = new LongAdder();
+    private final Map<String, LongAdder> latestFallbacks = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics() {
+        for (Selection selection : Selection.values()) {
+            selections.put(selection, new LongAdder());
+        }
+    }
+
+    @Override
+    public void queryCompleted(int artifactCount, long durationNanos) {
+        queries.increment();
+        queriedArtifacts.add(artifactCount);
+        queryNanos.add(durationNanos);
+    }
+
+    @Override
+    public void moduleLookedUp(String groupId, String artifactId, boolean found) {
+        (found ? moduleHits : moduleMisses).increment();
+    }
+
+    @Override
+    public void configurationSelected(String groupId, String artifactId, String version, Selection selection) {
+        selections.get(selection).increment();
+        if (selection == Selection.LATEST) {
+            latestFallbacks.computeIfAbsent(groupId + ":" + artifactId + ":" + version, k -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    public void artifactIndexLoaded(Path directory, long durationNanos) {
+        artifactIndexLoads.increment();
+        artifactIndexNanos.add(durationNanos);
+    }
+
+    @Override
+    public void artifactIndexCacheHit(Path directory) {
+        artifactIndexCacheHits.increment();
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    public long getModuleHits() {
+        return moduleHits.sum();
+    }
+
+    public long getModuleMisses() {
+        return moduleMisses.sum();
+    }
+
+    public long getSelectionCount(Selection selection) {
+        return selections.get(selection).sum();
+    }
+
+    public long getArtifactIndexLoads() {
+        return artifactIndexLoads.sum();
+    }
+
+    public long getArtifactIndexCacheHits() {
+        return artifactIndexCacheHits.sum();
+    }
+
+    /**
+     * Returns the artifacts whose version is untested and which were resolved
+     * to the latest configuration of their module.
+     *
+     * @return the number of fallbacks of each artifact (group:artifact:version), sorted by coordinates
+     */
+    public Map<String, Long> getLatestFallbacks() {
+        Map<String, Long> result = new TreeMap<>();
+        latestFallbacks.forEach((gav, count) -> result.put(gav, count.sum()));
+        return result;
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        JSONObject queriesJson = new JSONObject();
+        queriesJson.put("count", queries.sum());
+        queriesJson.put("artifacts", queriedArtifacts.sum());
+        queriesJson.put("timeMillis", TimeUnit.NANOSECONDS.toMillis(queryNanos.sum()));
+        json.put("queries", queriesJson);
+        JSONObject modulesJson = new JSONObject();
+        modulesJson.put("hits", moduleHits.sum());
+        modulesJson.put("misses", moduleMisses.sum());
+        json.put("modules", modulesJson);
+        JSONObject selectionsJson = new JSONObject();
+        selectionsJson.put("exact", getSelectionCount(Selection.EXACT));
+        selectionsJson.put("defaultFor", getSelectionCount(Selection.DEFAULT_FOR));
+        selectionsJson.put("latest", getSelectionCount(Selection.LATEST));
+        selectionsJson.put("forced", getSelectionCount(Selection.FORCED));
+        selectionsJson.put("missing", getSelectionCount(Selection.MISSING));
+        json.put("selections", selectionsJson);
+        JSONObject indexesJson = new JSONObject();
+        indexesJson.put("loads", artifactIndexLoads.sum());
+        indexesJson.put("loadTimeMillis", TimeUnit.NANOSECONDS.toMillis(artifactIndexNanos.sum()));
+        indexesJson.put("cacheHits", artifactIndexCacheHits.sum());
+        json.put("artifactIndexes", indexesJson);
+        JSONObject fallbacksJson = new JSONObject();
+        getLatestFallbacks().forEach(fallbacksJson::put);
+        json.put("latestFallbacks", fallbacksJson);
+        return json;
+    }
+
+    /**
+     * Writes the metrics as JSON, creating the parent directories of the file if needed.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, toJson().toString(2) + "\n", StandardCharsets.UTF_8);
+    }
+}
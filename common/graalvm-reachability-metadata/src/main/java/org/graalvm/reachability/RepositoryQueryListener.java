@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import java.nio.file.Path;
+
+/**
+ * Receives typed events about the queries answered by a reachability metadata
+ * repository, for example to collect {@link RepositoryMetrics metrics}.
+ * Listeners may be notified concurrently, from the threads which query the
+ * repository, so they must be thread-safe and must not block.
+ */
+public interface RepositoryQueryListener {
+
+    /**
+     * How the configuration of an artifact was selected.
+     */
+    enum Selection {
+        /**
+         * The version of the artifact is listed as tested.
+         */
+        EXACT,
+        /**
+         * The version of the artifact matches the {@code default-for} pattern of an entry.
+         */
+        DEFAULT_FOR,
+        /**
+         * The version of the artifact is untested and the latest configuration was used instead.
+         */
+        LATEST,
+        /**
+         * The configuration version was forced by the build.
+         */
+        FORCED,
+        /**
+         * No configuration was found.
+         */
+        MISSING
+    }
+
+    /**
+     * Called when a query has been answered.
+     *
+     * @param artifactCount the number of artifacts of the query
+     * @param durationNanos the time spent answering the query, in nanoseconds
+     */
+    default void queryCompleted(int artifactCount, long durationNanos) {
+
+    }
+
+    /**
+     * Called when the configuration directories of a module have been looked up.
+     *
+     * @param groupId the group ID of the module
+     * @param artifactId the artifact ID of the module
+     * @param found whether the repository has at least one configuration directory for the module
+     */
+    default void moduleLookedUp(String groupId, String artifactId, boolean found) {
+
+    }
+
+    /**
+     * Called when the configuration of an artifact has been selected in a
+     * configuration directory.
+     *
+     * @param groupId the group ID of the artifact
+     * @param artifactId the artifact ID of the artifact
+     * @param version the version of the artifact
+     * @param selection how the configuration was selected
+     */
+    default void configurationSelected(String groupId, String artifactId, String version, Selection selection) {
+
+    }
+
+    /**
+     * Called when the version index of a configuration directory has been loaded.
+     *
+     * @param directory the configuration directory
+     * @param durationNanos the time spent loading the index, in nanoseconds
+     */
+    default void artifactIndexLoaded(Path directory, long durationNanos) {
+
+    }
+
+    /**
+     * Called when the version index of a configuration directory was already loaded.
+     *
+     * @param directory the configuration directory
+     */
+    default void artifactIndexCacheHit(Path directory) {
+
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal;
+
+import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.reachability.DirectoryConfiguration;
+import org.graalvm.reachability.Query;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Queries a zipped reachability metadata repository without extracting it.
+ * The module and artifact indexes are read directly from the archive, and
+ * only the configuration directories returned by queries are extracted, the
+ * first time they are selected, into the extraction directory. Extracted
+ * directories keep their location in the repository layout, and are published
+ * with an atomic move so that concurrent builds sharing the extraction
+ * directory never observe a partially extracted directory.
+ * <p>
+ * The top-level files and the schemas of the repository are extracted
+ * when the repository is opened, so that {@link #getRootDirectory()} can be
+ * used like the root directory of an extracted repository.
+ */
+public class ArchiveRepository extends FileSystemRepository implements AutoCloseable {
+    private static final String SCHEMAS_DIRECTORY = "schemas";
+
+    private final FileSystem archive;
+    private final Path archiveRoot;
+    private final Path extractionDirectory;
+    private final Logger logger;
+    private final boolean ownsArchive;
+
+    private ArchiveRepository(FileSystem archive, Path extractionDirectory, Logger logger) {
+        super(archive.getPath("/"), logger);
+        this.archive = archive;
+        this.archiveRoot = archive.getPath("/");
+        this.extractionDirectory = extractionDirectory;
+        this.logger = logger;
+        this.ownsArchive = true;
+    }
+
+    private ArchiveRepository(ArchiveRepository repository, Logger logger) {
+        super(repository, logger);
+        this.archive = repository.archive;
+        this.archiveRoot = repository.archiveRoot;
+        this.extractionDirectory = repository.extractionDirectory;
+        this.logger = logger;
+        this.ownsArchive = false;
+    }
+
+    /**
+     * Opens a zipped repository. Each version of the archive, identified by
+     * its size and modification time, is extracted into its own subdirectory
+     * of the extraction directory, so that an archive which is downloaded
+     * again never replaces directories which another build may still be
+     * reading. Subdirectories of previous versions are left in place.
+     *
+     * @param archiveFile the zip file of the repository
+     * @param extractionDirectory the directory under which selected configuration directories are extracted
+     * @param logger the logger
+     * @return the repository, which must be closed after use
+     * @throws IOException if the archive cannot be read or the extraction directory cannot be written
+     */
+    public static ArchiveRepository open(Path archiveFile, Path extractionDirectory, Logger logger) throws IOException {
+        Path versionDirectory = extractionDirectory.resolve(Files.size(archiveFile) + "-" + Files.getLastModifiedTime(archiveFile).toMillis());
+        FileSystem archive = FileSystems.newFileSystem(archiveFile, (ClassLoader) null);
+        try {
+            ArchiveRepository repository = new ArchiveRepository(archive, versionDirectory, logger);
+            repository.extractTopLevelEntries();
+            return repository;
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Set<DirectoryConfiguration> findConfigurationsFor(Consumer<? super Query> queryBuilder) {
+        return extracted(super.findConfigurationsFor(queryBuilder));
+    }
+
+    @Override
+    public Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(Collection<String> gavCoordinates,
+                                                                                  Set<String> excludedModules,
+                                                                                  Map<String, String> forcedVersions) {
+        Map<String, Set<DirectoryConfiguration>> result = new LinkedHashMap<>();
+        super.findConfigurationsForClasspath(gavCoordinates, excludedModules, forcedVersions)
+                .forEach((gav, configurations) -> result.put(gav, extracted(configurations)));
+        return result;
+    }
+
+    @Override
+    public Optional<DirectoryConfiguration> findLockedConfiguration(String groupId, String artifactId, String version,
+                                                                    String directory, boolean override) {
+        return super.findLockedConfiguration(groupId, artifactId, version, directory, override)
+                .map(this::extracted);
+    }
+
+    /**
+     * Returns the extraction directory of this version of the archive, which
+     * contains the top-level files and the schemas of the repository, and
+     * the configuration directories which were selected so far.
+     *
+     * @return the extraction directory of this version of the archive
+     */
+    @Override
+    public Path getRootDirectory() {
+        return extractionDirectory;
+    }
+
+    /**
+     * Returns the version of the archive, since the archive never changes
+     * once it has been downloaded.
+     */
+    @Override
+    protected String contentStamp() {
+        return "archive:" + extractionDirectory.getFileName();
+    }
+
+    @Override
+    protected Optional<Path> contentHashMemo() {
+        return Optional.of(extractionDirectory.resolve(CONTENT_HASH_FILE));
+    }
+
+    /**
+     * Returns a view of this repository, which shares its archive. Closing
+     * the view has no effect: the archive is closed with this repository.
+     *
+     * @param logger the logger of the view
+     * @return the view
+     */
+    @Override
+    public ArchiveRepository withLogger(Logger logger) {
+        return new ArchiveRepository(this, logger);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsArchive) {
+            archive.close();
+        }
+    }
+
+    private Set<DirectoryConfiguration> extracted(Set<DirectoryConfiguration> configurations) {
+        Set<DirectoryConfiguration> result = new LinkedHashSet<>();
+        for (DirectoryConfiguration configuration : configurations) {
+            result.add(extracted(configuration));
+        }
+        return result;
+    }
+
+    private DirectoryConfiguration extracted(DirectoryConfiguration configuration) {
+        return new DirectoryConfiguration(configuration.getGroupId(), configuration.getArtifactId(),
+                configuration.getVersion(), extractDirectory(configuration.getDirectory()), configuration.isOverride());
+    }
+
+    private void extractTopLevelEntries() throws IOException {
+        Files.createDirectories(extractionDirectory);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(archiveRoot, Files::isRegularFile)) {
+            for (Path entry : entries) {
+                Path target = extractionDirectory.resolve(entry.getFileName().toString());
+                if (!Files.exists(target)) {
+                    Path temporary = temporarySibling(target);
+                    Files.copy(entry, temporary);
+                    publish(temporary, target);
+                }
+            }
+        }
+        Path schemas = archiveRoot.resolve(SCHEMAS_DIRECTORY);
+        if (Files.isDirectory(schemas)) {
+            extractDirectory(schemas);
+        }
+    }
+
+    private Path extractDirectory(Path source) {
+        Path target = extractionDirectory.resolve(archiveRoot.relativize(source).toString());
+        // Directories only ever appear through the atomic move below, so an existing one is complete
+        if (Files.isDirectory(target)) {
+            return target;
+        }
+        logger.debug(() -> "Extracting " + source + " to " + target);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temporary = temporarySibling(target);
+            List<Path> entries;
+            try (Stream<Path> walk = Files.walk(source)) {
+                entries = walk.collect(Collectors.toList());
+            }
+            for (Path entry : entries) {
+                Path destination = temporary.resolve(source.relativize(entry).toString());
+                if (Files.isDirectory(entry)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(entry, destination);
+                }
+            }
+            publish(temporary, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+
+    private static Path temporarySibling(Path target) {
+        return target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    private static void publish(Path temporary, Path target) throws IOException {
+        try {
+            FileUtils.moveAtomically(temporary, target);
+        } catch (IOException e) {
+            if (!Files.exists(target)) {
+                throw e;
+            }
+            // Published concurrently by another build, and the move failed because the target isn't empty
+            FileUtils.deleteRecursively(temporary);
+        }
+    }
+}
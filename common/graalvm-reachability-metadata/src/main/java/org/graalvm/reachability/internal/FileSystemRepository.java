@@ -40,31 +40,58 @@
  */
 package org.graalvm.reachability.internal;
 
+import org.graalvm.buildtools.utils.FileUtils;
 import org.graalvm.buildtools.utils.SchemaValidationUtils;
 import org.graalvm.reachability.DirectoryConfiguration;
 import org.graalvm.reachability.GraalVMReachabilityMetadataRepository;
 import org.graalvm.reachability.Query;
+import org.graalvm.reachability.RepositoryQueryListener;
+import org.graalvm.reachability.RepositoryQueryListener.Selection;
 import org.graalvm.reachability.internal.index.artifacts.SingleModuleJsonVersionToConfigDirectoryIndex;
 import org.graalvm.reachability.internal.index.artifacts.VersionToConfigDirectoryIndex;
+import org.graalvm.reachability.internal.index.binary.BinaryRepositoryIndex;
+import org.graalvm.reachability.internal.index.binary.BinaryRepositoryIndexWriter;
 import org.graalvm.reachability.internal.index.modules.FileSystemModuleToConfigDirectoryIndex;
+import org.graalvm.reachability.internal.index.modules.ModuleToConfigDirectoryIndex;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Queries an unpacked reachability metadata repository. §FS-common-libraries.5.
  */
 public class FileSystemRepository implements GraalVMReachabilityMetadataRepository {
+    private static final String INDEX_FILE = "index.json";
+    static final String CONTENT_HASH_FILE = ".nbt-content-hash";
+    private static final Map<String, String> CONTENT_HASHES = new ConcurrentHashMap<>();
 
-    private final FileSystemModuleToConfigDirectoryIndex moduleIndex;
+    private final ModuleToConfigDirectoryIndex moduleIndex;
+    private final Function<Path, VersionToConfigDirectoryIndex> artifactIndexFactory;
     private final Logger logger;
     private final Map<Path, VersionToConfigDirectoryIndex> artifactIndexes;
+    private final List<RepositoryQueryListener> listeners = new CopyOnWriteArrayList<>();
     private final Path rootDirectory;
 
     public FileSystemRepository(Path rootDirectory) {
@@ -73,12 +100,46 @@ public class FileSystemRepository implements GraalVMReachabilityMetadataReposito
 
     public FileSystemRepository(Path rootDirectory, Logger logger) {
         SchemaValidationUtils.validateSchemas(rootDirectory);
-        this.moduleIndex = new FileSystemModuleToConfigDirectoryIndex(rootDirectory);
+        Optional<BinaryRepositoryIndex> binaryIndex = BinaryRepositoryIndex.open(rootDirectory);
+        if (binaryIndex.isPresent()) {
+            this.moduleIndex = binaryIndex.get();
+            this.artifactIndexFactory = binaryIndex.get()::versionIndexFor;
+        } else {
+            this.moduleIndex = new FileSystemModuleToConfigDirectoryIndex(rootDirectory);
+            this.artifactIndexFactory = SingleModuleJsonVersionToConfigDirectoryIndex::new;
+        }
         this.logger = logger;
         this.artifactIndexes = new ConcurrentHashMap<>();
         this.rootDirectory = rootDirectory;
     }
 
+    /**
+     * Creates a view of a repository, which shares its indexes.
+     *
+     * @param repository the repository
+     * @param logger the logger of the view
+     */
+    protected FileSystemRepository(FileSystemRepository repository, Logger logger) {
+        this.moduleIndex = repository.moduleIndex;
+        this.artifactIndexFactory = repository.artifactIndexFactory;
+        this.logger = logger;
+        this.artifactIndexes = repository.artifactIndexes;
+        this.rootDirectory = repository.rootDirectory;
+    }
+
+    /**
+     * Returns a view of this repository for another client. The view shares
+     * the indexes of this repository, but reports its queries only to the
+     * supplied logger and to the listeners added to the view, so that clients
+     * sharing a repository don't observe each other's queries.
+     *
+     * @param logger the logger of the view
+     * @return the view
+     */
+    public FileSystemRepository withLogger(Logger logger) {
+        return new FileSystemRepository(this, logger);
+    }
+
     private static final String[] SUPPORTED_FORMATS = {".zip", ".tar.gz", ".tar.bz2"};
 
     public static String getArchiveFormat(String path) {
@@ -95,80 +156,209 @@ public class FileSystemRepository implements GraalVMReachabilityMetadataReposito
         return getArchiveFormat(path) != null;
     }
 
+    /**
+     * Generates the precompiled binary index of an exploded repository. Repositories
+     * which have one are queried through the memory-mapped index instead of reading
+     * the {@code index.json} files. The index must be regenerated whenever the
+     * repository contents change, so it should only be written once a repository
+     * has been extracted into an immutable cache location.
+     *
+     * @param rootDirectory the root directory of the exploded repository
+     * @throws IOException if the index cannot be written
+     */
+    public static void writeBinaryIndex(Path rootDirectory) throws IOException {
+        BinaryRepositoryIndexWriter.write(rootDirectory);
+    }
+
+    @Override
+    public void addQueryListener(RepositoryQueryListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeQueryListener(RepositoryQueryListener listener) {
+        listeners.remove(listener);
+    }
+
     @Override
     public Set<DirectoryConfiguration> findConfigurationsFor(Consumer<? super Query> queryBuilder) {
+        long start = System.nanoTime();
         DefaultQuery query = new DefaultQuery();
         queryBuilder.accept(query);
-        return query.getArtifacts()
+        Set<DirectoryConfiguration> result = query.getArtifacts()
                 .stream()
-                .flatMap(artifactQuery -> {
-                    String groupId = artifactQuery.getGroupId();
-                    String artifactId = artifactQuery.getArtifactId();
-                    String version = artifactQuery.getVersion();
-                    return moduleIndex.findConfigurationDirectories(groupId, artifactId)
-                            .stream()
-                            .map(dir -> {
-                                VersionToConfigDirectoryIndex index = artifactIndexes.computeIfAbsent(dir,
-                                        SingleModuleJsonVersionToConfigDirectoryIndex::new);
-                                if (artifactQuery.getForcedConfig().isPresent()) {
-                                    String configVersion = artifactQuery.getForcedConfig().get();
-                                    logger.log(groupId, artifactId, version, "Configuration is forced to version " + configVersion);
-                                    return index.findConfiguration(groupId, artifactId, configVersion);
-                                }
-                                Optional<DirectoryConfiguration> configuration = index.findConfiguration(groupId, artifactId, version);
-                                if (!configuration.isPresent() && artifactQuery.isUseLatestVersion()) {
-                                    logger.log(groupId, artifactId, version, "Configuration directory not found. Trying latest version.");
-                                    configuration = index.findLatestConfigurationFor(groupId, artifactId, version);
-                                    if (!configuration.isPresent()) {
-                                        logger.log(groupId, artifactId, version, "Latest version not found!");
-                                    }
-                                }
-                                Optional<DirectoryConfiguration> finalConfigurationDirectory = configuration;
-                                logger.log(groupId, artifactId, version, () -> {
-                                    if (finalConfigurationDirectory.isPresent()) {
-                                        Path path = finalConfigurationDirectory.get().getDirectory();
-                                        return "Configuration directory is " + rootDirectory.relativize(path);
-                                    }
-                                    return "missing.";
-                                });
-                                return configuration;
-                            })
-                            .filter(Optional::isPresent)
-                            .map(Optional::get);
-                })
+                .flatMap(artifactQuery -> findConfigurationDirectories(artifactQuery.getGroupId(), artifactQuery.getArtifactId())
+                        .stream()
+                        .map(dir -> findConfiguration(dir, artifactQuery))
+                        .filter(Optional::isPresent)
+                        .map(Optional::get))
                 .collect(Collectors.toSet());
+        notifyQueryCompleted(query.getArtifacts().size(), start);
+        return result;
+    }
+
+    /**
+     * Resolves a whole classpath in one pass. Artifacts are grouped by module, so that
+     * the candidate directories of a module, including the ones of the modules it
+     * requires, are computed once for all versions of that module, and modules are
+     * resolved in parallel.
+     */
+    @Override
+    public Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(Collection<String> gavCoordinates,
+                                                                                  Set<String> excludedModules,
+                                                                                  Map<String, String> forcedVersions) {
+        long start = System.nanoTime();
+        Map<String, List<DefaultArtifactQuery>> queriesByModule = new LinkedHashMap<>();
+        for (String gav : gavCoordinates) {
+            DefaultArtifactQuery artifactQuery = new DefaultArtifactQuery();
+            artifactQuery.gav(gav);
+            String module = artifactQuery.getGroupId() + ":" + artifactQuery.getArtifactId();
+            if (!excludedModules.contains(module)) {
+                String forcedVersion = forcedVersions.get(module);
+                if (forcedVersion != null) {
+                    artifactQuery.forceConfigVersion(forcedVersion);
+                } else {
+                    artifactQuery.useLatestConfigWhenVersionIsUntested();
+                }
+                queriesByModule.computeIfAbsent(module, m -> new ArrayList<>()).add(artifactQuery);
+            }
+        }
+        Map<String, Set<DirectoryConfiguration>> resolved = new ConcurrentHashMap<>();
+        queriesByModule.values().parallelStream().forEach(queries -> {
+            DefaultArtifactQuery first = queries.get(0);
+            Set<Path> directories = findConfigurationDirectories(first.getGroupId(), first.getArtifactId());
+            for (DefaultArtifactQuery artifactQuery : queries) {
+                Set<DirectoryConfiguration> configurations = new LinkedHashSet<>();
+                for (Path dir : directories) {
+                    findConfiguration(dir, artifactQuery).ifPresent(configurations::add);
+                }
+                resolved.put(artifactQuery.getGroupId() + ":" + artifactQuery.getArtifactId() + ":" + artifactQuery.getVersion(), configurations);
+            }
+        });
+        Map<String, Set<DirectoryConfiguration>> result = new LinkedHashMap<>();
+        for (String gav : gavCoordinates) {
+            result.put(gav, resolved.getOrDefault(gav, Collections.emptySet()));
+        }
+        if (moduleIndex instanceof FileSystemModuleToConfigDirectoryIndex) {
+            FileSystemModuleToConfigDirectoryIndex index = (FileSystemModuleToConfigDirectoryIndex) moduleIndex;
+            logger.debug(() -> "Module lookups in " + rootDirectory + ": " + index.getHits() + " hits, " + index.getMisses()
+                    + " misses, " + index.getFilteredMisses() + " answered without file system access");
+        }
+        notifyQueryCompleted(gavCoordinates.size(), start);
+        return result;
+    }
+
+    private Optional<DirectoryConfiguration> findConfiguration(Path dir, DefaultArtifactQuery artifactQuery) {
+        String groupId = artifactQuery.getGroupId();
+        String artifactId = artifactQuery.getArtifactId();
+        String version = artifactQuery.getVersion();
+        Optional<DirectoryConfiguration> configuration = selectConfiguration(artifactIndexFor(dir), artifactQuery);
+        if (artifactQuery.getForcedConfig().isPresent()) {
+            return configuration;
+        }
+        Optional<DirectoryConfiguration> finalConfigurationDirectory = configuration;
+        logger.log(groupId, artifactId, version, () -> {
+            if (finalConfigurationDirectory.isPresent()) {
+                Path path = finalConfigurationDirectory.get().getDirectory();
+                return "Configuration directory is " + rootDirectory.relativize(path);
+            }
+            return "missing.";
+        });
+        return configuration;
+    }
+
+    /**
+     * Selects the configuration of an artifact in a configuration directory, either the
+     * forced one, the one matching the version of the artifact, or the latest one.
+     */
+    private Optional<DirectoryConfiguration> selectConfiguration(VersionToConfigDirectoryIndex index, DefaultArtifactQuery artifactQuery) {
+        String groupId = artifactQuery.getGroupId();
+        String artifactId = artifactQuery.getArtifactId();
+        String version = artifactQuery.getVersion();
+        Optional<DirectoryConfiguration> configuration;
+        Selection selection;
+        if (artifactQuery.getForcedConfig().isPresent()) {
+            String configVersion = artifactQuery.getForcedConfig().get();
+            logger.log(groupId, artifactId, version, "Configuration is forced to version " + configVersion);
+            configuration = index.findConfiguration(groupId, artifactId, configVersion);
+            selection = Selection.FORCED;
+        } else {
+            configuration = index.findConfiguration(groupId, artifactId, version);
+            selection = index.isTestedVersion(groupId, artifactId, version) ? Selection.EXACT : Selection.DEFAULT_FOR;
+            if (!configuration.isPresent() && artifactQuery.isUseLatestVersion()) {
+                logger.log(groupId, artifactId, version, "Configuration directory not found. Trying latest version.");
+                configuration = index.findLatestConfigurationFor(groupId, artifactId, version);
+                selection = Selection.LATEST;
+                if (!configuration.isPresent()) {
+                    logger.log(groupId, artifactId, version, "Latest version not found!");
+                }
+            }
+        }
+        if (!listeners.isEmpty()) {
+            Selection reported = configuration.isPresent() ? selection : Selection.MISSING;
+            for (RepositoryQueryListener listener : listeners) {
+                listener.configurationSelected(groupId, artifactId, version, reported);
+            }
+        }
+        return configuration;
+    }
+
+    private Set<Path> findConfigurationDirectories(String groupId, String artifactId) {
+        Set<Path> directories = moduleIndex.findConfigurationDirectories(groupId, artifactId);
+        for (RepositoryQueryListener listener : listeners) {
+            listener.moduleLookedUp(groupId, artifactId, !directories.isEmpty());
+        }
+        return directories;
+    }
+
+    private VersionToConfigDirectoryIndex artifactIndexFor(Path dir) {
+        VersionToConfigDirectoryIndex index = artifactIndexes.get(dir);
+        if (index == null) {
+            long start = System.nanoTime();
+            boolean[] loaded = new boolean[1];
+            index = artifactIndexes.computeIfAbsent(dir, d -> {
+                loaded[0] = true;
+                return artifactIndexFactory.apply(d);
+            });
+            if (loaded[0]) {
+                long duration = System.nanoTime() - start;
+                for (RepositoryQueryListener listener : listeners) {
+                    listener.artifactIndexLoaded(dir, duration);
+                }
+                return index;
+            }
+        }
+        for (RepositoryQueryListener listener : listeners) {
+            listener.artifactIndexCacheHit(dir);
+        }
+        return index;
+    }
+
+    private void notifyQueryCompleted(int artifactCount, long start) {
+        if (!listeners.isEmpty()) {
+            long duration = System.nanoTime() - start;
+            for (RepositoryQueryListener listener : listeners) {
+                listener.queryCompleted(artifactCount, duration);
+            }
+        }
     }
 
     @Override
     public boolean isCoveredByRepository(Consumer<? super Query> queryBuilder) {
+        long start = System.nanoTime();
         DefaultQuery query = new DefaultQuery();
         queryBuilder.accept(query);
-        return query.getArtifacts()
+        boolean covered = query.getArtifacts()
                 .stream()
                 .anyMatch(artifactQuery -> {
                     String groupId = artifactQuery.getGroupId();
                     String artifactId = artifactQuery.getArtifactId();
                     String version = artifactQuery.getVersion();
-                    return moduleIndex.findConfigurationDirectories(groupId, artifactId)
+                    return findConfigurationDirectories(groupId, artifactId)
                             .stream()
                             .anyMatch(dir -> {
-                                VersionToConfigDirectoryIndex index = artifactIndexes.computeIfAbsent(dir, SingleModuleJsonVersionToConfigDirectoryIndex::new);
-                                Optional<DirectoryConfiguration> configuration;
-                                if (artifactQuery.getForcedConfig().isPresent()) {
-                                    String configVersion = artifactQuery.getForcedConfig().get();
-                                    logger.log(groupId, artifactId, version, "Configuration is forced to version " + configVersion);
-                                    configuration = index.findConfiguration(groupId, artifactId, configVersion);
-                                } else {
-                                    configuration = index.findConfiguration(groupId, artifactId, version);
-                                    if (!configuration.isPresent() && artifactQuery.isUseLatestVersion()) {
-                                        logger.log(groupId, artifactId, version,
-                                                "Configuration directory not found. Trying latest version.");
-                                        configuration = index.findLatestConfigurationFor(groupId, artifactId, version);
-                                        if (!configuration.isPresent()) {
-                                            logger.log(groupId, artifactId, version, "Latest version not found!");
-                                        }
-                                    }
-                                }
+                                VersionToConfigDirectoryIndex index = artifactIndexFor(dir);
+                                Optional<DirectoryConfiguration> configuration = selectConfiguration(index, artifactQuery);
                                 if (configuration.isPresent()) {
                                     Path path = configuration.get().getDirectory();
                                     logger.log(groupId, artifactId, version,
@@ -183,6 +373,153 @@ public class FileSystemRepository implements GraalVMReachabilityMetadataReposito
                                 return false;
                             });
                 });
+        notifyQueryCompleted(query.getArtifacts().size(), start);
+        return covered;
+    }
+
+    /**
+     * Resolves a configuration directory which was selected by an earlier query,
+     * for example one recorded in a {@link org.graalvm.reachability.MetadataLockFile lock file},
+     * without querying the indexes.
+     *
+     * @param groupId the group id of the artifact
+     * @param artifactId the artifact id of the artifact
+     * @param version the version of the configuration
+     * @param directory the configuration directory, relative to the repository root
+     * @param override whether the configuration overrides the one shipped with the artifact
+     * @return the configuration, or an empty optional if the directory doesn't exist in this repository
+     */
+    public Optional<DirectoryConfiguration> findLockedConfiguration(String groupId, String artifactId, String version,
+                                                                    String directory, boolean override) {
+        Path path = rootDirectory.resolve(directory);
+        if (!Files.isDirectory(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new DirectoryConfiguration(groupId, artifactId, version, path, override));
+    }
+
+    /**
+     * Returns a SHA-256 hash of the {@code index.json} files of the repository,
+     * which changes whenever a query may select a different configuration
+     * directory. The hash is memoized against a {@link #contentStamp() stamp}
+     * of the repository, which is cheap to compute, so the index files are
+     * only read again when the stamp changes. Repositories which live in a
+     * cache also memoize the hash in a file, for later builds.
+     *
+     * @return the hexadecimal hash of the repository indexes
+     */
+    public String getContentHash() {
+        try {
+            return readOrComputeContentHash();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String readOrComputeContentHash() throws IOException {
+        String stamp = contentStamp();
+        String key = rootDirectory.toUri() + "\n" + stamp;
+        String hash = CONTENT_HASHES.get(key);
+        if (hash != null) {
+            return hash;
+        }
+        Optional<Path> memo = contentHashMemo();
+        if (memo.isPresent() && Files.isRegularFile(memo.get())) {
+            List<String> lines = Files.readAllLines(memo.get());
+            if (lines.size() == 2 && lines.get(0).equals(stamp)) {
+                hash = lines.get(1);
+            }
+        }
+        if (hash == null) {
+            hash = computeContentHash();
+            if (memo.isPresent()) {
+                try {
+                    Files.writeString(memo.get(), stamp + "\n" + hash + "\n");
+                } catch (IOException e) {
+                    // The hash is only memoized to speed up later builds
+                    logger.debug(() -> "Unable to memoize the content hash of " + rootDirectory + ": " + e.getMessage());
+                }
+            }
+        }
+        CONTENT_HASHES.put(key, hash);
+        return hash;
+    }
+
+    /**
+     * Returns a stamp which changes whenever the {@link #getContentHash() content hash}
+     * may change, computed without reading the index files: the extraction
+     * marker of repositories which were extracted into a cache, and otherwise
+     * the paths, sizes and modification times of the index files.
+     *
+     * @return the stamp of the repository content
+     * @throws IOException if the repository cannot be read
+     */
+    protected String contentStamp() throws IOException {
+        Path marker = rootDirectory.resolve(FileUtils.EXTRACTION_MARKER);
+        if (Files.isRegularFile(marker)) {
+            return Files.readString(marker).trim();
+        }
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, Path> entry : indexFiles().entrySet()) {
+            BasicFileAttributes attributes = Files.readAttributes(entry.getValue(), BasicFileAttributes.class);
+            digest.update((entry.getKey() + "\n" + attributes.size() + "\n" + attributes.lastModifiedTime().toMillis() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return "indexes:" + toHex(digest.digest());
+    }
+
+    /**
+     * Returns the file in which the content hash is memoized for later
+     * builds, for repositories which live in a cache.
+     *
+     * @return the memo file, if the repository lives in a cache
+     */
+    protected Optional<Path> contentHashMemo() {
+        if (Files.isRegularFile(rootDirectory.resolve(FileUtils.EXTRACTION_MARKER))) {
+            return Optional.of(rootDirectory.resolve(CONTENT_HASH_FILE));
+        }
+        return Optional.empty();
+    }
+
+    private String computeContentHash() throws IOException {
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, Path> entry : indexFiles().entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(entry.getValue()));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    private Map<String, Path> indexFiles() throws IOException {
+        List<Path> indexes;
+        try (Stream<Path> walk = Files.walk(rootDirectory)) {
+            indexes = walk.filter(path -> path.getFileName() != null && INDEX_FILE.equals(path.getFileName().toString()))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        Map<String, Path> sorted = new TreeMap<>();
+        for (Path index : indexes) {
+            sorted.put(rootDirectory.relativize(index).toString().replace('\\', '/'), index);
+        }
+        return sorted;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hash = new StringBuilder();
+        for (byte b : bytes) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
     }
 
     public Path getRootDirectory() {
@@ -200,5 +537,9 @@ public class FileSystemRepository implements GraalVMReachabilityMetadataReposito
         default void log(String groupId, String artifactId, String version, Supplier<String> message) {
 
         }
+
+        default void debug(Supplier<String> message) {
+
+        }
     }
 }
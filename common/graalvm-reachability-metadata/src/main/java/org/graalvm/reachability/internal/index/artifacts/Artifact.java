@@ -77,6 +77,10 @@ public class Artifact {
         return override;
     }
 
+    public boolean hasDefaultFor() {
+        return defaultForPattern != null;
+    }
+
     public boolean isDefaultFor(String version) {
         return defaultForPattern != null && defaultForPattern.matcher(version).matches();
     }
@@ -49,22 +49,65 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Version-to-config index of a single module. Tested versions are indexed
+ * in a hash map and the latest entry is precomputed when the index is
+ * created, and the result of each query is cached, so that repeated queries
+ * for the same artifact cost a single map lookup.
+ */
 public class SingleModuleJsonVersionToConfigDirectoryIndex implements VersionToConfigDirectoryIndex {
+    private static final char EXACT = 'e';
+    private static final char LATEST = 'l';
+
     private final Path moduleRoot;
     private final List<Artifact> artifacts;
+    private final Map<String, Artifact> artifactsByVersion;
+    private final List<Artifact> defaultForArtifacts;
+    private final Artifact latestArtifact;
+    private final Map<String, Optional<DirectoryConfiguration>> results = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> notForNativeImage = new ConcurrentHashMap<>();
 
     public SingleModuleJsonVersionToConfigDirectoryIndex(Path moduleRoot) {
+        this(moduleRoot, parseIndexFile(moduleRoot));
+    }
+
+    /**
+     * Creates an index from artifact entries which were already read from
+     * the module's {@code index.json}, for example by a precompiled index.
+     *
+     * @param moduleRoot the module directory
+     * @param artifacts the artifact entries of the module
+     */
+    public SingleModuleJsonVersionToConfigDirectoryIndex(Path moduleRoot, List<Artifact> artifacts) {
         this.moduleRoot = moduleRoot;
-        this.artifacts = parseIndexFile(moduleRoot);
+        this.artifacts = artifacts;
+        this.artifactsByVersion = new HashMap<>();
+        this.defaultForArtifacts = new ArrayList<>();
+        Artifact latest = null;
+        for (Artifact artifact : artifacts) {
+            // The first entry listing a version wins, as when the entries are scanned in order
+            for (String version : artifact.getVersions()) {
+                artifactsByVersion.putIfAbsent(version, artifact);
+            }
+            if (artifact.hasDefaultFor()) {
+                defaultForArtifacts.add(artifact);
+            }
+            if (latest == null && artifact.isLatest()) {
+                latest = artifact;
+            }
+        }
+        this.latestArtifact = latest;
     }
 
-    private List<Artifact> parseIndexFile(Path rootPath) {
+    private static List<Artifact> parseIndexFile(Path rootPath) {
         Path indexFile = rootPath.resolve("index.json");
         try {
             String fileContent = Files.readString(indexFile);
@@ -90,15 +133,16 @@ public class SingleModuleJsonVersionToConfigDirectoryIndex implements VersionToC
      */
     @Override
     public Optional<DirectoryConfiguration> findConfiguration(String groupId, String artifactId, String version) {
-        Optional<DirectoryConfiguration> exactMatch = findConfigurationFor(groupId, artifactId, version, artifact -> artifact.getVersions().contains(version));
-        return exactMatch.isPresent() ? exactMatch :
-                findConfigurationFor(groupId, artifactId, version, artifact -> artifact.isDefaultFor(version));
+        return results.computeIfAbsent(cacheKey(EXACT, groupId, artifactId, version), key -> {
+            Artifact exactMatch = artifactsByVersion.get(version);
+            return toConfiguration(groupId, artifactId, version, exactMatch != null ? exactMatch : findDefaultFor(version));
+        });
     }
 
     @Override
     @Deprecated
     public Optional<DirectoryConfiguration> findLatestConfigurationFor(String groupId, String artifactId) {
-        return findConfigurationFor(groupId, artifactId, null, Artifact::isLatest);
+        return toConfiguration(groupId, artifactId, null, latestArtifact);
     }
 
     /**
@@ -111,29 +155,48 @@ public class SingleModuleJsonVersionToConfigDirectoryIndex implements VersionToC
      */
     @Override
     public Optional<DirectoryConfiguration> findLatestConfigurationFor(String groupId, String artifactId, String version) {
-        Optional<DirectoryConfiguration> defaultMatch = findConfigurationFor(groupId, artifactId, version, artifact -> artifact.isDefaultFor(version));
-        return defaultMatch.isPresent() ? defaultMatch :
-                findConfigurationFor(groupId, artifactId, version, Artifact::isLatest);
+        return results.computeIfAbsent(cacheKey(LATEST, groupId, artifactId, version), key -> {
+            Artifact defaultMatch = findDefaultFor(version);
+            return toConfiguration(groupId, artifactId, version, defaultMatch != null ? defaultMatch : latestArtifact);
+        });
     }
 
     @Override
     public boolean isNotForNativeImage(String groupId, String artifactId, String version) {
-        return artifacts.stream().anyMatch(artifact -> artifact.isNotForNativeImage(version));
+        if (version == null) {
+            return artifacts.stream().anyMatch(artifact -> artifact.isNotForNativeImage(null));
+        }
+        return notForNativeImage.computeIfAbsent(version,
+                v -> artifacts.stream().anyMatch(artifact -> artifact.isNotForNativeImage(v)));
+    }
+
+    @Override
+    public boolean isTestedVersion(String groupId, String artifactId, String version) {
+        return artifactsByVersion.containsKey(version);
+    }
+
+    private Artifact findDefaultFor(String version) {
+        for (Artifact artifact : defaultForArtifacts) {
+            if (artifact.isDefaultFor(version)) {
+                return artifact;
+            }
+        }
+        return null;
     }
 
-    private Optional<DirectoryConfiguration> findConfigurationFor(String groupId, String artifactId, String version,
-            Predicate<? super Artifact> predicate) {
-        if (artifacts.isEmpty()) {
+    private Optional<DirectoryConfiguration> toConfiguration(String groupId, String artifactId, String version, Artifact artifact) {
+        if (artifact == null) {
             return Optional.empty();
         }
-        return artifacts.stream()
-                .filter(predicate)
-                .findFirst()
-                .map(artifact -> new DirectoryConfiguration(groupId, artifactId, version,
-                        moduleRoot.resolve(artifact.getDirectory()), artifact.isOverride()));
+        return Optional.of(new DirectoryConfiguration(groupId, artifactId, version,
+                moduleRoot.resolve(artifact.getDirectory()), artifact.isOverride()));
+    }
+
+    private static String cacheKey(char mode, String groupId, String artifactId, String version) {
+        return mode + groupId + ":" + artifactId + ":" + version;
     }
 
-    private Artifact fromJson(JSONObject json) {
+    private static Artifact fromJson(JSONObject json) {
         Set<String> testVersions = readTestedVersions(json.optJSONArray("tested-versions"));
         String directory = json.optString("metadata-version", null);
         boolean latest = json.optBoolean("latest");
@@ -143,7 +206,7 @@ public class SingleModuleJsonVersionToConfigDirectoryIndex implements VersionToC
         return new Artifact(testVersions, directory, latest, override, defaultFor, notForNativeImage);
     }
 
-    private Set<String> readTestedVersions(JSONArray array) {
+    private static Set<String> readTestedVersions(JSONArray array) {
         Set<String> testVersions = new LinkedHashSet<>();
         if (array != null) {
             for (int i = 0; i < array.length(); i++) {
@@ -85,4 +85,17 @@ public interface VersionToConfigDirectoryIndex {
     default boolean isNotForNativeImage(String groupId, String artifactId, String version) {
         return false;
     }
+
+    /**
+     * Returns whether the version of the artifact is explicitly listed as tested,
+     * as opposed to being matched by a {@code default-for} pattern.
+     *
+     * @param groupId the group ID of the artifact
+     * @param artifactId the artifact ID of the artifact
+     * @param version the version of the artifact
+     * @return true if an entry lists the version as tested
+     */
+    default boolean isTestedVersion(String groupId, String artifactId, String version) {
+        return true;
+    }
 }
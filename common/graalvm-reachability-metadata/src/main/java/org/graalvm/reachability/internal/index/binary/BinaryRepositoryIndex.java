@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal.index.binary;
+
+import org.graalvm.reachability.internal.index.artifacts.Artifact;
+import org.graalvm.reachability.internal.index.artifacts.SingleModuleJsonVersionToConfigDirectoryIndex;
+import org.graalvm.reachability.internal.index.artifacts.VersionToConfigDirectoryIndex;
+import org.graalvm.reachability.internal.index.modules.ModuleToConfigDirectoryIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Memory-mapped, read-only view of the binary index generated by
+ * {@link BinaryRepositoryIndexWriter}. Module lookups are hash probes
+ * over the mapped file, so answering a query performs neither file
+ * system access nor JSON parsing.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * header:  magic, format version, module count, slot count
+ * slots:   slot count * offset of the module record (0 for an empty slot)
+ * records: key "groupId:artifactId", flags, transitive requires, artifact entries
+ * </pre>
+ * Strings are stored as a length followed by UTF-8 bytes, -1 denoting null.
+ */
+public final class BinaryRepositoryIndex implements ModuleToConfigDirectoryIndex {
+    public static final String FILE_NAME = ".nbt-repository-index.bin";
+
+    static final String SCHEMAS_DIRECTORY = "schemas";
+    static final int MAGIC = 0x4E425249;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 16;
+
+    static final int MODULE_HAS_INDEX_FILE = 1;
+    static final int ARTIFACT_LATEST = 1;
+    static final int ARTIFACT_OVERRIDE = 2;
+    static final int ARTIFACT_NOT_FOR_NATIVE_IMAGE = 4;
+
+    private final Path rootPath;
+    private final ByteBuffer buffer;
+    private final int slotMask;
+
+    private BinaryRepositoryIndex(Path rootPath, ByteBuffer buffer) {
+        this.rootPath = rootPath;
+        this.buffer = buffer;
+        this.slotMask = buffer.getInt(12) - 1;
+    }
+
+    /**
+     * Maps the binary index of the repository at the given root, if one was generated.
+     *
+     * @param rootPath the root directory of the exploded repository
+     * @return the index, or empty if the repository has no usable binary index
+     */
+    public static Optional<BinaryRepositoryIndex> open(Path rootPath) {
+        Path indexFile = rootPath.resolve(FILE_NAME);
+        if (!Files.isRegularFile(indexFile)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE
+                    || buffer.getInt(0) != MAGIC
+                    || buffer.getInt(4) != FORMAT_VERSION
+                    || Integer.bitCount(buffer.getInt(12)) != 1
+                    || buffer.capacity() < HEADER_SIZE + 4L * buffer.getInt(12)) {
+                return Optional.empty();
+            }
+            return Optional.of(new BinaryRepositoryIndex(rootPath, buffer));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns whether the repository has a module directory for the given coordinates.
+     *
+     * @param groupId the group of the module
+     * @param artifactId the artifact of the module
+     * @return true if the module is present in the repository
+     */
+    public boolean containsModule(String groupId, String artifactId) {
+        return findRecord(groupId + ":" + artifactId) > 0;
+    }
+
+    @Override
+    public Set<Path> findConfigurationDirectories(String groupId, String artifactId) {
+        int offset = findRecord(groupId + ":" + artifactId);
+        if (offset <= 0) {
+            return Collections.emptySet();
+        }
+        Path base = rootPath.resolve(groupId + "/" + artifactId);
+        Cursor cursor = new Cursor(offset);
+        cursor.readString();
+        if ((cursor.readByte() & MODULE_HAS_INDEX_FILE) == 0) {
+            return Collections.singleton(base);
+        }
+        Set<Path> result = new LinkedHashSet<>();
+        result.add(base);
+        int requiresCount = cursor.readInt();
+        for (int i = 0; i < requiresCount; i++) {
+            String req = cursor.readString();
+            int sep = req.indexOf(':');
+            if (sep > 0 && findRecord(req) > 0) {
+                result.add(rootPath.resolve(req.substring(0, sep) + "/" + req.substring(sep + 1)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the version index of the module stored in the given directory,
+     * from the artifact entries recorded in the binary index.
+     *
+     * @param moduleRoot a module directory returned by {@link #findConfigurationDirectories(String, String)}
+     * @return the version index of the module
+     */
+    public VersionToConfigDirectoryIndex versionIndexFor(Path moduleRoot) {
+        Path relative = rootPath.relativize(moduleRoot);
+        int offset = relative.getNameCount() == 2 ? findRecord(relative.getName(0) + ":" + relative.getName(1)) : 0;
+        if (offset <= 0) {
+            return new SingleModuleJsonVersionToConfigDirectoryIndex(moduleRoot);
+        }
+        Cursor cursor = new Cursor(offset);
+        cursor.readString();
+        if ((cursor.readByte() & MODULE_HAS_INDEX_FILE) == 0) {
+            return new SingleModuleJsonVersionToConfigDirectoryIndex(moduleRoot);
+        }
+        int requiresCount = cursor.readInt();
+        for (int i = 0; i < requiresCount; i++) {
+            cursor.readString();
+        }
+        int artifactCount = cursor.readInt();
+        List<Artifact> artifacts = new ArrayList<>(artifactCount);
+        for (int i = 0; i < artifactCount; i++) {
+            int flags = cursor.readByte();
+            String directory = cursor.readString();
+            String defaultFor = cursor.readString();
+            int versionCount = cursor.readInt();
+            Set<String> versions = new LinkedHashSet<>();
+            for (int j = 0; j < versionCount; j++) {
+                versions.add(cursor.readString());
+            }
+            artifacts.add(new Artifact(versions, directory,
+                    (flags & ARTIFACT_LATEST) != 0,
+                    (flags & ARTIFACT_OVERRIDE) != 0,
+                    defaultFor,
+                    (flags & ARTIFACT_NOT_FOR_NATIVE_IMAGE) != 0));
+        }
+        return new SingleModuleJsonVersionToConfigDirectoryIndex(moduleRoot, artifacts);
+    }
+
+    private int findRecord(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int slot = hash(bytes) & slotMask;
+        while (true) {
+            int offset = buffer.getInt(HEADER_SIZE + 4 * slot);
+            if (offset == 0 || keyEquals(offset, bytes)) {
+                return offset;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 32-bit FNV-1a hash, shared with the writer to place module records.
+     */
+    static int hash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    private final class Cursor {
+        private int position;
+
+        private Cursor(int position) {
+            this.position = position;
+        }
+
+        private int readByte() {
+            return buffer.get(position++) & 0xFF;
+        }
+
+        private int readInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        private String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
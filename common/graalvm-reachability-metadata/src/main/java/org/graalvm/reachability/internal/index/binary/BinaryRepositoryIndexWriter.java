@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal.index.binary;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.reachability.internal.index.modules.RequiresGraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes the compact binary index read by {@link BinaryRepositoryIndex}.
+ * The index is generated from the exploded repository: every
+ * {@code groupId/artifactId} directory becomes a module record holding
+ * the transitive closure of its {@code requires} list, restricted to the
+ * modules present in the repository, and the artifact entries of its
+ * {@code index.json}.
+ */
+public final class BinaryRepositoryIndexWriter {
+
+    private BinaryRepositoryIndexWriter() {
+    }
+
+    /**
+     * Generates the binary index for the repository at the given root, replacing
+     * any previously generated one.
+     *
+     * @param rootDirectory the root directory of the exploded repository
+     * @return the path to the generated index file
+     * @throws IOException if the repository cannot be read or the index cannot be written
+     */
+    public static Path write(Path rootDirectory) throws IOException {
+        Map<String, JSONArray> modules = new TreeMap<>();
+        try (DirectoryStream<Path> groups = Files.newDirectoryStream(rootDirectory, Files::isDirectory)) {
+            for (Path group : groups) {
+                String groupId = group.getFileName().toString();
+                if (BinaryRepositoryIndex.SCHEMAS_DIRECTORY.equals(groupId)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(group, Files::isDirectory)) {
+                    for (Path module : artifacts) {
+                        Path indexFile = module.resolve("index.json");
+                        modules.put(groupId + ":" + module.getFileName(),
+                                Files.isRegularFile(indexFile) ? new JSONArray(Files.readString(indexFile)) : null);
+                    }
+                }
+            }
+        }
+        RequiresGraph requiresGraph = new RequiresGraph(module -> directRequires(modules, module));
+        Map<String, byte[]> records = new TreeMap<>();
+        for (Map.Entry<String, JSONArray> module : modules.entrySet()) {
+            String key = module.getKey();
+            records.put(key, moduleRecord(key, module.getValue(), requiresGraph.requiredBy(key)));
+        }
+        Path indexFile = rootDirectory.resolve(BinaryRepositoryIndex.FILE_NAME);
+        FileUtils.writeAtomically(indexFile, file -> {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                writeIndex(records, out);
+            }
+        });
+        return indexFile;
+    }
+
+    private static void writeIndex(Map<String, byte[]> records, OutputStream out) throws IOException {
+        int slotCount = Integer.highestOneBit(Math.max(1, records.size() * 2 - 1)) << 1;
+        int[] slots = new int[slotCount];
+        int headerSize = BinaryRepositoryIndex.HEADER_SIZE + 4 * slotCount;
+        int offset = headerSize;
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            int slot = BinaryRepositoryIndex.hash(entry.getKey().getBytes(StandardCharsets.UTF_8)) & (slotCount - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slots[slot] = offset;
+            offset += entry.getValue().length;
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(BinaryRepositoryIndex.MAGIC);
+        data.writeInt(BinaryRepositoryIndex.FORMAT_VERSION);
+        data.writeInt(records.size());
+        data.writeInt(slotCount);
+        for (int slot : slots) {
+            data.writeInt(slot);
+        }
+        for (byte[] record : records.values()) {
+            data.write(record);
+        }
+        data.flush();
+    }
+
+    private static List<String> directRequires(Map<String, JSONArray> modules, String module) {
+        JSONArray entries = modules.get(module);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        List<String> requires = new ArrayList<>();
+        for (int i = 0; i < entries.length(); i++) {
+            JSONArray entryRequires = entries.getJSONObject(i).optJSONArray("requires");
+            if (entryRequires != null) {
+                for (int j = 0; j < entryRequires.length(); j++) {
+                    String required = entryRequires.getString(j);
+                    if (modules.containsKey(required) && !requires.contains(required)) {
+                        requires.add(required);
+                    }
+                }
+            }
+        }
+        return requires;
+    }
+
+    private static byte[] moduleRecord(String key, JSONArray indexEntries, Set<String> requires) throws IOException {
+        boolean hasIndexFile = indexEntries != null;
+        JSONArray entries = hasIndexFile ? indexEntries : new JSONArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        writeString(data, key);
+        data.writeByte(hasIndexFile ? BinaryRepositoryIndex.MODULE_HAS_INDEX_FILE : 0);
+        data.writeInt(requires.size());
+        for (String required : requires) {
+            writeString(data, required);
+        }
+        data.writeInt(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            JSONObject entry = entries.getJSONObject(i);
+            int flags = 0;
+            if (entry.optBoolean("latest")) {
+                flags |= BinaryRepositoryIndex.ARTIFACT_LATEST;
+            }
+            if (entry.optBoolean("override")) {
+                flags |= BinaryRepositoryIndex.ARTIFACT_OVERRIDE;
+            }
+            if (entry.optBoolean("not-for-native-image")) {
+                flags |= BinaryRepositoryIndex.ARTIFACT_NOT_FOR_NATIVE_IMAGE;
+            }
+            data.writeByte(flags);
+            writeString(data, entry.optString("metadata-version", null));
+            writeString(data, entry.optString("default-for", null));
+            JSONArray versions = entry.optJSONArray("tested-versions");
+            int versionCount = versions == null ? 0 : versions.length();
+            data.writeInt(versionCount);
+            for (int j = 0; j < versionCount; j++) {
+                writeString(data, versions.getString(j));
+            }
+        }
+        data.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+}
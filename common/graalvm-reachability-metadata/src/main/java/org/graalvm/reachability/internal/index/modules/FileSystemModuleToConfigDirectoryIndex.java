@@ -47,20 +47,33 @@ import org.graalvm.reachability.internal.UncheckedIOException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Module-to-config index which:
  * - Resolves the primary module directory by conventional layout (groupId/artifactId),
- * - Reads requires from the inner metadata/group/artifact/index.json and adds their conventional directories.
+ * - Reads requires from the inner metadata/group/artifact/index.json and adds the conventional directories
+ *   of all the transitively required modules. Each index.json is read at most once.
+ * - Answers lookups of modules which are absent from the repository from an in-memory filter
+ *   built when the index is created, without touching the file system.
  */
 public class FileSystemModuleToConfigDirectoryIndex implements ModuleToConfigDirectoryIndex {
     private final Path rootPath;
+    private final ModuleMembershipFilter moduleFilter;
+    private final RequiresGraph requiresGraph;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong filteredMisses = new AtomicLong();
 
     public FileSystemModuleToConfigDirectoryIndex(Path rootPath) {
         this.rootPath = rootPath;
+        this.moduleFilter = ModuleMembershipFilter.of(rootPath);
+        this.requiresGraph = new RequiresGraph(this::directRequires);
     }
 
     /**
@@ -68,49 +81,93 @@ public class FileSystemModuleToConfigDirectoryIndex implements ModuleToConfigDir
      * <p>
      * - Always includes the conventional module directory if present: rootPath/groupId/artifactId
      * - Additionally includes conventional directories of any modules listed in "requires" of the inner index.json
-     * - Only a single-level requires expansion is performed
+     * - Requires are expanded transitively, from a memoized {@link RequiresGraph}
      */
     @Override
     public Set<Path> findConfigurationDirectories(String groupId, String artifactId) {
-        Path base = rootPath.resolve(groupId + "/" + artifactId);
-        if (!Files.isDirectory(base)) {
+        if (!containsModule(groupId, artifactId)) {
+            misses.incrementAndGet();
             return Collections.emptySet();
         }
+        hits.incrementAndGet();
+        Path base = rootPath.resolve(groupId + "/" + artifactId);
 
-        Path indexFile = base.resolve("index.json");
-        if (Files.isRegularFile(indexFile)) {
-            Set<Path> result = new LinkedHashSet<>();
-            // Always include the base directory so its index.json is parsed,
-            // even if it doesn't contain configuration files itself.
-            result.add(base);
-            try {
-                String content = Files.readString(indexFile);
-                JSONArray entries = new JSONArray(content);
-                for (int i = 0; i < entries.length(); i++) {
-                    JSONObject entry = entries.getJSONObject(i);
-                    JSONArray requires = entry.optJSONArray("requires");
-                    if (requires == null) {
-                        continue;
-                    }
-                    for (int j = 0; j < requires.length(); j++) {
-                        String req = requires.getString(j);
-                        int sep = req.indexOf(':');
-                        if (sep > 0) {
-                            String reqGroup = req.substring(0, sep);
-                            String reqArtifact = req.substring(sep + 1);
-                            Path reqDir = rootPath.resolve(reqGroup + "/" + reqArtifact);
-                            if (Files.isDirectory(reqDir)) {
-                                result.add(reqDir);
-                            }
-                        }
+        Set<String> requires = requiresGraph.requiredBy(groupId + ":" + artifactId);
+        if (requires.isEmpty()) {
+            return Collections.singleton(base);
+        }
+        // Always include the base directory so its index.json is parsed,
+        // even if it doesn't contain configuration files itself.
+        Set<Path> result = new LinkedHashSet<>();
+        result.add(base);
+        for (String required : requires) {
+            result.add(moduleDirectory(required));
+        }
+        return result;
+    }
+
+    private List<String> directRequires(String module) {
+        Path indexFile = moduleDirectory(module).resolve("index.json");
+        if (!Files.isRegularFile(indexFile)) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        try {
+            JSONArray entries = new JSONArray(Files.readString(indexFile));
+            for (int i = 0; i < entries.length(); i++) {
+                JSONObject entry = entries.getJSONObject(i);
+                JSONArray requires = entry.optJSONArray("requires");
+                if (requires == null) {
+                    continue;
+                }
+                for (int j = 0; j < requires.length(); j++) {
+                    String req = requires.getString(j);
+                    int sep = req.indexOf(':');
+                    if (sep > 0 && !result.contains(req) && containsModule(req.substring(0, sep), req.substring(sep + 1))) {
+                        result.add(req);
                     }
                 }
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
             }
-            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return result;
+    }
 
-        return Collections.singleton(base);
+    private Path moduleDirectory(String module) {
+        return rootPath.resolve(module.replace(':', '/'));
+    }
+
+    private boolean containsModule(String groupId, String artifactId) {
+        if (moduleFilter != null && !moduleFilter.mightContain(groupId, artifactId)) {
+            filteredMisses.incrementAndGet();
+            return false;
+        }
+        return Files.isDirectory(rootPath.resolve(groupId + "/" + artifactId));
+    }
+
+    /**
+     * Returns the number of lookups which found a module directory.
+     * @return the number of module hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups which didn't find a module directory.
+     * @return the number of module misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of module checks, including the ones of required modules,
+     * which were answered by the in-memory filter without accessing the file system.
+     * @return the number of filtered misses
+     */
+    public long getFilteredMisses() {
+        return filteredMisses.get();
     }
 }
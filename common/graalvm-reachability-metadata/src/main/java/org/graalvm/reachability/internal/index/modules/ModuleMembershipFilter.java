@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal.index.modules;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloom filter over the {@code groupId:artifactId} keys of the module directories
+ * of a repository, built from a single listing of the repository root.
+ * A negative answer means that the module directory does not exist, so
+ * that lookups of modules absent from the repository don't touch the
+ * file system. A positive answer may be a false positive and must be
+ * confirmed.
+ */
+final class ModuleMembershipFilter {
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final long[] bits;
+    private final int bitCount;
+
+    private ModuleMembershipFilter(long[] bits) {
+        this.bits = bits;
+        this.bitCount = bits.length * 64;
+    }
+
+    /**
+     * Builds the filter from the module directories of the given repository.
+     * @param rootPath the repository root
+     * @return the filter, or null if the repository cannot be listed
+     */
+    static ModuleMembershipFilter of(Path rootPath) {
+        List<String> keys = new ArrayList<>();
+        try (DirectoryStream<Path> groups = Files.newDirectoryStream(rootPath, Files::isDirectory)) {
+            for (Path group : groups) {
+                try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(group, Files::isDirectory)) {
+                    for (Path artifact : artifacts) {
+                        keys.add(key(group.getFileName().toString(), artifact.getFileName().toString()));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        ModuleMembershipFilter filter = new ModuleMembershipFilter(new long[Math.max(1, (keys.size() * BITS_PER_KEY + 63) / 64)]);
+        for (String key : keys) {
+            filter.add(key);
+        }
+        return filter;
+    }
+
+    boolean mightContain(String groupId, String artifactId) {
+        String key = key(groupId, artifactId);
+        int h1 = key.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(String key) {
+        int h1 = key.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    /**
+     * Murmur3 finalizer, used to derive the second hash of the double hashing scheme.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
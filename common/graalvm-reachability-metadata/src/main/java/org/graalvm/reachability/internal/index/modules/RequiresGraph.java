@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal.index.modules;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Memoized transitive closure of the {@code requires} relation between
+ * {@code groupId:artifactId} modules. The direct requirements of a module
+ * are computed at most once, and the closure of a module reuses the
+ * closures already computed for the modules it reaches.
+ * <p>
+ * Cycles are detected while expanding a module: every module is visited
+ * once, so the members of a cycle simply require each other.
+ */
+public final class RequiresGraph {
+    private final Function<String, List<String>> directRequires;
+    private final Map<String, List<String>> direct = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> closures = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a graph.
+     *
+     * @param directRequires computes the modules directly required by a module, which are present in the repository
+     */
+    public RequiresGraph(Function<String, List<String>> directRequires) {
+        this.directRequires = directRequires;
+    }
+
+    /**
+     * Returns the modules transitively required by the given module,
+     * in breadth-first order. The module itself is never included.
+     *
+     * @param module the {@code groupId:artifactId} module
+     * @return the transitively required modules
+     */
+    public Set<String> requiredBy(String module) {
+        Set<String> closure = closures.get(module);
+        if (closure != null) {
+            return closure;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>(directOf(module));
+        while (!queue.isEmpty()) {
+            String next = queue.poll();
+            if (next.equals(module) || !result.add(next)) {
+                continue;
+            }
+            Set<String> known = closures.get(next);
+            if (known != null) {
+                for (String required : known) {
+                    if (!required.equals(module)) {
+                        result.add(required);
+                    }
+                }
+            } else {
+                queue.addAll(directOf(next));
+            }
+        }
+        closure = Collections.unmodifiableSet(result);
+        Set<String> previous = closures.putIfAbsent(module, closure);
+        return previous != null ? previous : closure;
+    }
+
+    private List<String> directOf(String module) {
+        return direct.computeIfAbsent(module, directRequires);
+    }
+}
@@ -50,6 +50,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Properties;
 
@@ -87,6 +88,67 @@ class DirectoryConfigurationTest {
         assertEquals("true", properties.getProperty("override"));
     }
 
+    @Test
+    void repeatedCopyOnlyUpdatesChangedFiles() throws IOException {
+        Path directory = temp.resolve("source/com.example.group/artifact/123");
+        Path target = temp.resolve("target");
+        Path copiedFiles = temp.resolve("copied-files.txt");
+        createJsonFiles(directory);
+        DirectoryConfiguration configuration = new DirectoryConfiguration("com.example.group", "artifact", "123", directory, false);
+        DirectoryConfiguration.copy(Arrays.asList(configuration), target, copiedFiles);
+        Path reflectConfig = target.resolve("META-INF/native-image/com.example.group/artifact/123/reflect-config.json");
+        Path otherConfig = target.resolve("META-INF/native-image/com.example.group/artifact/123/other.json");
+        Object unchangedKey = Files.readAttributes(otherConfig, BasicFileAttributes.class).fileKey();
+
+        Files.delete(directory.resolve("reflect-config.json"));
+        Files.write(directory.resolve("reflect-config.json"), "{\"changed\": true}".getBytes());
+        DirectoryConfiguration.copy(Arrays.asList(configuration), target, copiedFiles);
+        assertEquals("{\"changed\": true}", Files.readString(reflectConfig));
+        assertEquals(unchangedKey, Files.readAttributes(otherConfig, BasicFileAttributes.class).fileKey());
+    }
+
+    @Test
+    void copyDeletesFilesWhichAreNoLongerSelected() throws IOException {
+        Path oldDirectory = temp.resolve("source/com.example.group/artifact/123");
+        Path newDirectory = temp.resolve("source/com.example.group/artifact/456");
+        Path target = temp.resolve("target");
+        Path copiedFiles = temp.resolve("copied-files.txt");
+        createJsonFiles(oldDirectory);
+        createJsonFiles(newDirectory);
+        Path unrelated = target.resolve("META-INF/native-image/com.example.group/app/native-image.properties");
+        Files.createDirectories(unrelated.getParent());
+        Files.write(unrelated, "Args=".getBytes());
+
+        DirectoryConfiguration.copy(Arrays.asList(new DirectoryConfiguration("com.example.group", "artifact", "123", oldDirectory, true)), target, copiedFiles);
+        DirectoryConfiguration.copy(Arrays.asList(new DirectoryConfiguration("com.example.group", "artifact", "456", newDirectory, false)), target, copiedFiles);
+
+        assertFalse(Files.exists(target.resolve("META-INF/native-image/com.example.group/artifact/123")));
+        assertTrue(Files.exists(target.resolve("META-INF/native-image/com.example.group/artifact/456/reflect-config.json")));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void copyKeepsShippedPropertiesUnlessOverridden() throws IOException {
+        Path directory = temp.resolve("source/com.example.group/artifact/123");
+        Path target = temp.resolve("target");
+        Path copiedFiles = temp.resolve("copied-files.txt");
+        createJsonFiles(directory);
+        Path shippedProperties = directory.resolve("reachability-metadata.properties");
+        Files.writeString(shippedProperties, "shipped=true\n");
+        Path propertiesFile = target.resolve("META-INF/native-image/com.example.group/artifact/123/reachability-metadata.properties");
+
+        DirectoryConfiguration.copy(Arrays.asList(new DirectoryConfiguration("com.example.group", "artifact", "123", directory, false)), target, copiedFiles);
+        assertEquals("shipped=true\n", Files.readString(propertiesFile));
+        assertTrue(Files.readAllLines(copiedFiles).contains("com.example.group/artifact/123/reachability-metadata.properties"));
+
+        DirectoryConfiguration.copy(Arrays.asList(new DirectoryConfiguration("com.example.group", "artifact", "123", directory, true)), target, copiedFiles);
+        assertEquals("override=true\n", Files.readString(propertiesFile));
+        assertEquals("shipped=true\n", Files.readString(shippedProperties));
+
+        DirectoryConfiguration.copy(Arrays.asList(new DirectoryConfiguration("com.example.group", "artifact", "123", directory, false)), target, copiedFiles);
+        assertEquals("shipped=true\n", Files.readString(propertiesFile));
+    }
+
     private void createJsonFiles(Path directory) throws IOException {
         Files.createDirectories(directory);
         byte[] json = "{}".getBytes();
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability;
+
+import org.graalvm.reachability.internal.FileSystemRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Protects lock file round trips and query-free resolution. §FS-common-libraries.5.3.
+class MetadataLockFileTest {
+    private static final List<String> CLASSPATH = List.of("org:foo:1.2", "org:foo:1.0", "org:bar:1.0");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void resolvesLockedArtifactsWithoutQueryingIndexes() throws Exception {
+        Path root = copyOf("/repos/repo1");
+        FileSystemRepository repository = new FileSystemRepository(root);
+        Path file = tempDir.resolve(MetadataLockFile.DEFAULT_FILE_NAME);
+        MetadataLockFile.generate(repository, "repo1", CLASSPATH, Collections.emptySet(), Collections.emptyMap()).write(file);
+
+        MetadataLockFile lock = MetadataLockFile.read(file).orElseThrow();
+        assertEquals(List.of("org:bar:1.0", "org:foo:1.0", "org:foo:1.2"), List.copyOf(lock.getArtifacts()));
+        assertEquals("repo1", lock.getRepository().orElseThrow());
+        assertTrue(lock.isUpToDate(repository));
+
+        // Once the module index is gone, only locked artifacts can still be resolved
+        Files.delete(root.resolve("org/foo/index.json"));
+        FileSystemRepository changed = new FileSystemRepository(root);
+        assertFalse(lock.isUpToDate(changed));
+        Map<String, Set<DirectoryConfiguration>> result = lock.findConfigurationsForClasspath(changed, CLASSPATH,
+                Collections.emptySet(), Collections.emptyMap());
+        assertEquals(CLASSPATH, List.copyOf(result.keySet()));
+        DirectoryConfiguration latest = result.get("org:foo:1.2").iterator().next();
+        assertEquals(root.resolve("org/foo/1.1"), latest.getDirectory());
+        assertEquals("1.2", latest.getVersion());
+        assertTrue(latest.isOverride());
+        DirectoryConfiguration exact = result.get("org:foo:1.0").iterator().next();
+        assertEquals(root.resolve("org/foo/1.0"), exact.getDirectory());
+        assertFalse(exact.isOverride());
+        assertTrue(result.get("org:bar:1.0").isEmpty());
+    }
+
+    @Test
+    void queriesArtifactsWhoseSettingsChanged() throws Exception {
+        FileSystemRepository repository = new FileSystemRepository(copyOf("/repos/repo1"));
+        MetadataLockFile lock = MetadataLockFile.generate(repository, null, CLASSPATH, Collections.emptySet(), Collections.emptyMap());
+
+        Map<String, Set<DirectoryConfiguration>> forced = lock.findConfigurationsForClasspath(repository, CLASSPATH,
+                Collections.emptySet(), Map.of("org:foo", "1.0"));
+        assertEquals(repository.getRootDirectory().resolve("org/foo/1.0"), forced.get("org:foo:1.2").iterator().next().getDirectory());
+
+        Map<String, Set<DirectoryConfiguration>> excluded = lock.findConfigurationsForClasspath(repository, CLASSPATH,
+                Set.of("org:foo"), Collections.emptyMap());
+        assertTrue(excluded.get("org:foo:1.0").isEmpty());
+        assertTrue(excluded.get("org:foo:1.2").isEmpty());
+    }
+
+    @Test
+    void detectsIndexesEditedAfterTheLockFileWasGenerated() throws Exception {
+        Path root = copyOf("/repos/repo1");
+        FileSystemRepository repository = new FileSystemRepository(root);
+        MetadataLockFile lock = MetadataLockFile.generate(repository, null, CLASSPATH, Collections.emptySet(), Collections.emptyMap());
+
+        Path index = root.resolve("org/foo/index.json");
+        Files.writeString(index, Files.readString(index).replace("\"latest\": true,", ""));
+        assertFalse(lock.isUpToDate(repository));
+    }
+
+    @Test
+    void memoizesTheContentHashAgainstTheIndexStamps() throws Exception {
+        Path root = copyOf("/repos/repo1");
+        FileSystemRepository repository = new FileSystemRepository(root);
+        String hash = repository.getContentHash();
+
+        // Same size and modification time, so the index is not read again
+        Path index = root.resolve("org/foo/index.json");
+        FileTime modified = Files.getLastModifiedTime(index);
+        Files.writeString(index, Files.readString(index).replace("1.1", "1.3"));
+        Files.setLastModifiedTime(index, modified);
+        assertEquals(hash, repository.getContentHash());
+
+        Files.setLastModifiedTime(index, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertNotEquals(hash, repository.getContentHash());
+    }
+
+    private Path copyOf(String resource) throws IOException, URISyntaxException {
+        Path source = Paths.get(MetadataLockFileTest.class.getResource(resource).toURI());
+        Path target = tempDir.resolve("repo");
+        List<Path> entries;
+        try (Stream<Path> walk = Files.walk(source)) {
+            entries = walk.collect(Collectors.toList());
+        }
+        for (Path entry : entries) {
+            Path destination = target.resolve(source.relativize(entry).toString());
+            if (Files.isDirectory(entry)) {
+                Files.createDirectories(destination);
+            } else {
+                Files.copy(entry, destination);
+            }
+        }
+        return target;
+    }
+}
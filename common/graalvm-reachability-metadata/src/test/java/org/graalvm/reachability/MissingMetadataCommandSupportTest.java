@@ -44,16 +44,24 @@ import com.github.openjson.JSONArray;
 import com.github.openjson.JSONObject;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
+import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.buildtools.utils.SharedConstants;
 import org.graalvm.reachability.internal.FileSystemRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
@@ -63,6 +71,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -316,6 +326,407 @@ class MissingMetadataCommandSupportTest {
         }
     }
 
+    @Test
+    void looksUpDependenciesConcurrentlyAndKeepsReportOrder() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/api/v3/search/issues", exchange -> writeJson(exchange, "{\"items\":[]}"));
+        server.start();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<MissingMetadataCommandSupport.DependencyCoordinate> dependencies = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            dependencies.add(new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "lib-" + (char) ('a' + i), "1.0.0"));
+        }
+        try {
+            MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+                dependencies,
+                new TestRepository(Set.of()),
+                Set.of(),
+                java.util.Map.of(),
+                new MissingMetadataCommandSupport.Options(
+                    "gradle",
+                    "demo-app",
+                    "file:///tmp/repo",
+                    false,
+                    null,
+                    "test/repo",
+                    "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                    Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC),
+                    hostname -> null,
+                    dependency -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        inFlight.decrementAndGet();
+                        return true;
+                    },
+                    message -> { },
+                    (dependency, forcedVersion) -> Optional.empty()
+                ).withParallelism(4)
+            );
+
+            assertTrue(maxInFlight.get() > 1, "lookups should run concurrently");
+            assertTrue(maxInFlight.get() <= 4, "lookups should not exceed the parallelism");
+            List<String> reported = report.results().stream().map(result -> result.dependency().coordinates()).toList();
+            List<String> expected = dependencies.stream().sorted().map(MissingMetadataCommandSupport.DependencyCoordinate::coordinates).toList();
+            assertEquals(expected, reported);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void retriesSearchesRejectedBySecondaryRateLimit() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicInteger searches = new AtomicInteger();
+        server.createContext("/api/v3/search/issues", exchange -> {
+            if (searches.incrementAndGet() == 1) {
+                byte[] content = "{\"message\":\"You have exceeded a secondary rate limit.\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(403, content.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(content);
+                }
+                return;
+            }
+            writeJson(exchange, """
+                {"items": [{"number": 7, "html_url": "http://localhost/test/repo/issues/7", "title": "Support for org.example:limited-lib:1.0.0"}]}
+                """);
+        });
+        server.start();
+        try {
+            long start = System.nanoTime();
+            MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+                List.of(new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "limited-lib", "1.0.0")),
+                new TestRepository(Set.of()),
+                Set.of(),
+                java.util.Map.of(),
+                new MissingMetadataCommandSupport.Options(
+                    "gradle",
+                    "demo-app",
+                    "file:///tmp/repo",
+                    false,
+                    null,
+                    "test/repo",
+                    "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                    Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC),
+                    hostname -> null,
+                    dependency -> true,
+                    message -> { },
+                    (dependency, forcedVersion) -> Optional.empty()
+                )
+            );
+
+            assertEquals(2, searches.get());
+            assertTrue(System.nanoTime() - start >= 1_000_000_000L, "the retry should honour Retry-After");
+            assertEquals(MissingMetadataCommandSupport.IssueStatus.EXISTING_OPEN_ISSUE, report.results().get(0).issueStatus().orElseThrow());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void stopsSearchingWhenRateLimitResetIsTooFarAway() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicInteger searches = new AtomicInteger();
+        List<String> warnings = new java.util.concurrent.CopyOnWriteArrayList<>();
+        server.createContext("/api/v3/search/issues", exchange -> {
+            searches.incrementAndGet();
+            exchange.getResponseHeaders().add("X-RateLimit-Remaining", "0");
+            exchange.getResponseHeaders().add("X-RateLimit-Reset", String.valueOf(Instant.now().plusSeconds(3600).getEpochSecond()));
+            writeJson(exchange, "{\"items\":[]}");
+        });
+        server.start();
+        try {
+            MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+                // Enough modules for two search batches
+                IntStream.rangeClosed(1, 7)
+                    .mapToObj(i -> new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "lib-" + i, "1.0.0"))
+                    .toList(),
+                new TestRepository(Set.of()),
+                Set.of(),
+                java.util.Map.of(),
+                new MissingMetadataCommandSupport.Options(
+                    "gradle",
+                    "demo-app",
+                    "file:///tmp/repo",
+                    false,
+                    null,
+                    "test/repo",
+                    "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                    Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC),
+                    hostname -> null,
+                    dependency -> true,
+                    warnings::add,
+                    (dependency, forcedVersion) -> Optional.empty()
+                ).withParallelism(1)
+            );
+
+            assertEquals(1, searches.get());
+            assertEquals(1, warnings.size());
+            assertTrue(warnings.get(0).contains("rate limit"), warnings.get(0));
+            for (MissingMetadataCommandSupport.Result result : report.results()) {
+                assertEquals(MissingMetadataCommandSupport.IssueStatus.NEW_ISSUE_LINK_GENERATED, result.issueStatus().orElseThrow());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void searchesIssuesOfSeveralModulesWithOneRequest() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        List<String> queries = new java.util.concurrent.CopyOnWriteArrayList<>();
+        server.createContext("/api/v3/search/issues", exchange -> {
+            queries.add(URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8));
+            writeJson(exchange, "{\"total_count\":2,\"incomplete_results\":false,\"items\":["
+                + "{\"title\":\"Support for org.example:second-lib:2.0.0\",\"html_url\":\"http://localhost/issues/2\",\"number\":2},"
+                + "{\"title\":\"Support for org.example:first-lib:1.0.0\",\"html_url\":\"http://localhost/issues/1\",\"number\":1}"
+                + "]}");
+        });
+        server.start();
+        try {
+            MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+                List.of(
+                    new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "first-lib", "1.0.0"),
+                    new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "second-lib", "1.0.0"),
+                    new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "third-lib", "1.0.0")
+                ),
+                new TestRepository(Set.of()),
+                Set.of(),
+                java.util.Map.of(),
+                new MissingMetadataCommandSupport.Options(
+                    "gradle",
+                    "demo-app",
+                    "file:///tmp/repo",
+                    false,
+                    null,
+                    "test/repo",
+                    "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                    Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC),
+                    hostname -> null,
+                    dependency -> true,
+                    message -> { },
+                    (dependency, forcedVersion) -> Optional.empty()
+                )
+            );
+
+            assertEquals(1, queries.size());
+            assertTrue(queries.get(0).contains("\"org.example:first-lib\" OR \"org.example:second-lib\" OR \"org.example:third-lib\""), queries.get(0));
+            assertEquals("http://localhost/issues/1", report.results().get(0).issueUrl().orElseThrow());
+            assertEquals("http://localhost/issues/2", report.results().get(1).issueUrl().orElseThrow());
+            assertEquals(MissingMetadataCommandSupport.IssueStatus.NEW_ISSUE_LINK_GENERATED, report.results().get(2).issueStatus().orElseThrow());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void issueSearchBatchesRespectGitHubQueryLimits() {
+        List<String> modules = IntStream.rangeClosed(1, 13).mapToObj(i -> "org.example:lib-" + i).toList();
+        assertEquals(List.of(6, 6, 1), MissingMetadataCommandSupport.issueSearchBatches(modules).stream().map(List::size).toList());
+
+        String longModule = "org.example." + "a".repeat(100) + ":lib";
+        List<List<String>> batches = MissingMetadataCommandSupport.issueSearchBatches(List.of(longModule, longModule + "2", longModule + "3"));
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    void cachesLookupsAcrossRunsUntilTheyExpire(@TempDir Path cacheDirectory) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicInteger searches = new AtomicInteger();
+        AtomicInteger availabilityChecks = new AtomicInteger();
+        server.createContext("/api/v3/search/issues", exchange -> {
+            searches.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            if (query.contains("org.example:tracked-lib")) {
+                writeJson(exchange, "{\"items\":[{\"title\":\"Support for org.example:tracked-lib:1.0.0\",\"html_url\":\"http://localhost/issues/7\",\"number\":7}]}");
+            } else {
+                writeJson(exchange, "{\"items\":[]}");
+            }
+        });
+        server.start();
+        try {
+            List<MissingMetadataCommandSupport.DependencyCoordinate> dependencies = List.of(
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "tracked-lib", "1.0.0"),
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "untracked-lib", "1.0.0"),
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "unpublished-lib", "1.0.0")
+            );
+            Instant now = Instant.parse("2026-04-09T10:00:00Z");
+            for (Instant runAt : List.of(now, now.plus(Duration.ofMinutes(30)))) {
+                runCached(server, cacheDirectory, runAt, dependencies, availabilityChecks);
+            }
+            // Both modules are searched with a single request
+            assertEquals(1, searches.get());
+            assertEquals(3, availabilityChecks.get());
+
+            MissingMetadataCommandSupport.Report report = runCached(server, cacheDirectory, now.plus(Duration.ofHours(2)), dependencies, availabilityChecks);
+
+            // Only the negative answers expired
+            assertEquals(2, searches.get());
+            assertEquals(4, availabilityChecks.get());
+            assertEquals(MissingMetadataCommandSupport.IssueStatus.EXISTING_OPEN_ISSUE, report.results().get(0).issueStatus().orElseThrow());
+            assertEquals(Integer.valueOf(7), report.results().get(0).issueNumber().orElseThrow());
+            assertEquals(MissingMetadataCommandSupport.IssueStatus.SKIPPED_NOT_AVAILABLE_IN_MAVEN_CENTRAL, report.results().get(1).issueStatus().orElseThrow());
+            assertEquals(MissingMetadataCommandSupport.IssueStatus.NEW_ISSUE_LINK_GENERATED, report.results().get(2).issueStatus().orElseThrow());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void offlineModeServesStaleCacheEntriesWithoutRemoteLookups(@TempDir Path cacheDirectory) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        AtomicInteger availabilityChecks = new AtomicInteger();
+        server.createContext("/api/v3/search/issues", exchange -> writeJson(exchange,
+            "{\"items\":[{\"title\":\"Support for org.example:tracked-lib:1.0.0\",\"html_url\":\"http://localhost/issues/7\",\"number\":7}]}"));
+        server.start();
+        Instant now = Instant.parse("2026-04-09T10:00:00Z");
+        try {
+            runCached(server, cacheDirectory, now,
+                List.of(new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "tracked-lib", "1.0.0")), availabilityChecks);
+        } finally {
+            server.stop(0);
+        }
+        List<String> warnings = new ArrayList<>();
+
+        MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+            List.of(
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "tracked-lib", "1.0.0"),
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "unknown-lib", "1.0.0")
+            ),
+            new TestRepository(Set.of()),
+            Set.of(),
+            java.util.Map.of(),
+            new MissingMetadataCommandSupport.Options(
+                "gradle",
+                "demo-app",
+                "file:///tmp/repo",
+                false,
+                null,
+                "test/repo",
+                "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                Clock.fixed(now.plus(Duration.ofDays(30)), ZoneOffset.UTC),
+                hostname -> null,
+                dependency -> {
+                    throw new AssertionError("Offline mode must not check Maven Central");
+                },
+                warnings::add,
+                (dependency, forcedVersion) -> Optional.empty()
+            ).withCache(cacheDirectory, null, null).withOffline(true)
+        );
+
+        assertEquals(MissingMetadataCommandSupport.IssueStatus.EXISTING_OPEN_ISSUE, report.results().get(0).issueStatus().orElseThrow());
+        assertEquals("http://localhost/issues/7", report.results().get(0).issueUrl().orElseThrow());
+        assertEquals(MissingMetadataCommandSupport.IssueStatus.NEW_ISSUE_LINK_GENERATED, report.results().get(1).issueStatus().orElseThrow());
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("Offline mode"), warnings.get(0));
+    }
+
+    @Test
+    void checksNewerReleaseAgainstItsCachedIndex(@TempDir Path cacheDirectory, @TempDir Path extractedRelease) throws Exception {
+        Path repo1 = Path.of(MissingMetadataCommandSupportTest.class.getResource("/repos/repo1").toURI());
+        try (Stream<Path> files = Files.walk(repo1)) {
+            for (Path file : files.toList()) {
+                Path target = extractedRelease.resolve(repo1.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(file, target);
+                }
+            }
+        }
+        String releaseUri = String.format(SharedConstants.METADATA_REPO_URL_TEMPLATE, "9.9.9");
+        Path indexDirectory = cacheDirectory.resolve("metadata-releases").resolve(FileUtils.hashFor(URI.create(releaseUri)));
+        MissingMetadataCommandSupport.writeReleaseIndex(extractedRelease, indexDirectory);
+        Clock clock = Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC);
+        new LookupCache(cacheDirectory, Duration.ofDays(1), Duration.ofHours(1), clock)
+            .put("latest-release:oracle/graalvm-reachability-metadata", "9.9.9", true);
+
+        // The release is neither looked up nor downloaded: only its cached index is read
+        MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+            List.of(
+                new MissingMetadataCommandSupport.DependencyCoordinate("org", "foo", "1.1"),
+                new MissingMetadataCommandSupport.DependencyCoordinate("org", "bar", "1.0")
+            ),
+            new TestRepository(Set.of()),
+            Set.of(),
+            java.util.Map.of(),
+            new MissingMetadataCommandSupport.Options(
+                "gradle",
+                "demo-app",
+                "file:///tmp/repo",
+                false,
+                null,
+                "test/repo",
+                "http://127.0.0.1:9/api/v3",
+                clock,
+                hostname -> null,
+                dependency -> true,
+                message -> { },
+                null
+            ).withCache(cacheDirectory, null, null).withOffline(true)
+        );
+
+        assertFalse(Files.exists(indexDirectory.resolve("org")));
+        assertEquals(MissingMetadataCommandSupport.Status.SUPPORTED_IN_NEWER_METADATA_REPOSITORY, report.results().get(1).status());
+        assertEquals("9.9.9", report.results().get(1).supportingMetadataRepositoryVersion().orElseThrow());
+        assertEquals(MissingMetadataCommandSupport.Status.MISSING, report.results().get(0).status());
+    }
+
+    @Test
+    void streamsJsonReportWithEscapedValues() throws Exception {
+        String errorMessage = "lookup \"failed\"\n\tat C:\\path";
+        MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+            List.of(
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "broken-lib", "1.0.0"),
+                new MissingMetadataCommandSupport.DependencyCoordinate("org.example", "supported-lib", "1.0.0")
+            ),
+            new TestRepository(Set.of("org.example:supported-lib:1.0.0")),
+            Set.of(),
+            java.util.Map.of(),
+            new MissingMetadataCommandSupport.Options(
+                "gradle",
+                "demo-app",
+                null,
+                false,
+                null,
+                "test/repo",
+                "http://127.0.0.1:9/api/v3",
+                Clock.fixed(Instant.parse("2026-04-09T10:00:00Z"), ZoneOffset.UTC),
+                hostname -> null,
+                dependency -> {
+                    throw new IllegalStateException(errorMessage);
+                },
+                message -> { },
+                (dependency, forcedVersion) -> Optional.empty()
+            )
+        );
+        StringWriter writer = new StringWriter();
+
+        report.writeJson(writer);
+
+        assertEquals(report.toJsonString(), writer.toString());
+        JSONObject json = new JSONObject(writer.toString());
+        assertFalse(json.has("metadataRepositoryUri"));
+        assertEquals("demo-app", json.getJSONObject("project").getString("name"));
+        assertEquals(1, json.getJSONObject("summary").getInt("supported"));
+        assertEquals(1, json.getJSONObject("summary").getInt("errors"));
+        assertEquals(errorMessage, findByCoordinates(json.getJSONArray("results"), "org.example:broken-lib:1.0.0").getString("error"));
+        assertEquals("supported", findByCoordinates(json.getJSONArray("results"), "org.example:supported-lib:1.0.0").getString("status"));
+
+        List<String> lines = new ArrayList<>();
+        report.writeConsoleOutput("build/report.json", lines::add);
+        assertEquals(report.renderConsoleOutput("build/report.json"), String.join("\n", lines));
+        assertEquals("Full report: build/report.json", lines.get(lines.size() - 1));
+
+        report.close();
+        assertThrows(UncheckedIOException.class, report::results);
+    }
+
     @Test
     void listModeSkipsNewIssueLinkWhenArtifactIsNotAvailableInMavenCentral() throws Exception {
         HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
@@ -652,6 +1063,36 @@ class MissingMetadataCommandSupportTest {
         assertEquals("github.com", seenHostname.get());
     }
 
+    private static MissingMetadataCommandSupport.Report runCached(HttpServer server,
+                                                                  Path cacheDirectory,
+                                                                  Instant now,
+                                                                  List<MissingMetadataCommandSupport.DependencyCoordinate> dependencies,
+                                                                  AtomicInteger availabilityChecks) {
+        return MissingMetadataCommandSupport.run(
+            dependencies,
+            new TestRepository(Set.of()),
+            Set.of(),
+            java.util.Map.of(),
+            new MissingMetadataCommandSupport.Options(
+                "gradle",
+                "demo-app",
+                "file:///tmp/repo",
+                false,
+                null,
+                "test/repo",
+                "http://localhost:" + server.getAddress().getPort() + "/api/v3",
+                Clock.fixed(now, ZoneOffset.UTC),
+                hostname -> null,
+                dependency -> {
+                    availabilityChecks.incrementAndGet();
+                    return !dependency.artifactId().equals("unpublished-lib");
+                },
+                message -> { },
+                (dependency, forcedVersion) -> Optional.empty()
+            ).withCache(cacheDirectory, Duration.ofDays(1), Duration.ofHours(1))
+        );
+    }
+
     private static void writeJson(HttpExchange exchange, String json) throws IOException {
         byte[] content = json.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().add("Content-Type", "application/json");
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.reachability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import com.github.openjson.JSONArray;
+import com.github.openjson.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReachabilityMetadataMergerTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void mergesAndDeduplicatesMetadata() throws IOException {
+        Path first = write("first", "reachability-metadata.json",
+            "{\"reflection\": [{\"type\": \"a.A\", \"allDeclaredFields\": true}], \"resources\": [{\"glob\": \"a.txt\"}]}");
+        write("first", "reflect-config.json", "[{\"name\": \"a.A\"}]");
+        Path second = write("second", "reachability-metadata.json",
+            "{\"reflection\": [{\"allDeclaredFields\": true, \"type\": \"a.A\"}, {\"type\": \"b.B\"}]}");
+        write("second", "reflect-config.json", "[{\"name\": \"b.B\"}, {\"name\": \"a.A\"}]");
+        Path output = temp.resolve("merged");
+
+        assertTrue(ReachabilityMetadataMerger.merge(List.of(first, second), output).isWritten());
+
+        JSONObject metadata = new JSONObject(Files.readString(output.resolve("reachability-metadata.json")));
+        assertEquals(2, metadata.getJSONArray("reflection").length());
+        assertEquals("a.A", metadata.getJSONArray("reflection").getJSONObject(0).getString("type"));
+        assertEquals("b.B", metadata.getJSONArray("reflection").getJSONObject(1).getString("type"));
+        assertEquals(1, metadata.getJSONArray("resources").length());
+        assertEquals("[{\"name\":\"a.A\"},{\"name\":\"b.B\"}]\n", Files.readString(output.resolve("reflect-config.json")));
+    }
+
+    @Test
+    void mergesLegacyResourceLayouts() throws IOException {
+        Path legacy = write("legacy", "resource-config.json", "{\"resources\": [{\"pattern\": \"a.txt\"}], \"bundles\": [{\"name\": \"a.Messages\"}]}");
+        Path current = write("current", "resource-config.json", "{\"resources\": {\"includes\": [{\"pattern\": \"b.txt\"}], \"excludes\": [{\"pattern\": \"c.txt\"}]}}");
+        Path output = temp.resolve("merged");
+
+        ReachabilityMetadataMerger.merge(List.of(legacy, current), output);
+
+        JSONObject resources = new JSONObject(Files.readString(output.resolve("resource-config.json")));
+        assertEquals(2, resources.getJSONObject("resources").getJSONArray("includes").length());
+        assertEquals(1, resources.getJSONObject("resources").getJSONArray("excludes").length());
+        assertEquals(1, resources.getJSONArray("bundles").length());
+    }
+
+    @Test
+    void skipsMergeWhenInputsAreUnchanged() throws IOException {
+        Path first = write("first", "reflect-config.json", "[{\"name\": \"a.A\"}]");
+        Path second = write("second", "jni-config.json", "[{\"name\": \"b.B\"}]");
+        Path output = temp.resolve("merged");
+
+        assertTrue(ReachabilityMetadataMerger.merge(List.of(first, second), output).isWritten());
+        assertFalse(ReachabilityMetadataMerger.merge(List.of(first, second), output).isWritten());
+
+        assertTrue(ReachabilityMetadataMerger.merge(List.of(first), output).isWritten());
+        assertTrue(Files.exists(output.resolve("reflect-config.json")));
+        assertFalse(Files.exists(output.resolve("jni-config.json")));
+    }
+
+    @Test
+    void prunesEntriesForTypesMissingFromClasspath() throws IOException {
+        Path directory = write("lib", "reachability-metadata.json", "{"
+            + "\"reflection\": ["
+            + "{\"type\": \"com.example.Present\"},"
+            + "{\"type\": \"com.optional.Missing\"},"
+            + "{\"type\": \"java.lang.String\"},"
+            + "{\"type\": \"com.example.Present\", \"condition\": {\"typeReached\": \"com.optional.Integration\"}},"
+            + "{\"type\": {\"proxy\": [\"com.example.Api\", \"com.optional.Extension\"]}}"
+            + "],"
+            + "\"resources\": [{\"glob\": \"present.txt\"}, {\"glob\": \"optional.txt\", \"condition\": {\"typeReached\": \"com.optional.Integration\"}}]"
+            + "}");
+        write("lib", "reflect-config.json", "[{\"name\": \"[Lcom.optional.Missing;\"}, {\"name\": \"com.example.Present[]\"}, {\"name\": \"int[]\"}]");
+        Path output = temp.resolve("merged");
+
+        ReachabilityMetadataMerger.Result result = ReachabilityMetadataMerger.merge(List.of(directory), output, Set.of("com.example"));
+
+        assertEquals(5, result.getPrunedEntries());
+        JSONObject metadata = new JSONObject(Files.readString(output.resolve("reachability-metadata.json")));
+        assertEquals(2, metadata.getJSONArray("reflection").length());
+        assertEquals("com.example.Present", metadata.getJSONArray("reflection").getJSONObject(0).getString("type"));
+        assertEquals("java.lang.String", metadata.getJSONArray("reflection").getJSONObject(1).getString("type"));
+        assertEquals(1, metadata.getJSONArray("resources").length());
+        assertEquals(2, new JSONArray(Files.readString(output.resolve("reflect-config.json"))).length());
+
+        ReachabilityMetadataMerger.Result upToDate = ReachabilityMetadataMerger.merge(List.of(directory), output, Set.of("com.example"));
+        assertFalse(upToDate.isWritten());
+        assertEquals(5, upToDate.getPrunedEntries());
+        assertTrue(ReachabilityMetadataMerger.merge(List.of(directory), output, Set.of("com.example", "com.optional")).isWritten());
+    }
+
+    private Path write(String directory, String fileName, String json) throws IOException {
+        Path dir = Files.createDirectories(temp.resolve(directory));
+        Files.writeString(dir.resolve(fileName), json);
+        return dir;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal;
+
+import org.graalvm.reachability.DirectoryConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveRepositoryTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void extractsOnlySelectedDirectories() throws Exception {
+        Path archive = zipOf("/repos/repo1");
+        try (ArchiveRepository repository = ArchiveRepository.open(archive, tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+            Path extractionDirectory = repository.getRootDirectory();
+            assertEquals(tempDir.resolve("extracted").resolve(Files.size(archive) + "-" + Files.getLastModifiedTime(archive).toMillis()), extractionDirectory);
+            assertTrue(Files.isDirectory(extractionDirectory.resolve("schemas")));
+            assertFalse(Files.exists(extractionDirectory.resolve("org")));
+
+            Set<DirectoryConfiguration> configs = repository.findConfigurationsFor("org:foo:1.0");
+            assertEquals(1, configs.size());
+            DirectoryConfiguration config = configs.iterator().next();
+            assertEquals(extractionDirectory.resolve("org/foo/1.0"), config.getDirectory());
+            assertTrue(Files.isRegularFile(config.getDirectory().resolve("reflect-config.json")));
+            assertFalse(config.isOverride());
+            assertFalse(Files.exists(extractionDirectory.resolve("org/foo/1.1")));
+
+            Map<String, Set<DirectoryConfiguration>> classpath = repository.findConfigurationsForClasspath(
+                    List.of("org:foo:1.2", "org:bar:1.0"), Collections.emptySet(), Collections.emptyMap());
+            assertEquals(extractionDirectory.resolve("org/foo/1.1"), classpath.get("org:foo:1.2").iterator().next().getDirectory());
+            assertTrue(classpath.get("org:foo:1.2").iterator().next().isOverride());
+            assertTrue(classpath.get("org:bar:1.0").isEmpty());
+        }
+    }
+
+    @Test
+    void reusesPreviouslyExtractedDirectories() throws Exception {
+        Path archive = zipOf("/repos/repo1");
+        Path extractionDirectory;
+        try (ArchiveRepository repository = ArchiveRepository.open(archive, tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+            repository.findConfigurationsFor("org:foo:1.0");
+            extractionDirectory = repository.getRootDirectory();
+        }
+        Path marker = extractionDirectory.resolve("org/foo/1.0/marker.txt");
+        Files.writeString(marker, "kept");
+        try (ArchiveRepository repository = ArchiveRepository.open(archive, tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+            assertEquals(extractionDirectory, repository.getRootDirectory());
+            assertEquals(1, repository.findConfigurationsFor("org:foo:1.0").size());
+        }
+        assertTrue(Files.exists(marker));
+        try (Stream<Path> files = Files.list(extractionDirectory.resolve("org/foo"))) {
+            assertEquals(List.of("1.0"), files.map(p -> p.getFileName().toString()).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void extractsNewArchiveVersionAlongsideThePreviousOne() throws Exception {
+        Path archive = zipOf("/repos/repo1");
+        try (ArchiveRepository previous = ArchiveRepository.open(archive, tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+            Path previousConfiguration = previous.findConfigurationsFor("org:foo:1.0").iterator().next().getDirectory();
+            Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(archive).toMillis() + 2000));
+            try (ArchiveRepository repository = ArchiveRepository.open(archive, tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+                assertNotEquals(previous.getRootDirectory(), repository.getRootDirectory());
+                Path configuration = repository.findConfigurationsFor("org:foo:1.0").iterator().next().getDirectory();
+                assertTrue(configuration.startsWith(repository.getRootDirectory()));
+                assertTrue(Files.isRegularFile(configuration.resolve("reflect-config.json")));
+            }
+            // Still readable by the build which opened the previous version
+            assertTrue(Files.isRegularFile(previousConfiguration.resolve("reflect-config.json")));
+        }
+    }
+
+    @Test
+    void viewsShareTheArchiveOfTheRepository() throws Exception {
+        try (ArchiveRepository repository = ArchiveRepository.open(zipOf("/repos/repo1"), tempDir.resolve("extracted"), new FileSystemRepository.Logger() {})) {
+            ArchiveRepository view = repository.withLogger(new FileSystemRepository.Logger() {});
+            Path configuration = view.findConfigurationsFor("org:foo:1.0").iterator().next().getDirectory();
+            assertTrue(configuration.startsWith(repository.getRootDirectory()));
+            view.close();
+            assertEquals(1, repository.findConfigurationsFor("org:foo:1.1").size());
+        }
+    }
+
+    private Path zipOf(String resource) throws URISyntaxException, IOException {
+        Path source = new File(ArchiveRepositoryTest.class.getResource(resource).toURI()).toPath();
+        Path archive = tempDir.resolve(source.getFileName() + ".zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive));
+             Stream<Path> walk = Files.walk(source)) {
+            for (Path file : walk.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                zip.putNextEntry(new ZipEntry(source.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, (OutputStream) zip);
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
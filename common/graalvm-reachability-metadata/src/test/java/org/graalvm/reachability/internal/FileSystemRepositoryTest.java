@@ -43,11 +43,17 @@ package org.graalvm.reachability.internal;
 
 import org.graalvm.reachability.DirectoryConfiguration;
 import org.graalvm.reachability.Query;
+import org.graalvm.reachability.RepositoryMetrics;
+import org.graalvm.reachability.RepositoryQueryListener.Selection;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -183,6 +189,106 @@ class FileSystemRepositoryTest {
         result.isEmpty();
     }
 
+    @Test
+    void canResolveWholeClasspath() {
+        // when:
+        withRepo("repo1");
+        Map<String, Set<DirectoryConfiguration>> configs = repository.findConfigurationsForClasspath(
+                Arrays.asList("org:foo:1.0", "org:foo:1.2", "org:bar:1.0"),
+                Collections.emptySet(),
+                Collections.emptyMap());
+
+        // then:
+        assertEquals(Arrays.asList("org:foo:1.0", "org:foo:1.2", "org:bar:1.0"), new ArrayList<>(configs.keySet()));
+        new Result(configs.get("org:foo:1.0"), repoPath).hasSinglePath("org/foo/1.0");
+        new Result(configs.get("org:foo:1.2"), repoPath).hasSinglePath("org/foo/1.1");
+        new Result(configs.get("org:bar:1.0"), repoPath).isEmpty();
+
+        // when:
+        configs = repository.findConfigurationsForClasspath(
+                Arrays.asList("org:foo:1.1", "org:foo:1.2"),
+                Collections.emptySet(),
+                Collections.singletonMap("org:foo", "1.0"));
+
+        // then:
+        new Result(configs.get("org:foo:1.1"), repoPath).hasSinglePath("org/foo/1.0");
+        new Result(configs.get("org:foo:1.2"), repoPath).hasSinglePath("org/foo/1.0");
+
+        // when:
+        configs = repository.findConfigurationsForClasspath(
+                Collections.singletonList("org:foo:1.0"),
+                Collections.singleton("org:foo"),
+                Collections.emptyMap());
+
+        // then:
+        new Result(configs.get("org:foo:1.0"), repoPath).isEmpty();
+    }
+
+    @Test
+    void reportsQueryMetricsToListeners() {
+        // when:
+        withRepo("repo1");
+        RepositoryMetrics metrics = new RepositoryMetrics();
+        repository.addQueryListener(metrics);
+        repository.findConfigurationsForClasspath(
+                Arrays.asList("org:foo:1.0", "org:foo:1.2", "org:bar:1.0"),
+                Collections.emptySet(),
+                Collections.emptyMap());
+
+        // then:
+        assertEquals(1, metrics.getQueryCount());
+        assertEquals(1, metrics.getModuleHits());
+        assertEquals(1, metrics.getModuleMisses());
+        assertEquals(1, metrics.getSelectionCount(Selection.EXACT));
+        assertEquals(1, metrics.getSelectionCount(Selection.LATEST));
+        assertEquals(1, metrics.getArtifactIndexLoads());
+        assertEquals(Collections.singletonMap("org:foo:1.2", 1L), metrics.getLatestFallbacks());
+
+        // when:
+        lookup(q -> q.forArtifact(artifact -> {
+            artifact.gav("org:foo:1.2");
+            artifact.forceConfigVersion("1.0");
+        }));
+        lookup("org:foo:1.3");
+
+        // then:
+        assertEquals(3, metrics.getQueryCount());
+        assertEquals(1, metrics.getSelectionCount(Selection.FORCED));
+        assertEquals(1, metrics.getSelectionCount(Selection.MISSING));
+        assertEquals(1, metrics.getArtifactIndexLoads());
+        assertTrue(metrics.getArtifactIndexCacheHits() >= 2);
+        assertEquals(1, metrics.toJson().getJSONObject("selections").getLong("forced"));
+
+        // when:
+        repository.removeQueryListener(metrics);
+        lookup("org:foo:1.0");
+
+        // then:
+        assertEquals(3, metrics.getQueryCount());
+    }
+
+    @Test
+    void viewsReportOnlyTheirOwnQueries() {
+        // when:
+        withRepo("repo1");
+        FileSystemRepository first = repository.withLogger(new FileSystemRepository.Logger() {});
+        FileSystemRepository second = repository.withLogger(new FileSystemRepository.Logger() {});
+        RepositoryMetrics firstMetrics = new RepositoryMetrics();
+        RepositoryMetrics secondMetrics = new RepositoryMetrics();
+        first.addQueryListener(firstMetrics);
+        second.addQueryListener(secondMetrics);
+        first.findConfigurationsFor("org:foo:1.0");
+        second.findConfigurationsFor("org:foo:1.0");
+        second.findConfigurationsFor("org:foo:1.2");
+
+        // then:
+        assertEquals(1, firstMetrics.getQueryCount());
+        assertEquals(2, secondMetrics.getQueryCount());
+        assertEquals(1, firstMetrics.getArtifactIndexLoads());
+        assertEquals(0, secondMetrics.getArtifactIndexLoads());
+        assertEquals(repository.getRootDirectory(), second.getRootDirectory());
+    }
+
     private void lookup(Consumer<? super Query> builder) {
         result = new Result(repository.findConfigurationsFor(builder), repoPath);
     }
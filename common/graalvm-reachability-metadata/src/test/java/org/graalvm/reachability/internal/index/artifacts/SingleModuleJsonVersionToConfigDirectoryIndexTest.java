@@ -51,6 +51,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SingleModuleJsonVersionToConfigDirectoryIndexTest {
@@ -149,6 +150,25 @@ class SingleModuleJsonVersionToConfigDirectoryIndexTest {
         assertTrue(index.isNotForNativeImage("com.foo", "native-only", "1.0"));
     }
 
+    @Test
+    void cachesResultsPerArtifactAndMode() throws URISyntaxException {
+        withIndex("artifact-1/com.foo/bar");
+
+        Optional<DirectoryConfiguration> config = index.findConfiguration("com.foo", "bar", "2.5");
+        assertFalse(config.isPresent());
+        Optional<DirectoryConfiguration> latest = index.findLatestConfigurationFor("com.foo", "bar", "2.5");
+        assertTrue(latest.isPresent());
+        assertEquals(repoPath.resolve("2.0"), latest.get().getDirectory());
+        assertSame(latest, index.findLatestConfigurationFor("com.foo", "bar", "2.5"));
+
+        config = index.findConfiguration("com.foo", "bar", "1.1");
+        assertSame(config, index.findConfiguration("com.foo", "bar", "1.1"));
+        Optional<DirectoryConfiguration> other = index.findConfiguration("com.foo", "bar-other", "1.1");
+        assertTrue(other.isPresent());
+        assertEquals("bar-other", other.get().getArtifactId());
+        assertEquals(repoPath.resolve("1.0"), other.get().getDirectory());
+    }
+
     private void withIndex(String json) throws URISyntaxException {
         repoPath = new File(SingleModuleJsonVersionToConfigDirectoryIndexTest.class.getResource("/json/" + json).toURI()).toPath();
         index = new SingleModuleJsonVersionToConfigDirectoryIndex(repoPath);
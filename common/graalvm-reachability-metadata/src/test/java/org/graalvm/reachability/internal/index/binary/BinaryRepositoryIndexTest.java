@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.reachability.internal.index.binary;
+
+import org.graalvm.reachability.DirectoryConfiguration;
+import org.graalvm.reachability.internal.FileSystemRepository;
+import org.graalvm.reachability.internal.index.modules.FileSystemModuleToConfigDirectoryIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRepositoryIndexTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void answersModuleQueriesLikeTheFileSystemIndex() throws Exception {
+        Path repoPath = copyOf("/json/modules/multi-dirs");
+        BinaryRepositoryIndexWriter.write(repoPath);
+        BinaryRepositoryIndex index = BinaryRepositoryIndex.open(repoPath).orElseThrow();
+        FileSystemModuleToConfigDirectoryIndex fsIndex = new FileSystemModuleToConfigDirectoryIndex(repoPath);
+
+        for (String[] module : new String[][]{{"io.netty", "netty-all"}, {"io.netty", "netty-core"}, {"org", "bar"}, {"org", "missing"}}) {
+            assertEquals(fsIndex.findConfigurationDirectories(module[0], module[1]),
+                    index.findConfigurationDirectories(module[0], module[1]));
+        }
+        assertTrue(index.containsModule("org.jline", "jline"));
+        assertFalse(index.containsModule("org.jline", "jline-terminal"));
+    }
+
+    @Test
+    void recordsTransitiveRequires() throws Exception {
+        Path repoPath = copyOf("/json/modules/transitive");
+        BinaryRepositoryIndexWriter.write(repoPath);
+        BinaryRepositoryIndex index = BinaryRepositoryIndex.open(repoPath).orElseThrow();
+        FileSystemModuleToConfigDirectoryIndex fsIndex = new FileSystemModuleToConfigDirectoryIndex(repoPath);
+
+        for (String artifactId : new String[]{"spring-boot", "spring-context", "spring-core", "spring-missing"}) {
+            assertEquals(new ArrayList<>(fsIndex.findConfigurationDirectories("org.springframework", artifactId)),
+                    new ArrayList<>(index.findConfigurationDirectories("org.springframework", artifactId)));
+        }
+        assertEquals(3, index.findConfigurationDirectories("org.springframework", "spring-boot").size());
+    }
+
+    @Test
+    void repositoryUsesBinaryIndexWhenPresent() throws Exception {
+        Path repoPath = copyOf("/repos/repo1");
+        FileSystemRepository.writeBinaryIndex(repoPath);
+        assertTrue(Files.isRegularFile(repoPath.resolve(BinaryRepositoryIndex.FILE_NAME)));
+
+        // Index files are no longer read once the binary index exists
+        Files.delete(repoPath.resolve("org/foo/index.json"));
+        FileSystemRepository repository = new FileSystemRepository(repoPath);
+
+        Set<DirectoryConfiguration> configs = repository.findConfigurationsFor("org:foo:1.0");
+        assertEquals(1, configs.size());
+        assertEquals(repoPath.resolve("org/foo/1.0"), configs.iterator().next().getDirectory());
+        assertFalse(configs.iterator().next().isOverride());
+
+        configs = repository.findConfigurationsFor(q -> {
+            q.forArtifacts("org:foo:1.2");
+            q.useLatestConfigWhenVersionIsUntested();
+        });
+        assertEquals(1, configs.size());
+        assertEquals(repoPath.resolve("org/foo/1.1"), configs.iterator().next().getDirectory());
+        assertTrue(configs.iterator().next().isOverride());
+
+        assertTrue(repository.findConfigurationsFor("org:foo:1.2").isEmpty());
+        assertTrue(repository.findConfigurationsFor("org:bar:1.0").isEmpty());
+    }
+
+    @Test
+    void ignoresIndexWithUnknownFormat() throws Exception {
+        Path repoPath = copyOf("/repos/repo1");
+        Files.write(repoPath.resolve(BinaryRepositoryIndex.FILE_NAME), new byte[]{1, 2, 3, 4});
+        assertEquals(Optional.empty(), BinaryRepositoryIndex.open(repoPath));
+
+        FileSystemRepository repository = new FileSystemRepository(repoPath);
+        assertEquals(1, repository.findConfigurationsFor("org:foo:1.0").size());
+    }
+
+    private Path copyOf(String resource) throws URISyntaxException, IOException {
+        Path source = new File(BinaryRepositoryIndexTest.class.getResource(resource).toURI()).toPath();
+        Path target = tempDir.resolve(source.getFileName().toString());
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path destination = target.resolve(source.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(file, destination);
+                }
+            }
+        }
+        return target;
+    }
+}
@@ -46,12 +46,15 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FileSystemModuleToConfigDirectoryIndexTest {
     private Path repoPath;
@@ -88,6 +91,39 @@ class FileSystemModuleToConfigDirectoryIndexTest {
         assertEquals(singleton(repoPath.resolve("org/bar")), configurationDirectories);
     }
 
+    @Test
+    void expandsRequiresTransitively() throws URISyntaxException {
+        writeIndex("transitive");
+        assertEquals(asList(
+                repoPath.resolve("org.springframework/spring-boot"),
+                repoPath.resolve("org.springframework/spring-context"),
+                repoPath.resolve("org.springframework/spring-core")
+        ), new ArrayList<>(index.findConfigurationDirectories("org.springframework", "spring-boot")));
+
+        // spring-context and spring-boot require each other
+        assertEquals(asList(
+                repoPath.resolve("org.springframework/spring-context"),
+                repoPath.resolve("org.springframework/spring-core"),
+                repoPath.resolve("org.springframework/spring-boot")
+        ), new ArrayList<>(index.findConfigurationDirectories("org.springframework", "spring-context")));
+
+        assertEquals(singleton(repoPath.resolve("org.springframework/spring-core")),
+                index.findConfigurationDirectories("org.springframework", "spring-core"));
+    }
+
+    @Test
+    void answersMissesFromModuleFilter() throws URISyntaxException {
+        writeIndex("multi-dirs");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(emptySet(), index.findConfigurationDirectories("com.example", "missing-" + i));
+        }
+        assertEquals(singleton(repoPath.resolve("org/bar")), index.findConfigurationDirectories("org", "bar"));
+
+        assertEquals(1, index.getHits());
+        assertEquals(100, index.getMisses());
+        assertTrue(index.getFilteredMisses() > 90, "Expected most misses to be answered by the filter");
+    }
+
     private void writeIndex(String json) throws URISyntaxException {
         repoPath = new File(FileSystemModuleToConfigDirectoryIndexTest.class.getResource("/json/modules/" + json).toURI()).toPath();
         index = new FileSystemModuleToConfigDirectoryIndex(repoPath);
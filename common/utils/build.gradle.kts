@@ -50,6 +50,7 @@ maven {
 
 dependencies {
     implementation(libs.openjson)
+    implementation(libs.commons.compress)
     testImplementation(platform(libs.test.junit.bom))
     testImplementation(libs.test.junit.jupiter.core)
     testImplementation(libs.test.jimfs)
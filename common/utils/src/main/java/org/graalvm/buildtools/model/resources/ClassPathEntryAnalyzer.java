@@ -40,9 +40,14 @@
  */
 package org.graalvm.buildtools.model.resources;
 
+import org.graalvm.buildtools.utils.ParallelTasks;
+
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 public abstract class ClassPathEntryAnalyzer {
@@ -57,6 +62,49 @@ public abstract class ClassPathEntryAnalyzer {
         return new ClassPathDirectoryAnalyzer(file.toPath(), resourceFilter, ignoreExistingResourcesConfig);
     }
 
+    /**
+     * Analyzes classpath entries concurrently, on at most as many threads as there are
+     * available processors. Each entry is analyzed independently, and the results are
+     * returned in the order of the entries, so that merging them gives the same resources
+     * as analyzing the entries one after another.
+     *
+     * @param files the classpath entries
+     * @param resourceFilter the filter of the resources, which must be thread-safe
+     * @param ignoreExistingResourcesConfig whether to analyze jars which have a resource configuration
+     * @return the analysis of each entry, in the order of the entries
+     * @throws IOException if an entry cannot be analyzed
+     */
+    public static List<Analysis> analyzeAll(Collection<File> files, Function<String, Boolean> resourceFilter, boolean ignoreExistingResourcesConfig) throws IOException {
+        return analyzeAll(files, resourceFilter, ignoreExistingResourcesConfig, jar -> null);
+    }
+
+    /**
+     * Analyzes classpath entries concurrently, like {@link #analyzeAll(Collection, Function, boolean)},
+     * using the stored resource lists of jars when the provider has one, instead of reading the jars.
+     *
+     * @param files the classpath entries
+     * @param resourceFilter the filter of the resources, which must be thread-safe
+     * @param ignoreExistingResourcesConfig whether to analyze jars which have a resource configuration
+     * @param resourceLists the provider of the stored resource lists, which must be thread-safe
+     * @return the analysis of each entry, in the order of the entries
+     * @throws IOException if an entry cannot be analyzed
+     */
+    public static List<Analysis> analyzeAll(Collection<File> files, Function<String, Boolean> resourceFilter, boolean ignoreExistingResourcesConfig,
+                                            JarResourceList.Provider resourceLists) throws IOException {
+        List<Callable<Analysis>> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(() -> {
+                long start = System.nanoTime();
+                JarResourceList resourceList = file.getName().endsWith(".jar") && file.isFile() ? resourceLists.find(file) : null;
+                List<String> resources = resourceList != null
+                        ? resourceList.resources(resourceFilter, ignoreExistingResourcesConfig)
+                        : of(file, resourceFilter, ignoreExistingResourcesConfig).getResources();
+                return new Analysis(file, resources, System.nanoTime() - start);
+            });
+        }
+        return ParallelTasks.invokeAll(tasks, Runtime.getRuntime().availableProcessors(), "resource-detection");
+    }
+
     protected ClassPathEntryAnalyzer(Function<String, Boolean> resourceFilter) {
         this.resourceFilter = resourceFilter;
     }
@@ -78,4 +126,14 @@ public abstract class ClassPathEntryAnalyzer {
             resources.add(entry);
         }
     }
+
+    /**
+     * The resources detected in a classpath entry.
+     *
+     * @param file the classpath entry
+     * @param resources the detected resources
+     * @param durationNanos the time spent analyzing the entry, in nanoseconds
+     */
+    public record Analysis(File file, List<String> resources, long durationNanos) {
+    }
 }
@@ -43,15 +43,16 @@ package org.graalvm.buildtools.model.resources;
 import org.graalvm.buildtools.utils.FileUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
-import java.util.jar.JarInputStream;
-import java.util.zip.ZipEntry;
 
+/**
+ * Lists the resources of a jar from its central directory, so that the
+ * contents of its entries are never read.
+ */
 class JarAnalyzer extends ClassPathEntryAnalyzer {
     private final File jarFile;
     private final boolean ignoreExistingResourcesConfig;
@@ -65,24 +66,17 @@ class JarAnalyzer extends ClassPathEntryAnalyzer {
     protected List<String> initialize() throws IOException {
         if (jarFile.exists()) {
             List<String> resources = new ArrayList<>();
-            boolean hasNativeImageResourceFile = false;
-            try (JarInputStream zin = new JarInputStream(new FileInputStream(jarFile))) {
-                ZipEntry entry;
-                while ((entry = zin.getNextEntry()) != null) {
-                    hasNativeImageResourceFile = FileUtils.normalizePathSeparators(entry.getName()).startsWith(Helper.META_INF_NATIVE_IMAGE + "/")
-                            && entry.getName().endsWith("resource-config.json");
-
-                    if (hasNativeImageResourceFile && !ignoreExistingResourcesConfig) {
-                        break;
-                    }
-                    if (!entry.isDirectory()) {
-                        maybeAddResource(entry.getName(), resources);
-                    }
-                }
+            for (String entry : JarResourceList.scan(jarFile.toPath()).resources(name -> true, ignoreExistingResourcesConfig)) {
+                maybeAddResource(entry, resources);
             }
-            return hasNativeImageResourceFile && !ignoreExistingResourcesConfig ? Collections.emptyList() : resources;
+            return resources;
         } else {
             return Collections.emptyList();
         }
     }
+
+    static boolean isNativeImageResourceConfig(String name) {
+        return FileUtils.normalizePathSeparators(name).startsWith(Helper.META_INF_NATIVE_IMAGE + "/")
+                && name.endsWith("resource-config.json");
+    }
 }
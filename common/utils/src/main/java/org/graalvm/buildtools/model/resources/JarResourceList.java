@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.model.resources;
+
+import org.graalvm.buildtools.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The resource entries of a jar, independently of any resource filter, so that
+ * the analysis of a jar can be stored and reused until the jar changes. The
+ * directories which hold files that are not resources, like classes, are kept
+ * as well, so that the list describes every file of the jar. The list is written
+ * as a text file with one directory or entry name per line.
+ */
+public final class JarResourceList {
+    private static final String HEADER = "# native-build-tools jar resources v2";
+    private static final String RESOURCE_CONFIG_PREFIX = "resource-config=";
+    private static final String OTHER_DIRECTORIES_PREFIX = "other-directories=";
+    private static final String JAR_STAMP_PREFIX = "jar=";
+
+    private final boolean hasResourceConfig;
+    private final Set<String> otherDirectories;
+    private final List<String> entries;
+
+    private JarResourceList(boolean hasResourceConfig, Set<String> otherDirectories, List<String> entries) {
+        this.hasResourceConfig = hasResourceConfig;
+        this.otherDirectories = otherDirectories;
+        this.entries = entries;
+    }
+
+    /**
+     * Lists the resource entries of a jar from its central directory.
+     *
+     * @param jar the jar
+     * @return the resource list
+     * @throws IOException if the jar cannot be read
+     */
+    public static JarResourceList scan(Path jar) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                if (!entry.isDirectory()) {
+                    names.add(entry.getName());
+                }
+            }
+        }
+        return of(names);
+    }
+
+    /**
+     * Creates the list of a classpath entry from the names of all its files,
+     * in the order of the entry.
+     *
+     * @param fileNames the names of the files, using {@code /} as separator
+     * @return the resource list
+     */
+    public static JarResourceList of(Collection<String> fileNames) {
+        List<String> entries = new ArrayList<>();
+        Set<String> otherDirectories = new LinkedHashSet<>();
+        boolean hasResourceConfig = false;
+        for (String name : fileNames) {
+            hasResourceConfig |= JarAnalyzer.isNativeImageResourceConfig(name);
+            if (name.endsWith(".class") || JarFile.MANIFEST_NAME.equalsIgnoreCase(name)) {
+                int separator = name.lastIndexOf('/');
+                if (separator > 0) {
+                    otherDirectories.add(name.substring(0, separator + 1));
+                }
+            } else {
+                entries.add(name);
+            }
+        }
+        return new JarResourceList(hasResourceConfig, otherDirectories, entries);
+    }
+
+    /**
+     * Returns the resource list of a jar from a cache directory, so that looking
+     * up an entry never reads the jar. The entry of a jar is named after its
+     * location, and starts with the size and modification time of the jar, like
+     * extraction markers. A jar which changed is scanned again and its entry
+     * replaced, so that rebuilt jars don't accumulate entries. Failing to read
+     * or write the cache never fails the analysis.
+     *
+     * @param jar the jar
+     * @param cacheDirectory the cache directory
+     * @return the resource list
+     * @throws IOException if the jar cannot be read
+     */
+    public static JarResourceList cached(Path jar, Path cacheDirectory) throws IOException {
+        Path cached = cacheDirectory.resolve(cacheKey(jar) + ".txt");
+        String stamp = JAR_STAMP_PREFIX + Files.size(jar) + ":" + Files.getLastModifiedTime(jar).toMillis();
+        if (Files.isRegularFile(cached)) {
+            try {
+                List<String> lines = Files.readAllLines(cached, StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && stamp.equals(lines.get(0))) {
+                    return parse(lines.subList(1, lines.size()), cached);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // The entry is rewritten below
+            }
+        }
+        JarResourceList resources = scan(jar);
+        try {
+            FileUtils.writeAtomically(cached, file -> {
+                List<String> lines = new ArrayList<>();
+                lines.add(stamp);
+                lines.addAll(resources.lines());
+                Files.write(file, lines, StandardCharsets.UTF_8);
+            });
+        } catch (IOException e) {
+            // The jar is scanned again next time
+        }
+        return resources;
+    }
+
+    /**
+     * Reads a resource list written by {@link #write(Path)}.
+     *
+     * @param file the file
+     * @return the resource list
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a resource list
+     */
+    public static JarResourceList read(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8), file);
+    }
+
+    private static JarResourceList parse(List<String> lines, Path file) {
+        if (lines.size() < 3 || !HEADER.equals(lines.get(0)) || !lines.get(1).startsWith(RESOURCE_CONFIG_PREFIX)
+                || !lines.get(2).startsWith(OTHER_DIRECTORIES_PREFIX)) {
+            throw new IllegalArgumentException("Not a jar resource list: " + file);
+        }
+        boolean hasResourceConfig = Boolean.parseBoolean(lines.get(1).substring(RESOURCE_CONFIG_PREFIX.length()));
+        int firstEntry = 3 + Integer.parseInt(lines.get(2).substring(OTHER_DIRECTORIES_PREFIX.length()));
+        if (firstEntry > lines.size()) {
+            throw new IllegalArgumentException("Truncated jar resource list: " + file);
+        }
+        return new JarResourceList(hasResourceConfig, new LinkedHashSet<>(lines.subList(3, firstEntry)),
+                new ArrayList<>(lines.subList(firstEntry, lines.size())));
+    }
+
+    public void write(Path file) throws IOException {
+        Files.write(file, lines(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>(otherDirectories.size() + entries.size() + 3);
+        lines.add(HEADER);
+        lines.add(RESOURCE_CONFIG_PREFIX + hasResourceConfig);
+        lines.add(OTHER_DIRECTORIES_PREFIX + otherDirectories.size());
+        lines.addAll(otherDirectories);
+        lines.addAll(entries);
+        return lines;
+    }
+
+    /**
+     * Returns every resource entry of the jar, including the resources of a jar
+     * which has a resource configuration.
+     *
+     * @return the resource entries, in jar order
+     */
+    public List<String> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the directories which hold files that are not resources, like
+     * classes or the manifest.
+     *
+     * @return the directories, ending with {@code /}
+     */
+    public Set<String> getOtherDirectories() {
+        return Collections.unmodifiableSet(otherDirectories);
+    }
+
+    /**
+     * Returns the resources of the jar which match the filter, as the
+     * {@link ClassPathEntryAnalyzer analyzer} of the jar would.
+     *
+     * @param resourceFilter the resource filter
+     * @param ignoreExistingResourcesConfig whether to list the resources of a jar which has a resource configuration
+     * @return the resources, in jar order
+     */
+    public List<String> resources(Function<String, Boolean> resourceFilter, boolean ignoreExistingResourcesConfig) {
+        if (hasResourceConfig && !ignoreExistingResourcesConfig) {
+            return Collections.emptyList();
+        }
+        List<String> resources = new ArrayList<>();
+        for (String entry : entries) {
+            if (resourceFilter.apply(entry)) {
+                resources.add(entry);
+            }
+        }
+        return resources;
+    }
+
+    private static String cacheKey(Path jar) throws IOException {
+        String location = jar.toRealPath().toString();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(location.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Provides the stored resource list of a jar.
+     */
+    @FunctionalInterface
+    public interface Provider {
+        /**
+         * Returns the resource list of a jar.
+         *
+         * @param jar the jar
+         * @return the resource list, or null if the jar must be analyzed directly
+         * @throws IOException if the resource list cannot be read
+         */
+        JarResourceList find(File jar) throws IOException;
+    }
+}
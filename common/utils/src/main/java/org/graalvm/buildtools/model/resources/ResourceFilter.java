@@ -41,15 +41,67 @@
 
 package org.graalvm.buildtools.model.resources;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Decides which detected resources are kept, given exclusion regular expressions
+ * which are searched anywhere in resource names, as with {@link java.util.regex.Matcher#find()}.
+ * <p>
+ * Exclusions are usually made of literal text, {@code .} wildcards, single character
+ * classes, {@code .*} gaps and alternations of literals. Such expressions are matched
+ * without regular expressions: a trie of the literal text that each of them requires
+ * selects the few expressions which may match a name, and only those are checked.
+ * Other expressions are matched with {@link Pattern}, and decisions are always the
+ * same as searching for the alternation of all the expressions.
+ */
 public class ResourceFilter {
+    private static final int MAX_ALTERNATIVES = 32;
+
     private final Pattern excludes;
+    private final Pattern complexExcludes;
+    private final List<SimplePattern> simpleExcludes;
+    private final LiteralTrie trie;
+    private final int[] unanchoredExcludes;
 
     public ResourceFilter(Set<String> regularExpressions) {
-        excludes = regularExpressions.isEmpty() ? null : Pattern.compile(
+        excludes = regularExpressions.isEmpty() ? null : alternation(regularExpressions);
+        List<String> complex = new ArrayList<>();
+        simpleExcludes = new ArrayList<>();
+        for (String regularExpression : regularExpressions) {
+            List<SimplePattern> alternatives = SimplePattern.parse(regularExpression);
+            if (alternatives == null) {
+                complex.add(regularExpression);
+            } else {
+                simpleExcludes.addAll(alternatives);
+            }
+        }
+        complexExcludes = complex.isEmpty() ? null : alternation(complex);
+        trie = new LiteralTrie();
+        List<Integer> unanchored = new ArrayList<>();
+        for (int i = 0; i < simpleExcludes.size(); i++) {
+            String anchor = simpleExcludes.get(i).anchor();
+            if (anchor.isEmpty()) {
+                unanchored.add(i);
+            } else {
+                trie.add(anchor, i);
+            }
+        }
+        trie.build();
+        unanchoredExcludes = unanchored.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Pattern alternation(Collection<String> regularExpressions) {
+        return Pattern.compile(
                 regularExpressions.stream()
                         .map(p -> "(" + p + ")")
                         .collect(Collectors.joining("|"))
@@ -57,6 +109,355 @@ public class ResourceFilter {
     }
 
     public boolean shouldIncludeResource(String name) {
-        return excludes == null || !excludes.matcher(name).find();
+        if (excludes == null) {
+            return true;
+        }
+        if (hasSurrogates(name)) {
+            // Wildcards match whole code points, so such names are left to the regular expression engine
+            return !excludes.matcher(name).find();
+        }
+        return !matchesSimpleExclude(name) && (complexExcludes == null || !complexExcludes.matcher(name).find());
+    }
+
+    private boolean matchesSimpleExclude(String name) {
+        for (int index : unanchoredExcludes) {
+            if (simpleExcludes.get(index).find(name)) {
+                return true;
+            }
+        }
+        if (simpleExcludes.size() == unanchoredExcludes.length) {
+            return false;
+        }
+        boolean[] checked = new boolean[simpleExcludes.size()];
+        LiteralTrie.Node node = trie.root;
+        for (int i = 0; i < name.length(); i++) {
+            node = trie.next(node, name.charAt(i));
+            for (int index : node.outputs) {
+                if (!checked[index]) {
+                    checked[index] = true;
+                    if (simpleExcludes.get(index).find(name)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSurrogates(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isSurrogate(name.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * An expression made of fixed length segments separated by {@code .*} gaps.
+     * Since no element of a segment matches a line terminator, a match never spans one.
+     */
+    private static final class SimplePattern {
+        private final List<Segment> segments;
+
+        private SimplePattern(List<Segment> segments) {
+            this.segments = segments;
+        }
+
+        /**
+         * Returns the longest literal text that every match contains, or an empty string.
+         */
+        String anchor() {
+            String anchor = "";
+            for (Segment segment : segments) {
+                StringBuilder run = new StringBuilder();
+                for (char[] chars : segment.elements) {
+                    if (chars != null && chars.length == 1) {
+                        run.append(chars[0]);
+                        if (run.length() > anchor.length()) {
+                            anchor = run.toString();
+                        }
+                    } else {
+                        run.setLength(0);
+                    }
+                }
+            }
+            return anchor;
+        }
+
+        boolean find(String name) {
+            int start = 0;
+            for (int i = 0; i <= name.length(); i++) {
+                if (i == name.length() || isLineTerminator(name.charAt(i))) {
+                    if (findIn(name, start, i)) {
+                        return true;
+                    }
+                    start = i + 1;
+                }
+            }
+            return false;
+        }
+
+        private boolean findIn(String name, int from, int to) {
+            int position = from;
+            for (Segment segment : segments) {
+                int index = segment.indexIn(name, position, to);
+                if (index < 0) {
+                    return false;
+                }
+                position = index + segment.elements.size();
+            }
+            return true;
+        }
+
+        /**
+         * Parses an expression into the simple expressions of its alternatives.
+         *
+         * @return the alternatives, or null if the expression needs the regular expression engine
+         */
+        static List<SimplePattern> parse(String expression) {
+            List<List<Segment>> alternatives = new ArrayList<>();
+            alternatives.add(new ArrayList<>(Collections.singletonList(new Segment())));
+            int i = 0;
+            int length = expression.length();
+            while (i < length) {
+                char c = expression.charAt(i);
+                List<char[]> elements;
+                if (c == '.' && i + 1 < length && expression.charAt(i + 1) == '*') {
+                    if (i + 2 < length && (expression.charAt(i + 2) == '?' || expression.charAt(i + 2) == '+')) {
+                        return null;
+                    }
+                    for (List<Segment> alternative : alternatives) {
+                        alternative.add(new Segment());
+                    }
+                    i += 2;
+                    continue;
+                } else if (c == '.') {
+                    elements = Collections.singletonList(null);
+                    i++;
+                } else if (c == '\\') {
+                    if (i + 1 >= length) {
+                        return null;
+                    }
+                    char escaped = expression.charAt(i + 1);
+                    if (escaped == 'Q') {
+                        int end = expression.indexOf("\\E", i + 2);
+                        String quoted = end < 0 ? expression.substring(i + 2) : expression.substring(i + 2, end);
+                        elements = new ArrayList<>();
+                        for (char q : quoted.toCharArray()) {
+                            if (!isLiteral(q)) {
+                                return null;
+                            }
+                            elements.add(new char[] {q});
+                        }
+                        i = end < 0 ? length : end + 2;
+                    } else if (Character.isLetterOrDigit(escaped) || !isLiteral(escaped)) {
+                        return null;
+                    } else {
+                        elements = Collections.singletonList(new char[] {escaped});
+                        i += 2;
+                    }
+                } else if (c == '[') {
+                    int end = expression.indexOf(']', i + 1);
+                    if (end <= i + 1) {
+                        return null;
+                    }
+                    String set = expression.substring(i + 1, end);
+                    for (char member : set.toCharArray()) {
+                        if (!isLiteral(member) || "^-[\\&".indexOf(member) >= 0) {
+                            return null;
+                        }
+                    }
+                    elements = Collections.singletonList(set.toCharArray());
+                    i = end + 1;
+                } else if (c == '(') {
+                    int end = expression.indexOf(')', i + 1);
+                    if (end < 0) {
+                        return null;
+                    }
+                    String[] choices = expression.substring(i + 1, end).split("\\|", -1);
+                    if (alternatives.size() * choices.length > MAX_ALTERNATIVES) {
+                        return null;
+                    }
+                    for (String choice : choices) {
+                        for (char member : choice.toCharArray()) {
+                            if (!isLiteral(member) || "\\^$.|?*+()[]{}".indexOf(member) >= 0) {
+                                return null;
+                            }
+                        }
+                    }
+                    List<List<Segment>> expanded = new ArrayList<>();
+                    for (List<Segment> alternative : alternatives) {
+                        for (String choice : choices) {
+                            List<Segment> copy = new ArrayList<>();
+                            for (Segment segment : alternative) {
+                                copy.add(segment.copy());
+                            }
+                            for (char member : choice.toCharArray()) {
+                                copy.get(copy.size() - 1).elements.add(new char[] {member});
+                            }
+                            expanded.add(copy);
+                        }
+                    }
+                    alternatives = expanded;
+                    i = end + 1;
+                    continue;
+                } else if (isLiteral(c) && "^$|?*+(){}]".indexOf(c) < 0) {
+                    elements = Collections.singletonList(new char[] {c});
+                    i++;
+                } else {
+                    return null;
+                }
+                for (List<Segment> alternative : alternatives) {
+                    alternative.get(alternative.size() - 1).elements.addAll(elements);
+                }
+            }
+            List<SimplePattern> result = new ArrayList<>();
+            for (List<Segment> alternative : alternatives) {
+                List<Segment> segments = new ArrayList<>();
+                for (Segment segment : alternative) {
+                    // Gaps may be empty, so empty segments never restrict matches
+                    if (!segment.elements.isEmpty()) {
+                        segment.literal = segment.asLiteral();
+                        segments.add(segment);
+                    }
+                }
+                result.add(new SimplePattern(segments));
+            }
+            return result;
+        }
+
+        private static boolean isLiteral(char c) {
+            return !isLineTerminator(c) && !Character.isSurrogate(c);
+        }
+    }
+
+    /**
+     * A fixed length sequence of elements, each one matching either a character of a set,
+     * or, when null, any character but a line terminator.
+     */
+    private static final class Segment {
+        private final List<char[]> elements = new ArrayList<>();
+        private String literal = "";
+
+        Segment copy() {
+            Segment copy = new Segment();
+            copy.elements.addAll(elements);
+            return copy;
+        }
+
+        int indexIn(String name, int from, int to) {
+            int size = elements.size();
+            if (!literal.isEmpty()) {
+                int index = name.indexOf(literal, from);
+                return index >= 0 && index + size <= to ? index : -1;
+            }
+            for (int start = from; start + size <= to; start++) {
+                if (matchesAt(name, start)) {
+                    return start;
+                }
+            }
+            return -1;
+        }
+
+        private boolean matchesAt(String name, int start) {
+            for (int i = 0; i < elements.size(); i++) {
+                char[] chars = elements.get(i);
+                if (chars != null && !contains(chars, name.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String asLiteral() {
+            StringBuilder literal = new StringBuilder();
+            for (char[] chars : elements) {
+                if (chars == null || chars.length != 1) {
+                    return "";
+                }
+                literal.append(chars[0]);
+            }
+            return literal.toString();
+        }
+
+        private static boolean contains(char[] chars, char c) {
+            for (char candidate : chars) {
+                if (candidate == c) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * An Aho-Corasick automaton which finds all the anchors contained in a name in a single pass.
+     */
+    private static final class LiteralTrie {
+        private final Node root = new Node();
+
+        void add(String anchor, int index) {
+            Node node = root;
+            for (int i = 0; i < anchor.length(); i++) {
+                node = node.children.computeIfAbsent(anchor.charAt(i), c -> new Node());
+            }
+            node.addOutput(index);
+        }
+
+        void build() {
+            Queue<Node> queue = new ArrayDeque<>();
+            for (Node child : root.children.values()) {
+                child.failure = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node node = queue.remove();
+                for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                    Node child = entry.getValue();
+                    Node failure = node.failure;
+                    while (failure != root && !failure.children.containsKey(entry.getKey())) {
+                        failure = failure.failure;
+                    }
+                    Node target = failure.children.get(entry.getKey());
+                    child.failure = target != null ? target : root;
+                    for (int output : child.failure.outputs) {
+                        child.addOutput(output);
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+
+        Node next(Node node, char c) {
+            Node current = node;
+            while (true) {
+                Node child = current.children.get(c);
+                if (child != null) {
+                    return child;
+                }
+                if (current == root) {
+                    return root;
+                }
+                current = current.failure;
+            }
+        }
+
+        private static final class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private Node failure;
+            private int[] outputs = new int[0];
+
+            void addOutput(int index) {
+                int[] copy = new int[outputs.length + 1];
+                System.arraycopy(outputs, 0, copy, 0, outputs.length);
+                copy[outputs.length] = index;
+                outputs = copy;
+            }
+        }
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.model.resources;
+
+import org.graalvm.buildtools.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
+
+/**
+ * Collapses the detected resources of a classpath into directory patterns.
+ * Native Image matches resource patterns against the entries of every classpath
+ * entry, so a directory is only collapsed into a single pattern when every file
+ * below it, in any entry of the image classpath, is a detected resource. The
+ * included set of resources is therefore unchanged.
+ */
+public final class ResourcePatternCompactor {
+    /**
+     * The directories of the packages the JDK used to build an image may have, which
+     * is not necessarily the JDK running the build. Resource patterns are matched against
+     * the resources of JDK modules too, so these directories and their parents are never
+     * collapsed, in addition to the packages of the running JDK.
+     */
+    private static final List<String> JDK_DIRECTORY_PREFIXES = List.of(
+            "java/", "javax/", "jdk/", "sun/", "com/sun/", "com/oracle/", "org/graalvm/", "org/ietf/", "org/jcp/",
+            "org/w3c/", "org/xml/", "netscape/");
+    private static final Set<String> JDK_DIRECTORIES = jdkPackageDirectories();
+
+    private ResourcePatternCompactor() {
+    }
+
+    /**
+     * Compacts the detected resources of a classpath, from the resource lists of
+     * its entries. Jars without a stored resource list, and directories, are listed.
+     *
+     * @param resources the detected resources, in order
+     * @param classpath the image classpath, including the entries which were not analyzed
+     * @param resourceLists provides the stored resource lists of jars
+     * @return the resource patterns, in the order of the detected resources
+     * @throws IOException if an entry of the classpath cannot be read
+     */
+    public static List<String> compactForClasspath(Collection<String> resources, Collection<File> classpath,
+                                                   JarResourceList.Provider resourceLists) throws IOException {
+        List<JarResourceList> listings = new ArrayList<>(classpath.size());
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                listings.add(listDirectory(file.toPath()));
+            } else if (file.isFile()) {
+                JarResourceList resourceList = resourceLists.find(file);
+                if (resourceList == null) {
+                    try {
+                        resourceList = JarResourceList.scan(file.toPath());
+                    } catch (ZipException e) {
+                        // Not an archive, so it doesn't provide resources
+                        continue;
+                    }
+                }
+                listings.add(resourceList);
+            }
+        }
+        return compact(resources, listings);
+    }
+
+    /**
+     * Compacts the detected resources of a classpath.
+     *
+     * @param resources the detected resources, in order
+     * @param classpath the resource lists of every entry of the image classpath, including
+     * the entries which were not analyzed
+     * @return the resource patterns, in the order of the detected resources
+     */
+    public static List<String> compact(Collection<String> resources, Collection<JarResourceList> classpath) {
+        Set<String> detected = new LinkedHashSet<>(resources);
+        Map<String, int[]> detectedCounts = new HashMap<>();
+        for (String resource : detected) {
+            // Line terminators aren't matched by '.*', so their directories are never collapsed
+            if (!hasLineTerminator(resource)) {
+                countDirectories(resource, detectedCounts, null);
+            }
+        }
+        // Only the files below a directory which holds detected resources are counted
+        Set<String> files = new HashSet<>();
+        Set<String> blocked = new HashSet<>();
+        for (JarResourceList resourceList : classpath) {
+            for (String name : resourceList.getEntries()) {
+                if (detectedCounts.containsKey(topLevelDirectoryOf(name))) {
+                    files.add(name);
+                }
+            }
+            for (String directory : resourceList.getOtherDirectories()) {
+                if (detectedCounts.containsKey(topLevelDirectoryOf(directory))) {
+                    for (int i = directory.indexOf('/'); i > 0; i = directory.indexOf('/', i + 1)) {
+                        blocked.add(directory.substring(0, i + 1));
+                    }
+                }
+            }
+        }
+        Map<String, int[]> fileCounts = new HashMap<>();
+        for (String file : files) {
+            countDirectories(file, fileCounts, detectedCounts.keySet());
+        }
+        List<String> patterns = new ArrayList<>();
+        Set<String> collapsed = new HashSet<>();
+        for (String resource : detected) {
+            String directory = collapsibleDirectoryOf(resource, detectedCounts, fileCounts, blocked);
+            if (directory == null) {
+                patterns.add(Pattern.quote(resource));
+            } else if (collapsed.add(directory)) {
+                patterns.add(Pattern.quote(directory) + ".*");
+            }
+        }
+        return patterns;
+    }
+
+    private static String topLevelDirectoryOf(String name) {
+        int separator = name.indexOf('/');
+        return separator > 0 ? name.substring(0, separator + 1) : "";
+    }
+
+    private static void countDirectories(String name, Map<String, int[]> counts, Set<String> directories) {
+        for (int i = name.indexOf('/'); i > 0; i = name.indexOf('/', i + 1)) {
+            String directory = name.substring(0, i + 1);
+            if (directories != null && !directories.contains(directory)) {
+                return;
+            }
+            counts.computeIfAbsent(directory, d -> new int[1])[0]++;
+        }
+    }
+
+    private static String collapsibleDirectoryOf(String resource, Map<String, int[]> detectedCounts, Map<String, int[]> fileCounts,
+                                                 Set<String> blocked) {
+        for (int i = resource.indexOf('/'); i > 0; i = resource.indexOf('/', i + 1)) {
+            String directory = resource.substring(0, i + 1);
+            int[] detected = detectedCounts.get(directory);
+            int[] files = fileCounts.get(directory);
+            if (detected == null || files == null) {
+                return null;
+            }
+            if (detected[0] > 1 && detected[0] == files[0] && !blocked.contains(directory) && !isJdkDirectory(directory)) {
+                return directory;
+            }
+        }
+        return null;
+    }
+
+    // A pattern for a directory of the JDK would also match the resources of its modules
+    private static boolean isJdkDirectory(String directory) {
+        if (JDK_DIRECTORIES.contains(directory)) {
+            return true;
+        }
+        for (String prefix : JDK_DIRECTORY_PREFIXES) {
+            if (directory.startsWith(prefix) || prefix.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasLineTerminator(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JarResourceList listDirectory(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return JarResourceList.of(paths.filter(Files::isRegularFile)
+                    .map(path -> FileUtils.normalizePathSeparators(root.relativize(path).toString()))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private static Set<String> jdkPackageDirectories() {
+        Set<String> directories = new HashSet<>();
+        for (ModuleReference module : ModuleFinder.ofSystem().findAll()) {
+            for (String packageName : module.descriptor().packages()) {
+                String directory = packageName.replace('.', '/') + "/";
+                for (int i = directory.indexOf('/'); i > 0; i = directory.indexOf('/', i + 1)) {
+                    directories.add(directory.substring(0, i + 1));
+                }
+            }
+        }
+        return Collections.unmodifiableSet(directories);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts zip, tar.gz and tar.bz2 archives, writing files on a bounded
+ * pool of threads. Zip entries are inflated in parallel from the central
+ * directory of the archive. Tar archives can only be read sequentially, so
+ * their entries are read on the calling thread and written by the pool.
+ */
+final class ArchiveExtractor {
+    private static final int THREADS = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private final Path archive;
+    private final Path destination;
+    private final Consumer<String> skippedEntryLogger;
+
+    ArchiveExtractor(Path archive, Path destination, Consumer<String> skippedEntryLogger) {
+        this.archive = archive;
+        this.destination = destination;
+        this.skippedEntryLogger = skippedEntryLogger;
+    }
+
+    static boolean isSupported(Path archive) {
+        String name = archive.toString().toLowerCase();
+        return name.endsWith(".zip") || name.endsWith(".tar.gz") || name.endsWith(".tar.bz2");
+    }
+
+    void extract() throws IOException {
+        Files.createDirectories(destination);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(THREADS * 16), runnable -> {
+            Thread thread = new Thread(runnable, "archive-extractor");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            if (FileUtils.isZip(archive)) {
+                extractZip(executor, writes);
+            } else {
+                extractTar(executor, writes);
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void extractZip(ThreadPoolExecutor executor, List<Future<?>> writes) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<ZipEntry> files = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                Optional<Path> target = sanitizePath(entry.getName());
+                if (target.isEmpty()) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target.get());
+                } else {
+                    files.add(entry);
+                }
+            }
+            for (ZipEntry entry : files) {
+                Path target = sanitizePath(entry.getName()).orElseThrow();
+                writes.add(executor.submit(() -> {
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        write(in, target);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            // The zip file must stay open until all entries have been inflated
+            for (Future<?> write : writes) {
+                try {
+                    write.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    // Reported by the caller
+                    break;
+                }
+            }
+        }
+    }
+
+    private void extractTar(ThreadPoolExecutor executor, List<Future<?>> writes) throws IOException {
+        try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(archive));
+             InputStream decompressed = archive.toString().toLowerCase().endsWith(".tar.bz2")
+                     ? new BZip2CompressorInputStream(fileStream)
+                     : new GZIPInputStream(fileStream);
+             TarArchiveInputStream tar = new TarArchiveInputStream(decompressed)) {
+            for (TarArchiveEntry entry = tar.getNextEntry(); entry != null; entry = tar.getNextEntry()) {
+                Optional<Path> target = sanitizePath(entry.getName());
+                if (target.isEmpty()) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target.get());
+                } else if (entry.isFile()) {
+                    byte[] content = tar.readAllBytes();
+                    writes.add(executor.submit(() -> {
+                        try {
+                            createParentDirectories(target.get());
+                            Files.write(target.get(), content);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                }
+            }
+        }
+    }
+
+    private static void write(InputStream in, Path target) throws IOException {
+        createParentDirectories(target);
+        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void createParentDirectories(Path target) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null && !Files.isDirectory(parent)) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    private Optional<Path> sanitizePath(String entryName) {
+        Path normalized = destination.resolve(entryName).normalize();
+        if (normalized.startsWith(destination)) {
+            return Optional.of(normalized);
+        }
+        skippedEntryLogger.accept("Wrong entry " + entryName + " in " + archive);
+        return Optional.empty();
+    }
+}
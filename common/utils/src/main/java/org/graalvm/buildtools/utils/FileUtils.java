@@ -48,20 +48,24 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class FileUtils {
 
     public static final int CONNECT_TIMEOUT = 5000;
     public static final int READ_TIMEOUT = 5000;
+    public static final String EXTRACTION_MARKER = ".nbt-extracted";
 
     public static String normalizePathSeparators(String path) {
         return path.replace('\\', '/');
@@ -112,48 +116,174 @@ public final class FileUtils {
         return Optional.empty();
     }
 
+    /**
+     * Extracts a zip, tar.gz or tar.bz2 archive into the destination directory.
+     * Entries which would be extracted outside the destination are skipped
+     * and reported.
+     *
+     * @param archive the archive
+     * @param destination the destination directory
+     * @param errorLogger receives extraction errors
+     */
     public static void extract(Path archive, Path destination, Consumer<String> errorLogger) {
-        if (isZip(archive)) {
-            try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(archive.toFile().toPath()))) {
-                for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
-                    Optional<Path> sanitizedPath = sanitizePath(entry, destination);
-                    if (sanitizedPath.isPresent()) {
-                        Path zipEntryPath = sanitizedPath.get();
-                        if (entry.isDirectory()) {
-                            Files.createDirectories(zipEntryPath);
-                        } else {
-                            if (zipEntryPath.getParent() != null && !Files.exists(zipEntryPath.getParent())) {
-                                Files.createDirectories(zipEntryPath.getParent());
-                            }
-
-                            Files.copy(zis, zipEntryPath, StandardCopyOption.REPLACE_EXISTING);
-                        }
-                    } else {
-                        errorLogger.accept("Wrong entry " + entry.getName() + " in " + archive);
-                    }
-                    zis.closeEntry();
-                }
+        extract(archive, destination, errorLogger, errorLogger);
+    }
+
+    private static void extract(Path archive, Path destination, Consumer<String> errorLogger, Consumer<String> skippedEntryLogger) {
+        if (ArchiveExtractor.isSupported(archive)) {
+            try {
+                new ArchiveExtractor(archive, destination, skippedEntryLogger).extract();
             } catch (IOException e) {
                 errorLogger.accept("Failed to extract " + archive + ": " + e.getMessage());
             }
         } else {
-            errorLogger.accept("Unsupported archive format: " + archive + ". Only ZIP files are supported");
+            errorLogger.accept("Unsupported archive format: " + archive + ". Only ZIP, tar.gz and tar.bz2 files are supported");
         }
     }
 
-    public static boolean isZip(Path archive) {
-        return archive.toString().toLowerCase().endsWith(".zip");
+    /**
+     * Extracts an archive into a temporary sibling of the destination, then
+     * publishes it with an atomic rename. The published directory contains
+     * a completion marker which records the size and modification time of
+     * the archive, so that a destination which was extracted from the same
+     * archive is reused, and an interrupted or outdated extraction is
+     * replaced. Entries which would be extracted outside the destination
+     * are skipped and reported, like with {@link #extract(Path, Path, Consumer)},
+     * without failing the extraction.
+     *
+     * @param archive the archive
+     * @param destination the destination directory
+     * @param errorLogger receives extraction errors
+     * @return true if the destination contains the extracted archive
+     */
+    public static boolean extractAtomically(Path archive, Path destination, Consumer<String> errorLogger) {
+        if (isExtracted(archive, destination)) {
+            return true;
+        }
+        Path temporary = destination.resolveSibling(destination.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            boolean[] failed = new boolean[1];
+            extract(archive, temporary, message -> {
+                failed[0] = true;
+                errorLogger.accept(message);
+            }, errorLogger);
+            if (failed[0]) {
+                deleteRecursively(temporary);
+                return false;
+            }
+            Files.writeString(temporary.resolve(EXTRACTION_MARKER), extractionStamp(archive));
+            if (Files.exists(destination)) {
+                if (isExtracted(archive, destination)) {
+                    // Extracted concurrently by another build
+                    deleteRecursively(temporary);
+                    return true;
+                }
+                Path stale = destination.resolveSibling(destination.getFileName() + "." + UUID.randomUUID() + ".stale");
+                Files.move(destination, stale, StandardCopyOption.ATOMIC_MOVE);
+                deleteRecursively(stale);
+            }
+            try {
+                Files.move(temporary, destination, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                if (!isExtracted(archive, destination)) {
+                    throw e;
+                }
+                deleteRecursively(temporary);
+            }
+            return true;
+        } catch (IOException e) {
+            errorLogger.accept("Failed to extract " + archive + ": " + e.getMessage());
+            return false;
+        }
     }
 
-    private static Optional<Path> sanitizePath(ZipEntry entry, Path destination) {
-        Path normalized = destination.resolve(entry.getName()).normalize();
-        if (normalized.startsWith(destination)) {
-            return Optional.of(normalized);
-        } else {
-            return Optional.empty();
+    /**
+     * Returns true if the destination directory was completely extracted
+     * from the archive by {@link #extractAtomically(Path, Path, Consumer)}.
+     *
+     * @param archive the archive
+     * @param destination the destination directory
+     * @return true if the destination can be reused
+     */
+    public static boolean isExtracted(Path archive, Path destination) {
+        Path marker = destination.resolve(EXTRACTION_MARKER);
+        try {
+            return Files.isRegularFile(marker) && Files.readString(marker).equals(extractionStamp(archive));
+        } catch (IOException e) {
+            return false;
         }
     }
 
+    private static String extractionStamp(Path archive) throws IOException {
+        return Files.size(archive) + ":" + Files.getLastModifiedTime(archive).toMillis();
+    }
+
+    /**
+     * Deletes a file or a directory with all its contents, if it exists.
+     *
+     * @param path the file or directory to delete
+     * @throws IOException if an entry cannot be deleted
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path entry : walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    /**
+     * Moves a file over the target, atomically when the file system supports it,
+     * so that readers of the target never see a partially written file.
+     *
+     * @param source the file to move
+     * @param target the target file, replaced if it exists
+     * @throws IOException if the file cannot be moved
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a file into a temporary sibling of the target, then moves it over the
+     * target with {@link #moveAtomically(Path, Path)}. The temporary file is deleted
+     * if writing fails.
+     *
+     * @param target the file to write
+     * @param writer writes the contents into the temporary file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAtomically(Path target, PathWriter writer) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            writer.write(temporaryFile);
+            moveAtomically(temporaryFile, target);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Writes the contents of a file, see {@link #writeAtomically(Path, PathWriter)}.
+     */
+    @FunctionalInterface
+    public interface PathWriter {
+        void write(Path file) throws IOException;
+    }
+
+    public static boolean isZip(Path archive) {
+        return archive.toString().toLowerCase().endsWith(".zip");
+    }
+
     public static String hashFor(URI uri) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-1");
@@ -68,27 +68,49 @@ public class JarScanner {
         try (Writer fileWriter = Files.newBufferedWriter(outputFile); PrintWriter writer = new PrintWriter(fileWriter)) {
             Set<String> packageList = new TreeSet<>();
             try (FileSystem jarFileSystem = FileSystems.newFileSystem(inputJar, (ClassLoader) null)) {
-                Path root = jarFileSystem.getPath("/");
-                try (Stream<Path> files = Files.walk(root)) {
-                    files.forEach(path -> {
-                        if (path.toString().endsWith(".class") && !path.toString().contains("META-INF")) {
-                            Path relativePath = root.relativize(path);
-                            String className = relativePath.toString()
-                                .replace('/', '.')
-                                .replace('\\', '.')
-                                .replaceAll("[.]class$", "");
-                            var lastDot = className.lastIndexOf(".");
-                            if (lastDot > 0) {
-                                var packageName = className.substring(0, lastDot);
-                                packageList.add(packageName);
-                            }
-                        }
-                    });
-                }
+                collectPackages(jarFileSystem.getPath("/"), packageList);
             }
             writer.println("packages=" + String.join(",", packageList));
         } catch (IOException ex) {
             throw new RuntimeException("Unable to write JAR analysis", ex);
         }
     }
+
+    /**
+     * Returns the packages of the classes of a classpath entry, which may either
+     * be a jar or a directory. Other files have no packages.
+     * @param classpathEntry the jar or directory
+     * @return the sorted set of packages
+     * @throws IOException if the entry cannot be read
+     */
+    public static Set<String> scanPackages(Path classpathEntry) throws IOException {
+        Set<String> packageList = new TreeSet<>();
+        if (Files.isDirectory(classpathEntry)) {
+            collectPackages(classpathEntry, packageList);
+        } else if (Files.isRegularFile(classpathEntry) && classpathEntry.getFileName().toString().endsWith(".jar")) {
+            try (FileSystem jarFileSystem = FileSystems.newFileSystem(classpathEntry, (ClassLoader) null)) {
+                collectPackages(jarFileSystem.getPath("/"), packageList);
+            }
+        }
+        return packageList;
+    }
+
+    private static void collectPackages(Path root, Set<String> packageList) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.forEach(path -> {
+                if (path.toString().endsWith(".class") && !path.toString().contains("META-INF")) {
+                    Path relativePath = root.relativize(path);
+                    String className = relativePath.toString()
+                        .replace('/', '.')
+                        .replace('\\', '.')
+                        .replaceAll("[.]class$", "");
+                    var lastDot = className.lastIndexOf(".");
+                    if (lastDot > 0) {
+                        var packageName = className.substring(0, lastDot);
+                        packageList.add(packageName);
+                    }
+                }
+            });
+        }
+    }
 }
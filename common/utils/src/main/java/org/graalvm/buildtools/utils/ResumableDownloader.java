@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Downloads files into a cache, so that an interrupted or corrupted
+ * download never poisons it.
+ * <p>
+ * The file is downloaded into a {@code .part} sibling which is resumed with
+ * an HTTP range request when a previous attempt was interrupted, verified
+ * against the SHA-256 checksum published next to it ({@code <url>.sha256})
+ * or supplied explicitly, and only then atomically moved to its final
+ * location. The {@code ETag} and {@code Last-Modified} validators of the
+ * response are recorded in a {@code .download} sibling, so that a cached
+ * file can be revalidated with a conditional request instead of being
+ * downloaded again. A file found at the target without a recorded state,
+ * for example left by an older version, is verified against the checksum
+ * before it is reused.
+ */
+public final class ResumableDownloader {
+    static final String PARTIAL_SUFFIX = ".part";
+    static final String STATE_SUFFIX = ".download";
+
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean revalidate;
+    private final String expectedSha256;
+    private final Consumer<String> logger;
+
+    private ResumableDownloader(boolean revalidate, String expectedSha256, Consumer<String> logger) {
+        this.revalidate = revalidate;
+        this.expectedSha256 = expectedSha256;
+        this.logger = logger;
+    }
+
+    public static ResumableDownloader get() {
+        return new ResumableDownloader(false, null, message -> { });
+    }
+
+    /**
+     * Whether a file which was already downloaded must be revalidated with
+     * a conditional request. This should only be enabled for URLs whose
+     * content may change. When the server cannot be reached, the cached file
+     * is used.
+     *
+     * @param revalidate true to revalidate cached files
+     * @return a downloader with the specified revalidation behavior
+     */
+    public ResumableDownloader withRevalidation(boolean revalidate) {
+        return new ResumableDownloader(revalidate, expectedSha256, logger);
+    }
+
+    /**
+     * The SHA-256 checksum the downloaded file must have. When not set, the
+     * checksum published next to the file is used, if there's one.
+     *
+     * @param sha256 the hexadecimal SHA-256 checksum
+     * @return a downloader verifying the specified checksum
+     */
+    public ResumableDownloader withExpectedSha256(String sha256) {
+        return new ResumableDownloader(revalidate, sha256, logger);
+    }
+
+    /**
+     * The logger used to report what the downloader does.
+     *
+     * @param logger the logger
+     * @return a downloader using the specified logger
+     */
+    public ResumableDownloader withLogger(Consumer<String> logger) {
+        return new ResumableDownloader(revalidate, expectedSha256, logger);
+    }
+
+    /**
+     * Downloads a file, unless it was already completely downloaded to the target.
+     * {@code file:} URLs are returned as is.
+     *
+     * @param url the URL of the file
+     * @param target the location of the downloaded file
+     * @return the downloaded file
+     * @throws IOException if the download failed, in which case a partial download is kept to be resumed
+     */
+    public Path download(URL url, Path target) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid file URL " + url, e);
+            }
+        }
+        Path absoluteTarget = target.toAbsolutePath();
+        synchronized (LOCKS.computeIfAbsent(absoluteTarget, t -> new Object())) {
+            Path parent = absoluteTarget.getParent();
+            Files.createDirectories(parent);
+            try (FileChannel lockChannel = FileChannel.open(sibling(absoluteTarget, ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockChannel.lock()) {
+                return downloadLocked(url, absoluteTarget);
+            }
+        }
+    }
+
+    private Path downloadLocked(URL url, Path target) throws IOException {
+        Path stateFile = sibling(target, STATE_SUFFIX);
+        Properties state = readState(stateFile);
+        Checksum checksum = new Checksum(url);
+        if (Files.isRegularFile(target)) {
+            if ("true".equals(state.getProperty("complete"))) {
+                if (revalidate) {
+                    try {
+                        revalidateCached(url, target, state, stateFile);
+                    } catch (IOException e) {
+                        logger.accept("Unable to revalidate " + url + ", using the cached file: " + e.getMessage());
+                    }
+                }
+                return target;
+            }
+            if (!Files.exists(stateFile)) {
+                // Files downloaded by older versions have no state, and may have been truncated
+                return verifyUnrecorded(url, target, stateFile, checksum);
+            }
+        }
+        return fetch(url, target, state, stateFile, checksum);
+    }
+
+    private Path verifyUnrecorded(URL url, Path target, Path stateFile, Checksum checksum) throws IOException {
+        String expected = checksum.get();
+        if (expected == null) {
+            try {
+                return fetch(url, target, new Properties(), stateFile, checksum);
+            } catch (IOException e) {
+                logger.accept("Unable to verify " + target + " against " + url + ", using the cached file: " + e.getMessage());
+                return target;
+            }
+        }
+        String actual = sha256Of(target);
+        if (!expected.equalsIgnoreCase(actual)) {
+            logger.accept("Downloading " + url + " again, because " + target + " doesn't match its checksum");
+            return fetch(url, target, new Properties(), stateFile, checksum);
+        }
+        Properties verified = new Properties();
+        verified.setProperty("sha256", actual);
+        verified.setProperty("complete", "true");
+        writeState(stateFile, verified);
+        return target;
+    }
+
+    private Path fetch(URL url, Path target, Properties state, Path stateFile, Checksum checksum) throws IOException {
+        Path partial = sibling(target, PARTIAL_SUFFIX);
+        HttpURLConnection connection = open(url);
+        long offset = Files.isRegularFile(partial) ? Files.size(partial) : 0;
+        String validator = state.getProperty("etag", state.getProperty("lastModified"));
+        if (offset > 0 && validator != null) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+            connection.setRequestProperty("If-Range", validator);
+        } else {
+            offset = 0;
+        }
+        try {
+            int code = connection.getResponseCode();
+            if (code == 416) {
+                // The partial file doesn't match the remote file anymore
+                connection.disconnect();
+                Files.deleteIfExists(partial);
+                connection = open(url);
+                offset = 0;
+                code = connection.getResponseCode();
+            }
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                offset = 0;
+            }
+            if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Failed to download from " + url + ": " + code + " " + connection.getResponseMessage());
+            }
+            receive(url, connection, partial, offset, stateFile, checksum);
+        } finally {
+            connection.disconnect();
+        }
+        FileUtils.moveAtomically(partial, target);
+        Properties completed = readState(stateFile);
+        completed.setProperty("complete", "true");
+        writeState(stateFile, completed);
+        return target;
+    }
+
+    private void revalidateCached(URL url, Path target, Properties state, Path stateFile) throws IOException {
+        HttpURLConnection connection = open(url);
+        String etag = state.getProperty("etag");
+        String lastModified = state.getProperty("lastModified");
+        if (etag != null) {
+            connection.setRequestProperty("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            connection.setRequestProperty("If-Modified-Since", lastModified);
+        }
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                logger.accept(url + " is up to date");
+                return;
+            }
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException(code + " " + connection.getResponseMessage());
+            }
+            Path partial = sibling(target, PARTIAL_SUFFIX);
+            receive(url, connection, partial, 0, stateFile, new Checksum(url));
+            FileUtils.moveAtomically(partial, target);
+        } finally {
+            connection.disconnect();
+        }
+        Properties completed = readState(stateFile);
+        completed.setProperty("complete", "true");
+        writeState(stateFile, completed);
+    }
+
+    private void receive(URL url, HttpURLConnection connection, Path partial, long offset, Path stateFile, Checksum checksum) throws IOException {
+        Properties state = new Properties();
+        String etag = connection.getHeaderField("ETag");
+        String lastModified = connection.getHeaderField("Last-Modified");
+        if (etag != null) {
+            state.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            state.setProperty("lastModified", lastModified);
+        }
+        // Validators are recorded first, so that an interrupted download can be resumed
+        writeState(stateFile, state);
+        long expectedLength = expectedLength(connection, offset);
+        MessageDigest digest = sha256();
+        if (offset > 0) {
+            logger.accept("Resuming download of " + url + " at byte " + offset);
+            try (InputStream existing = Files.newInputStream(partial)) {
+                update(digest, existing, null);
+            }
+        }
+        try (InputStream in = connection.getInputStream();
+             OutputStream out = offset > 0
+                     ? Files.newOutputStream(partial, StandardOpenOption.APPEND)
+                     : Files.newOutputStream(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            update(digest, in, out);
+        }
+        long size = Files.size(partial);
+        if (expectedLength >= 0 && size != expectedLength) {
+            throw new IOException("Incomplete download from " + url + ": received " + size + " of " + expectedLength + " bytes");
+        }
+        String actual = toHex(digest.digest());
+        String expected = checksum.get();
+        if (expected != null && !expected.equalsIgnoreCase(actual)) {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(stateFile);
+            throw new IOException("Checksum mismatch for " + url + ": expected " + expected + " but was " + actual);
+        }
+        state.setProperty("sha256", actual);
+        writeState(stateFile, state);
+    }
+
+    private String publishedSha256(URL url) {
+        try {
+            HttpURLConnection connection = open(new URL(url, url.getPath() + ".sha256"));
+            try {
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    return null;
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    String content = new String(in.readNBytes(1024), StandardCharsets.US_ASCII).trim();
+                    String checksum = content.split("\\s+")[0];
+                    return checksum.matches("[0-9a-fA-F]{64}") ? checksum : null;
+                }
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            logger.accept("Unable to fetch the checksum of " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sha256Of(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            update(digest, in, null);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * The checksum a download must have. The checksum published next to the file is
+     * only requested when no checksum was supplied, and at most once per download.
+     */
+    private final class Checksum {
+        private final URL url;
+        private boolean resolved;
+        private String value;
+
+        private Checksum(URL url) {
+            this.url = url;
+        }
+
+        String get() {
+            if (!resolved) {
+                value = expectedSha256 != null ? expectedSha256 : publishedSha256(url);
+                resolved = true;
+            }
+            return value;
+        }
+    }
+
+    private static long expectedLength(URLConnection connection, long offset) {
+        String contentRange = connection.getHeaderField("Content-Range");
+        if (offset > 0 && contentRange != null) {
+            int slash = contentRange.lastIndexOf('/');
+            if (slash > 0 && !contentRange.endsWith("*")) {
+                try {
+                    return Long.parseLong(contentRange.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+        long length = connection.getContentLengthLong();
+        return length >= 0 ? offset + length : -1;
+    }
+
+    private static HttpURLConnection open(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException("Unsupported URL " + url);
+        }
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setRequestMethod("GET");
+        http.setConnectTimeout(FileUtils.CONNECT_TIMEOUT);
+        http.setReadTimeout(FileUtils.READ_TIMEOUT);
+        return http;
+    }
+
+    private static void update(MessageDigest digest, InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static Properties readState(Path stateFile) throws IOException {
+        Properties state = new Properties();
+        if (Files.isRegularFile(stateFile)) {
+            try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+                state.load(reader);
+            }
+        }
+        return state;
+    }
+
+    private static void writeState(Path stateFile, Properties state) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            state.store(writer, null);
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return hex.toString();
+    }
+}
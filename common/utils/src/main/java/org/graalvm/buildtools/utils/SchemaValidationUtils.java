@@ -44,11 +44,17 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Utilities for validating GraalVM reachability metadata repository schemas.
@@ -84,6 +90,17 @@ public final class SchemaValidationUtils {
         }
     }
 
+    private static final String REQUIRED_SCHEMAS_DESCRIPTOR = Arrays.stream(REQUIRED_SCHEMAS)
+            .map(schema -> schema.dirGlob + "@" + schema.requiredMajorVersion)
+            .collect(Collectors.joining(","));
+
+    /**
+     * Name of the file recording the validations which passed for an extracted repository.
+     */
+    private static final String VALIDATION_STAMP = ".nbt-schema-validation";
+
+    private static final Set<String> VALIDATED = ConcurrentHashMap.newKeySet();
+
     private static final String REACHABILITY_METADATA_SCHEMA = "reachability-metadata-schema";
     private static final String REACHABILITY_METADATA_SCHEMA_PATH = "lib/svm/schemas/reachability-metadata-schema.json";
 
@@ -119,9 +136,22 @@ public final class SchemaValidationUtils {
      * or if the directory contains more files than are supported by this version of
      * Native Build Tools, this method throws an {@link IllegalStateException} with a detailed message.
      *
+     * Successful validations are memoized per repository, see {@link #isValidated(Path, String)}.
+     *
      * @param repoRoot the root path of the exploded repository
      */
     public static void validateSchemas(Path repoRoot) {
+        String key = validationKey(repoRoot, "schemas " + REQUIRED_SCHEMAS_DESCRIPTOR);
+        if (key != null && isValidated(repoRoot, key)) {
+            return;
+        }
+        doValidateSchemas(repoRoot);
+        if (key != null) {
+            markValidated(repoRoot, key);
+        }
+    }
+
+    private static void doValidateSchemas(Path repoRoot) {
         Path schemasDir = repoRoot.resolve("schemas");
 
         if (!Files.isDirectory(schemasDir)) {
@@ -235,7 +265,29 @@ public final class SchemaValidationUtils {
         if (shouldSkipReachabilityMetadataSchemaValidation(majorJDKVersion, osName, osArch)) {
             return;
         }
+        String key = null;
+        if (nativeImageExecutable != null && Files.isRegularFile(nativeImageExecutable)) {
+            try {
+                key = validationKey(repoRoot, REACHABILITY_METADATA_SCHEMA + " " + nativeImageExecutable.toAbsolutePath()
+                        + " " + Files.getLastModifiedTime(nativeImageExecutable).toMillis());
+            } catch (IOException e) {
+                // Not memoized
+            }
+        }
+        if (key != null && isValidated(repoRoot, key)) {
+            return;
+        }
+        if (doValidateReachabilityMetadataSchema(repoRoot, majorJDKVersion, nativeImageExecutable) && key != null) {
+            markValidated(repoRoot, key);
+        }
+    }
 
+    /**
+     * Performs the reachability-metadata schema validation.
+     *
+     * @return true if the validation passed without warnings
+     */
+    private static boolean doValidateReachabilityMetadataSchema(Path repoRoot, int majorJDKVersion, Path nativeImageExecutable) {
         Path schemasDir = repoRoot.resolve("schemas");
         if (!Files.isDirectory(schemasDir)) {
             String message = "The configured GraalVM reachability metadata repository at "
@@ -323,6 +375,7 @@ public final class SchemaValidationUtils {
                 + repoRoot.toAbsolutePath()
                 + " does not.\nPlease update your reachability metadata repository to a newer version.";
             System.err.println(message);
+            return false;
         } else if (schemaExistsInMetadataRepo && schemaExistsInGraal) {
             String repoVersion = readReachabilityMetadataSchemaVersion(metadataRepoSchemaFile);
             String graalVersion = readReachabilityMetadataSchemaVersion(graalSchemaFile);
@@ -338,6 +391,72 @@ public final class SchemaValidationUtils {
                 }
             }
         }
+        return true;
+    }
+
+    /**
+     * Returns true if the given validation already passed for the repository,
+     * either earlier in this JVM or, for repositories extracted by
+     * {@link FileUtils#extractAtomically(Path, Path, java.util.function.Consumer)},
+     * in an earlier build, as recorded by a stamp file in the repository.
+     */
+    private static boolean isValidated(Path repoRoot, String key) {
+        if (VALIDATED.contains(repoRoot.toUri() + " " + key)) {
+            return true;
+        }
+        Path stamp = repoRoot.resolve(VALIDATION_STAMP);
+        try {
+            if (Files.isRegularFile(stamp) && Files.readAllLines(stamp).contains(key)) {
+                VALIDATED.add(repoRoot.toUri() + " " + key);
+                return true;
+            }
+        } catch (IOException e) {
+            // Validate again
+        }
+        return false;
+    }
+
+    private static void markValidated(Path repoRoot, String key) {
+        VALIDATED.add(repoRoot.toUri() + " " + key);
+        // Only repositories extracted into a cache are stamped, user directories are left untouched
+        if (Files.isRegularFile(repoRoot.resolve(FileUtils.EXTRACTION_MARKER))) {
+            try {
+                Files.writeString(repoRoot.resolve(VALIDATION_STAMP), key + System.lineSeparator(),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                // The validation is memoized for this JVM only
+            }
+        }
+    }
+
+    /**
+     * Computes the key of a validation of the repository. Extracted repositories
+     * are identified by their extraction marker, other repositories by the names,
+     * sizes and modification times of their schema files.
+     *
+     * @return the key, or null if the validation must not be memoized
+     */
+    private static String validationKey(Path repoRoot, String validation) {
+        try {
+            Path marker = repoRoot.resolve(FileUtils.EXTRACTION_MARKER);
+            if (Files.isRegularFile(marker)) {
+                return validation + " extracted:" + Files.readString(marker).trim();
+            }
+            Path schemasDir = repoRoot.resolve("schemas");
+            if (!Files.isDirectory(schemasDir)) {
+                return null;
+            }
+            List<String> entries = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(schemasDir)) {
+                for (Path file : files) {
+                    entries.add(file.getFileName() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+            Collections.sort(entries);
+            return validation + " schemas:" + String.join(",", entries);
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     private static boolean shouldSkipReachabilityMetadataSchemaValidation(int majorJDKVersion, String osName, String osArch) {
@@ -41,6 +41,7 @@
 package org.graalvm.buildtools.utils;
 
 import org.graalvm.buildtools.model.resources.ClassPathEntryAnalyzer;
+import org.graalvm.buildtools.model.resources.JarResourceList;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -49,7 +50,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -95,4 +105,110 @@ public class ClassPathEntryAnalyzerTest {
         // Directory scanning emits portable Native Image resource names. §FS-common-libraries.2.
         assertEquals(Collections.singletonList("org/graalvm/demo/expected.txt"), analyzer.getResources());
     }
+
+    @Test
+    @DisplayName("Jar resources are listed without the manifest, directories and classes")
+    public void testShouldListJarResources() throws IOException {
+        File jar = createJar("app.jar", "org/graalvm/demo/", "org/graalvm/demo/Main.class",
+                "org/graalvm/demo/expected.txt", "META-INF/services/org.graalvm.demo.Service");
+
+        ClassPathEntryAnalyzer analyzer = ClassPathEntryAnalyzer.of(jar, path -> true, false);
+
+        assertEquals(Arrays.asList("org/graalvm/demo/expected.txt", "META-INF/services/org.graalvm.demo.Service"), analyzer.getResources());
+    }
+
+    @Test
+    @DisplayName("Jars with their own resource configuration are skipped unless it is ignored")
+    public void testShouldSkipJarsWithResourceConfig() throws IOException {
+        File jar = createJar("configured.jar", "org/graalvm/demo/expected.txt",
+                "META-INF/native-image/org.graalvm/demo/resource-config.json", "org/graalvm/demo/other.txt");
+
+        assertEquals(Collections.emptyList(), ClassPathEntryAnalyzer.of(jar, path -> true, false).getResources());
+        assertEquals(Arrays.asList("org/graalvm/demo/expected.txt",
+                        "META-INF/native-image/org.graalvm/demo/resource-config.json",
+                        "org/graalvm/demo/other.txt"),
+                ClassPathEntryAnalyzer.of(jar, path -> true, true).getResources());
+    }
+
+    @Test
+    @DisplayName("Classpath entries analyzed concurrently are returned in classpath order")
+    public void testShouldAnalyzeEntriesInClasspathOrder() throws IOException {
+        List<File> entries = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            entries.add(createJar("lib" + i + ".jar", "lib" + i + "/resource.txt", "shared.txt"));
+            expected.add("lib" + i + "/resource.txt");
+        }
+
+        List<ClassPathEntryAnalyzer.Analysis> analyses = ClassPathEntryAnalyzer.analyzeAll(entries, path -> !path.equals("shared.txt"), false);
+
+        assertEquals(entries.size(), analyses.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i), analyses.get(i).file());
+            assertEquals(Collections.singletonList(expected.get(i)), analyses.get(i).resources());
+        }
+    }
+
+    @Test
+    @DisplayName("Stored jar resource lists give the same resources as analyzing the jar")
+    public void testShouldAnalyzeJarsFromResourceLists() throws IOException {
+        File jar = createJar("app.jar", "org/graalvm/demo/Main.class", "org/graalvm/demo/expected.txt",
+                "org/graalvm/demo/excluded.txt", "META-INF/native-image/org.graalvm/demo/resource-config.json");
+        Path resourceList = temporaryDirectory.resolve("app.jar.resources");
+        JarResourceList.scan(jar.toPath()).write(resourceList);
+
+        for (boolean ignoreExistingResourcesConfig : new boolean[] {false, true}) {
+            List<ClassPathEntryAnalyzer.Analysis> analyses = ClassPathEntryAnalyzer.analyzeAll(Collections.singletonList(jar),
+                    path -> !path.endsWith("excluded.txt"), ignoreExistingResourcesConfig, file -> JarResourceList.read(resourceList));
+
+            assertEquals(ClassPathEntryAnalyzer.of(jar, path -> !path.endsWith("excluded.txt"), ignoreExistingResourcesConfig).getResources(),
+                    analyses.get(0).resources());
+        }
+    }
+
+    @Test
+    @DisplayName("Jar resource lists are cached by jar location and refreshed when the jar changes")
+    public void testShouldCacheJarResourceLists() throws IOException {
+        File jar = createJar("lib.jar", "lib/resource.txt");
+        Path cacheDirectory = temporaryDirectory.resolve("cache");
+
+        assertEquals(Collections.singletonList("lib/resource.txt"),
+                JarResourceList.cached(jar.toPath(), cacheDirectory).resources(path -> true, false));
+        Path cached = singleFile(cacheDirectory);
+        Files.writeString(cached, Files.readString(cached) + "lib/cached.txt\n");
+        assertEquals(Arrays.asList("lib/resource.txt", "lib/cached.txt"),
+                JarResourceList.cached(jar.toPath(), cacheDirectory).resources(path -> true, false));
+
+        // A changed jar is analyzed again, and its entry replaced
+        FileTime modified = Files.getLastModifiedTime(jar.toPath());
+        createJar("lib.jar", "lib/changed.txt");
+        Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(modified.toMillis() + 2000));
+        assertEquals(Collections.singletonList("lib/changed.txt"),
+                JarResourceList.cached(jar.toPath(), cacheDirectory).resources(path -> true, false));
+        assertEquals(cached, singleFile(cacheDirectory));
+    }
+
+    private static Path singleFile(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> all = files.collect(Collectors.toList());
+            assertEquals(1, all.size());
+            return all.get(0);
+        }
+    }
+
+    private File createJar(String name, String... entries) throws IOException {
+        File jar = temporaryDirectory.resolve(name).toFile();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/")) {
+                    out.write(entry.getBytes());
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
 }
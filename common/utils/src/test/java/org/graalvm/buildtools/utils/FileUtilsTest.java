@@ -40,6 +40,9 @@
  */
 package org.graalvm.buildtools.utils;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -50,6 +53,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
@@ -60,13 +64,18 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 // Protects common utility verification for download and extraction behavior. §FS-common-libraries.8.
@@ -172,16 +181,136 @@ class FileUtilsTest {
         stream.close();
     }
 
-    @ParameterizedTest(name = "Archives with format {0} are not supported")
-    @ValueSource(strings = {"tar.gz", "tar.bz2"})
-    void testExtractNonZip(String format, @TempDir Path tempDir) {
-        Path archive = new File("src/test/resources/graalvm-reachability-metadata." + format).toPath();
+    @ParameterizedTest(name = "It can extract archives with format {0}")
+    @ValueSource(strings = {"zip", "tar.gz", "tar.bz2"})
+    void testExtractFormats(String format, @TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("repository." + format);
+        writeArchive(archive, format);
+        List<String> errorLogs = new ArrayList<>();
+
+        FileUtils.extract(archive, tempDir.resolve("extracted"), errorLogs::add);
+
+        assertEquals(0, errorLogs.size());
+        assertEquals("[]", Files.readString(tempDir.resolve("extracted/index.json")));
+        assertEquals("{}", Files.readString(tempDir.resolve("extracted/org.foo/bar/1.0/reflect-config.json")));
+    }
+
+    @Test
+    @DisplayName("It rejects archives with an unsupported format")
+    void testExtractUnsupportedFormat(@TempDir Path tempDir) {
+        Path archive = new File("src/test/resources/graalvm-reachability-metadata.7z").toPath();
         List<String> errorLogs = new ArrayList<>();
 
         FileUtils.extract(archive, tempDir, errorLogs::add);
 
         assertEquals(1, errorLogs.size());
-        assertEquals("Unsupported archive format: src/test/resources/graalvm-reachability-metadata." + format + ". Only ZIP files are supported", errorLogs.get(0));
+        assertEquals("Unsupported archive format: src/test/resources/graalvm-reachability-metadata.7z. Only ZIP, tar.gz and tar.bz2 files are supported", errorLogs.get(0));
+    }
+
+    @Test
+    @DisplayName("It publishes extracted archives atomically and reuses them")
+    void testExtractAtomically(@TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("repository.zip");
+        writeArchive(archive, "zip");
+        Path destination = tempDir.resolve("extracted");
+        List<String> errorLogs = new ArrayList<>();
+
+        assertTrue(FileUtils.extractAtomically(archive, destination, errorLogs::add));
+        assertTrue(FileUtils.isExtracted(archive, destination));
+        assertEquals("[]", Files.readString(destination.resolve("index.json")));
+
+        Path marker = destination.resolve("reused.txt");
+        Files.writeString(marker, "");
+        assertTrue(FileUtils.extractAtomically(archive, destination, errorLogs::add));
+        assertTrue(Files.exists(marker));
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(0, errorLogs.size());
+    }
+
+    @Test
+    @DisplayName("It skips ZIP slip entries without failing atomic extractions")
+    void testExtractAtomicallySkipsZipSlipEntries(@TempDir Path tempDir) {
+        Path zipFile = new File("src/test/resources/zip-slip.zip").toPath();
+        Path destination = tempDir.resolve("extracted");
+        List<String> errorLogs = new ArrayList<>();
+
+        assertTrue(FileUtils.extractAtomically(zipFile, destination, errorLogs::add));
+
+        assertEquals(1, errorLogs.size());
+        assertTrue(errorLogs.get(0).startsWith("Wrong entry ../"));
+        assertTrue(Files.exists(destination.resolve("good.txt")));
+        assertTrue(Files.notExists(tempDir.resolve("evil.txt")));
+        assertTrue(FileUtils.isExtracted(zipFile, destination));
+    }
+
+    @Test
+    @DisplayName("It replaces incomplete extractions")
+    void testExtractAtomicallyReplacesIncompleteExtraction(@TempDir Path tempDir) throws IOException {
+        Path archive = tempDir.resolve("repository.zip");
+        writeArchive(archive, "zip");
+        Path destination = tempDir.resolve("extracted");
+        Files.createDirectories(destination.resolve("org.foo"));
+        Files.writeString(destination.resolve("leftover.txt"), "");
+        List<String> errorLogs = new ArrayList<>();
+
+        assertFalse(FileUtils.isExtracted(archive, destination));
+        assertTrue(FileUtils.extractAtomically(archive, destination, errorLogs::add));
+
+        assertTrue(Files.notExists(destination.resolve("leftover.txt")));
+        assertEquals("{}", Files.readString(destination.resolve("org.foo/bar/1.0/reflect-config.json")));
+        assertEquals(0, errorLogs.size());
+    }
+
+    @Test
+    @DisplayName("It replaces files atomically and leaves no temporary file behind")
+    void testWriteAtomically(@TempDir Path tempDir) throws IOException {
+        Path target = tempDir.resolve("cache/entry.txt");
+
+        FileUtils.writeAtomically(target, file -> Files.writeString(file, "first"));
+        FileUtils.writeAtomically(target, file -> Files.writeString(file, "second"));
+        assertEquals("second", Files.readString(target));
+
+        assertThrows(IOException.class, () -> FileUtils.writeAtomically(target, file -> {
+            Files.writeString(file, "partial");
+            throw new IOException("interrupted");
+        }));
+        assertEquals("second", Files.readString(target));
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private static void writeArchive(Path archive, String format) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("index.json", "[]");
+        entries.put("org.foo/bar/index.json", "[]");
+        entries.put("org.foo/bar/1.0/reflect-config.json", "{}");
+        if (format.equals("zip")) {
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    zip.putNextEntry(new ZipEntry(entry.getKey()));
+                    zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                    zip.closeEntry();
+                }
+            }
+            return;
+        }
+        OutputStream fileStream = Files.newOutputStream(archive);
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(format.equals("tar.gz")
+                ? new GZIPOutputStream(fileStream)
+                : new BZip2CompressorOutputStream(fileStream))) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                byte[] content = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry tarEntry = new TarArchiveEntry(entry.getKey());
+                tarEntry.setSize(content.length);
+                tar.putArchiveEntry(tarEntry);
+                tar.write(content);
+                tar.closeArchiveEntry();
+            }
+        }
     }
 
     private static URL url(String spec, HttpURLConnection connection) throws IOException {
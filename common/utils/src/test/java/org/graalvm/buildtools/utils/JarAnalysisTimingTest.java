@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import org.graalvm.buildtools.model.resources.ClassPathEntryAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the time to list the resources of a large jar from its central directory
+ * with reading the jar as a stream, as resource detection did before. Run it with
+ * {@code -Dnbt.timing=true}, optionally with {@code -Dnbt.timing.jar=<path>} to
+ * measure an existing jar.
+ */
+@EnabledIfSystemProperty(named = "nbt.timing", matches = "true")
+class JarAnalysisTimingTest {
+    private static final int ITERATIONS = 10;
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void compareCentralDirectoryWithStream() throws IOException {
+        String jarProperty = System.getProperty("nbt.timing.jar");
+        File jar = jarProperty != null ? new File(jarProperty) : createLargeJar();
+        List<String> streamed = listFromStream(jar);
+        assertEquals(streamed, ClassPathEntryAnalyzer.of(jar, name -> true, true).getResources());
+        long streamNanos = Long.MAX_VALUE;
+        long centralDirectoryNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            listFromStream(jar);
+            streamNanos = Math.min(streamNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            ClassPathEntryAnalyzer.of(jar, name -> true, true).getResources();
+            centralDirectoryNanos = Math.min(centralDirectoryNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%s (%d bytes, %d resources): stream %.1f ms, central directory %.1f ms%n", jar.getName(), jar.length(),
+                streamed.size(), streamNanos / 1e6, centralDirectoryNanos / 1e6);
+    }
+
+    private static List<String> listFromStream(File jar) throws IOException {
+        List<String> resources = new ArrayList<>();
+        try (JarInputStream in = new JarInputStream(Files.newInputStream(jar.toPath()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (!entry.isDirectory() && !entry.getName().endsWith(".class")) {
+                    resources.add(entry.getName());
+                }
+            }
+        }
+        return resources;
+    }
+
+    private File createLargeJar() throws IOException {
+        File jar = temporaryDirectory.resolve("large.jar").toFile();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        Random random = new Random(42);
+        byte[] content = new byte[2 * 1024];
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()), manifest)) {
+            for (int i = 0; i < 20_000; i++) {
+                random.nextBytes(content);
+                out.putNextEntry(new ZipEntry("com/example/p" + (i % 200) + (i % 3 == 0 ? "/Type" + i + ".class" : "/resource" + i + ".bin")));
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import org.graalvm.buildtools.model.resources.ResourceFilter;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceFilterTest {
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "META-INF/.*[.](md|adoc)",
+            "META-INF/INDEX.LIST",
+            ".*/package.html",
+            "\\Qorg/junit/\\E.*\\.properties",
+            "[ab]c.d",
+            "(x|y)(1|2)",
+            "LICENSE",
+            ".*",
+            "",
+            "^META-INF/.*",
+            "[a-z]+\\.xml$",
+            "foo|bar",
+            ".*?\\.json",
+            "(?i)license.*"
+    );
+
+    private static final List<String> EDGE_CASES = Arrays.asList(
+            "",
+            "META-INF/README.md",
+            "lib/META-INF/guide.adoc",
+            "META-INF/\nREADME.md",
+            "META-INF/INDEXxLIST",
+            "META-INF/INDEX\nLIST",
+            "package.html",
+            "doc/package.html",
+            "org/junit/test.properties",
+            "bc\u2028d",
+            "acxd",
+            "y2",
+            "data/x\u00e9\ud83d\ude00.txt",
+            "ac\ud83d\ude00d"
+    );
+
+    @Test
+    void decidesLikeTheAlternationOfAllExpressionsOnClasspathEntries() throws IOException {
+        List<String> corpus = new ArrayList<>(EDGE_CASES);
+        corpus.addAll(classpathEntries());
+        assertTrue(corpus.size() > EDGE_CASES.size());
+
+        List<Set<String>> filters = new ArrayList<>();
+        filters.add(new LinkedHashSet<>(SharedConstants.DEFAULT_EXCLUDES_FOR_RESOURCE_DETECTION));
+        filters.add(new LinkedHashSet<>(EXPRESSIONS.subList(0, 7)));
+        for (String expression : EXPRESSIONS) {
+            filters.add(Collections.singleton(expression));
+        }
+        for (Set<String> expressions : filters) {
+            ResourceFilter filter = new ResourceFilter(expressions);
+            Pattern reference = Pattern.compile(expressions.stream().map(e -> "(" + e + ")").collect(Collectors.joining("|")));
+            for (String name : corpus) {
+                assertEquals(!reference.matcher(name).find(), filter.shouldIncludeResource(name),
+                        () -> "Unexpected decision for '" + name + "' with " + expressions);
+            }
+        }
+    }
+
+    @Test
+    void includesEverythingWithoutExpressions() {
+        assertTrue(new ResourceFilter(Collections.emptySet()).shouldIncludeResource("META-INF/LICENSE"));
+        assertFalse(new ResourceFilter(Collections.singleton("META-INF/LICENSE.*")).shouldIncludeResource("META-INF/LICENSE.txt"));
+    }
+
+    private static List<String> classpathEntries() throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (path.endsWith(".jar") && new File(path).isFile()) {
+                try (ZipFile zip = new ZipFile(path)) {
+                    Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+                    while (zipEntries.hasMoreElements()) {
+                        entries.add(zipEntries.nextElement().getName());
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+}
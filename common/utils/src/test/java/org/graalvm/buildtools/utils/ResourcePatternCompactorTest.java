@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import org.graalvm.buildtools.model.resources.JarResourceList;
+import org.graalvm.buildtools.model.resources.ResourcePatternCompactor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResourcePatternCompactorTest {
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    @DisplayName("A fully included directory is collapsed into the pattern of its topmost directory")
+    public void testCollapsesFullyIncludedDirectory() {
+        List<String> resources = Arrays.asList("app.properties", "static/index.html", "static/css/main.css", "static/css/print.css");
+        List<String> patterns = ResourcePatternCompactor.compact(resources, List.of(JarResourceList.of(resources)));
+
+        assertEquals(Arrays.asList(Pattern.quote("app.properties"), Pattern.quote("static/") + ".*"), patterns);
+        assertIncludesSameResources(resources, resources, patterns);
+    }
+
+    @Test
+    @DisplayName("A directory which has files that were not detected is not collapsed")
+    public void testKeepsDirectoriesWithUndetectedFiles() {
+        List<String> resources = Arrays.asList("com/acme/messages.properties", "com/acme/i18n/en.properties", "com/acme/i18n/fr.properties");
+        List<String> entries = new ArrayList<>(resources);
+        entries.add("com/acme/Main.class");
+        entries.add("com/acme/logback-test.xml");
+        List<String> patterns = ResourcePatternCompactor.compact(resources, List.of(JarResourceList.of(entries)));
+
+        assertEquals(Arrays.asList(Pattern.quote("com/acme/messages.properties"), Pattern.quote("com/acme/i18n/") + ".*"), patterns);
+        assertIncludesSameResources(resources, entries, patterns);
+    }
+
+    @Test
+    @DisplayName("Directories which hold a single resource or a JDK package are not collapsed")
+    public void testKeepsSingleResourcesAndJdkDirectories() {
+        List<String> resources = Arrays.asList("config/app.yml", "java/lang/a.txt", "java/lang/b.txt",
+                "org/graalvm/example/a.txt", "org/graalvm/example/b.txt");
+        List<String> patterns = ResourcePatternCompactor.compact(resources, List.of(JarResourceList.of(resources)));
+
+        assertEquals(resources.stream().map(Pattern::quote).collect(Collectors.toList()), patterns);
+    }
+
+    @Test
+    @DisplayName("Files of other classpath entries prevent a directory from being collapsed")
+    public void testListsEveryClasspathEntry() throws IOException {
+        Path classes = temporaryDirectory.resolve("classes");
+        Files.createDirectories(classes.resolve("templates/mail"));
+        Files.writeString(classes.resolve("templates/home.html"), "");
+        Files.writeString(classes.resolve("templates/mail/welcome.html"), "");
+        Files.writeString(classes.resolve("templates/mail/reset.html"), "");
+        Path jar = temporaryDirectory.resolve("lib.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("templates/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("templates/error.html"));
+            out.closeEntry();
+        }
+        List<String> resources = Arrays.asList("templates/home.html", "templates/mail/reset.html", "templates/mail/welcome.html");
+
+        assertEquals(Arrays.asList(Pattern.quote("templates/home.html"), Pattern.quote("templates/mail/") + ".*"),
+                ResourcePatternCompactor.compactForClasspath(resources, Arrays.asList(classes.toFile(), jar.toFile()), file -> null));
+        assertEquals(List.of(Pattern.quote("templates/") + ".*"),
+                ResourcePatternCompactor.compactForClasspath(resources, List.of(classes.toFile()), file -> null));
+    }
+
+    @Test
+    @DisplayName("Stored resource lists are used instead of reading jars")
+    public void testUsesStoredResourceLists() throws IOException {
+        Path jar = temporaryDirectory.resolve("lib.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("templates/error.html"));
+            out.closeEntry();
+        }
+        Path resourceList = temporaryDirectory.resolve("lib.jar.resources");
+        JarResourceList.of(Arrays.asList("templates/Renderer.class", "templates/home.html", "templates/mail.html")).write(resourceList);
+        List<String> resources = Arrays.asList("templates/home.html", "templates/mail.html");
+
+        assertEquals(resources.stream().map(Pattern::quote).collect(Collectors.toList()),
+                ResourcePatternCompactor.compactForClasspath(resources, List.of(jar.toFile()), file -> JarResourceList.read(resourceList)));
+        assertEquals(List.of(Pattern.quote("templates/") + ".*"),
+                ResourcePatternCompactor.compactForClasspath(resources, List.of(jar.toFile()),
+                        file -> JarResourceList.of(resources)));
+    }
+
+    private static void assertIncludesSameResources(List<String> resources, List<String> entries, List<String> patterns) {
+        List<Pattern> compiled = patterns.stream().map(Pattern::compile).collect(Collectors.toList());
+        for (String entry : entries) {
+            boolean included = compiled.stream().anyMatch(pattern -> pattern.matcher(entry).matches());
+            assertEquals(resources.contains(entry), included, entry);
+        }
+    }
+}
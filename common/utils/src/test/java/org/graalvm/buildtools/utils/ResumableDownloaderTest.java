@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Protects resumable, verified and atomically published downloads. §FS-common-libraries.8.
+class ResumableDownloaderTest {
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private byte[] content;
+    private String checksum;
+    private final List<String> requests = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        checksum = sha256(content);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/repo.zip", this::serveArchive);
+        server.createContext("/repo.zip.sha256", exchange -> {
+            requests.add("GET /repo.zip.sha256");
+            respond(exchange, 200, (checksum + "  repo.zip\n").getBytes(StandardCharsets.US_ASCII));
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void downloadsVerifiesAndPublishes() throws Exception {
+        Path target = tempDir.resolve("cache/repo.zip");
+
+        Path result = ResumableDownloader.get().download(url(), target);
+
+        assertEquals(target.toAbsolutePath(), result);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertFalse(Files.exists(tempDir.resolve("cache/repo.zip" + ResumableDownloader.PARTIAL_SUFFIX)));
+
+        // A completed download is reused without any request
+        requests.clear();
+        ResumableDownloader.get().download(url(), target);
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void resumesInterruptedDownload() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+        Files.write(tempDir.resolve("repo.zip" + ResumableDownloader.PARTIAL_SUFFIX), Arrays.copyOf(content, 50_000));
+        Files.writeString(tempDir.resolve("repo.zip" + ResumableDownloader.STATE_SUFFIX), "etag=" + ETAG + "\n");
+
+        ResumableDownloader.get().download(url(), target);
+
+        assertTrue(requests.contains("GET /repo.zip range=bytes=50000-"));
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void rejectsCorruptedDownload() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+        checksum = sha256("something else".getBytes(StandardCharsets.UTF_8));
+
+        IOException failure = assertThrows(IOException.class, () -> ResumableDownloader.get().download(url(), target));
+
+        assertTrue(failure.getMessage().startsWith("Checksum mismatch"));
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(tempDir.resolve("repo.zip" + ResumableDownloader.PARTIAL_SUFFIX)));
+    }
+
+    @Test
+    void revalidatesCachedDownload() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+        ResumableDownloader.get().download(url(), target);
+        requests.clear();
+
+        ResumableDownloader.get().withRevalidation(true).download(url(), target);
+        assertEquals(List.of("GET /repo.zip if-none-match=" + ETAG), requests);
+
+        server.stop(0);
+        // The cached file is used when the server cannot be reached
+        assertArrayEquals(content, Files.readAllBytes(ResumableDownloader.get().withRevalidation(true).download(url(), target)));
+    }
+
+    @Test
+    void verifiesFilesWithoutRecordedState() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+        Files.write(target, Arrays.copyOf(content, 50_000));
+
+        // A truncated file is downloaded again
+        ResumableDownloader.get().download(url(), target);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(List.of("GET /repo.zip.sha256", "GET /repo.zip"), requests);
+
+        // A complete file is only checked once
+        Files.delete(tempDir.resolve("repo.zip" + ResumableDownloader.STATE_SUFFIX));
+        requests.clear();
+        ResumableDownloader.get().download(url(), target);
+        ResumableDownloader.get().download(url(), target);
+        assertEquals(List.of("GET /repo.zip.sha256"), requests);
+    }
+
+    @Test
+    void usesUnverifiedFileWhenServerCannotBeReached() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+        Files.write(target, content);
+        server.stop(0);
+
+        assertArrayEquals(content, Files.readAllBytes(ResumableDownloader.get().download(url(), target)));
+    }
+
+    @Test
+    void suppliedChecksumIsNotRequested() throws Exception {
+        Path target = tempDir.resolve("repo.zip");
+
+        ResumableDownloader.get().withExpectedSha256(checksum).download(url(), target);
+
+        assertEquals(List.of("GET /repo.zip"), requests);
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    private void serveArchive(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        StringBuilder request = new StringBuilder("GET /repo.zip");
+        if (range != null) {
+            request.append(" range=").append(range);
+        }
+        if (ifNoneMatch != null) {
+            request.append(" if-none-match=").append(ifNoneMatch);
+        }
+        requests.add(request.toString());
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        if (ETAG.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (range != null && ETAG.equals(ifRange)) {
+            int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (content.length - 1) + "/" + content.length);
+            respond(exchange, 206, Arrays.copyOfRange(content, start, content.length));
+            return;
+        }
+        respond(exchange, 200, content);
+    }
+
+    private static void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private URL url() throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/repo.zip");
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
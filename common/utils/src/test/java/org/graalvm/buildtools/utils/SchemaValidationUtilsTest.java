@@ -47,9 +47,12 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 // Protects metadata repository schema compatibility checks. §FS-common-libraries.7.
 class SchemaValidationUtilsTest {
@@ -122,6 +125,41 @@ class SchemaValidationUtilsTest {
         assertThrows(IllegalStateException.class, () -> SchemaValidationUtils.validateSchemas(repoRoot));
     }
 
+    @Test
+    @DisplayName("validateSchemas is memoized for extracted repositories")
+    void validateSchemasMemoizedForExtractedRepository(@TempDir Path tempDir) throws IOException {
+        Path repoRoot = tempDir.resolve("repo-extracted");
+        Path schemas = repoRoot.resolve("schemas");
+        Files.createDirectories(schemas);
+        writeJson(schemas.resolve("library-and-framework-list-schema-v1.0.0.json"), "{}");
+        writeJson(schemas.resolve("metadata-library-index-schema-v2.0.0.json"), "{}");
+        Files.writeString(repoRoot.resolve(FileUtils.EXTRACTION_MARKER), "42:1000");
+
+        SchemaValidationUtils.validateSchemas(repoRoot);
+        assertTrue(Files.isRegularFile(repoRoot.resolve(".nbt-schema-validation")));
+
+        // Extracted repositories are immutable, so the schemas are not read again
+        Files.delete(schemas.resolve("metadata-library-index-schema-v2.0.0.json"));
+        assertDoesNotThrow(() -> SchemaValidationUtils.validateSchemas(repoRoot));
+    }
+
+    @Test
+    @DisplayName("validateSchemas is validated again when the schemas of a repository directory change")
+    void validateSchemasRevalidatedWhenSchemasChange(@TempDir Path tempDir) throws IOException {
+        Path repoRoot = tempDir.resolve("repo-directory");
+        Path schemas = repoRoot.resolve("schemas");
+        Files.createDirectories(schemas);
+        writeJson(schemas.resolve("library-and-framework-list-schema-v1.0.0.json"), "{}");
+        writeJson(schemas.resolve("metadata-library-index-schema-v2.0.0.json"), "{}");
+
+        SchemaValidationUtils.validateSchemas(repoRoot);
+        assertFalse(Files.exists(repoRoot.resolve(".nbt-schema-validation")));
+
+        Files.delete(schemas.resolve("metadata-library-index-schema-v2.0.0.json"));
+        writeJson(schemas.resolve("metadata-library-index-schema-v3.0.0.json"), "{}");
+        assertThrows(IllegalStateException.class, () -> SchemaValidationUtils.validateSchemas(repoRoot));
+    }
+
     // ---------- validateReachabilityMetadataSchema tests ----------
 
     @Test
@@ -136,6 +174,25 @@ class SchemaValidationUtilsTest {
         assertDoesNotThrow(() -> SchemaValidationUtils.validateReachabilityMetadataSchema(repoRoot, 21, nativeImage));
     }
 
+    @Test
+    @DisplayName("validateReachabilityMetadataSchema is validated again when the native-image executable changes")
+    void validateReachabilitySchemaRevalidatedForNewGraalVM(@TempDir Path tempDir) throws IOException {
+        Path repoRoot = tempDir.resolve("repo-memoized");
+        Path schemas = repoRoot.resolve("schemas");
+        Files.createDirectories(schemas);
+        writeJson(schemas.resolve("reachability-metadata-schema-v1.2.0.json"), schemaJson("1.2.0"));
+        Files.writeString(repoRoot.resolve(FileUtils.EXTRACTION_MARKER), "42:1000");
+        Path nativeImage = createFakeGraalVMHome(tempDir.resolve("graal-memoized"), "1.2.0");
+
+        SchemaValidationUtils.validateReachabilityMetadataSchema(repoRoot, 21, nativeImage);
+
+        writeJson(nativeImage.getParent().getParent().resolve("lib/svm/schemas/reachability-metadata-schema.json"), schemaJson("1.1.0"));
+        assertDoesNotThrow(() -> SchemaValidationUtils.validateReachabilityMetadataSchema(repoRoot, 21, nativeImage));
+
+        Files.setLastModifiedTime(nativeImage, FileTime.fromMillis(Files.getLastModifiedTime(nativeImage).toMillis() + 10_000));
+        assertThrows(IllegalStateException.class, () -> SchemaValidationUtils.validateReachabilityMetadataSchema(repoRoot, 21, nativeImage));
+    }
+
     @Test
     @DisplayName("validateReachabilityMetadataSchema fails when repository provides schema but GraalVM does not")
     void validateReachabilitySchemaRepoOnly(@TempDir Path tempDir) throws IOException {
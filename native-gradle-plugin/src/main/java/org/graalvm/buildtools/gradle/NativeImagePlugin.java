@@ -62,18 +62,22 @@ import org.graalvm.buildtools.gradle.tasks.CollectReachabilityMetadata;
 import org.graalvm.buildtools.gradle.tasks.CreateLayerOptions;
 import org.graalvm.buildtools.gradle.tasks.GenerateAgentAccessFilter;
 import org.graalvm.buildtools.gradle.tasks.GenerateDynamicAccessMetadata;
+import org.graalvm.buildtools.gradle.tasks.GenerateMetadataLock;
 import org.graalvm.buildtools.gradle.tasks.GenerateResourcesConfigFile;
 import org.graalvm.buildtools.gradle.tasks.ListLibrariesMissingMetadata;
+import org.graalvm.buildtools.gradle.tasks.MergeReachabilityMetadata;
 import org.graalvm.buildtools.gradle.tasks.MetadataCopyTask;
 import org.graalvm.buildtools.gradle.tasks.NativeRunTask;
 import org.graalvm.buildtools.gradle.tasks.UseLayerOptions;
 import org.graalvm.buildtools.gradle.tasks.actions.CleanupAgentFilesAction;
 import org.graalvm.buildtools.gradle.tasks.actions.MergeAgentFilesAction;
 import org.graalvm.buildtools.gradle.tasks.scanner.JarAnalyzerTransform;
+import org.graalvm.buildtools.gradle.tasks.scanner.ResourceAnalyzerTransform;
 import org.graalvm.buildtools.utils.JUnitPlatformNativeDependenciesHelper;
 import org.graalvm.buildtools.utils.JUnitUtils;
 import org.graalvm.buildtools.utils.SharedConstants;
 import org.graalvm.reachability.DirectoryConfiguration;
+import org.graalvm.reachability.MetadataLockFile;
 import org.graalvm.reachability.MissingMetadataCommandSupport;
 import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
@@ -138,6 +142,7 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -157,7 +162,6 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.graalvm.buildtools.gradle.internal.ConfigurationCacheSupport.serializableBiFunctionOf;
-import static org.graalvm.buildtools.gradle.internal.ConfigurationCacheSupport.serializableFunctionOf;
 import static org.graalvm.buildtools.gradle.internal.ConfigurationCacheSupport.serializablePredicateOf;
 import static org.graalvm.buildtools.gradle.internal.ConfigurationCacheSupport.serializableSupplierOf;
 import static org.graalvm.buildtools.gradle.internal.ConfigurationCacheSupport.serializableTransformerOf;
@@ -181,7 +185,10 @@ public class NativeImagePlugin implements Plugin<Project> {
     public static final String DEPRECATED_NATIVE_TEST_BUILD_TASK = "nativeTestBuild";
 
     public static final String CONFIG_REPO_LOGLEVEL = "org.graalvm.internal.gradle.configrepo.logging";
+    public static final String SHARED_METADATA_REPOSITORY_PROPERTY = "org.graalvm.buildtools.shared.metadata.repository";
+    public static final String METADATA_REPOSITORY_METRICS_PROPERTY = "org.graalvm.buildtools.metadata.repository.metrics";
     public static final Attribute<Boolean> JAR_ANALYSIS_ATTRIBUTE = Attribute.of("jar-analysis", Boolean.class);
+    public static final Attribute<Boolean> RESOURCE_ANALYSIS_ATTRIBUTE = Attribute.of("resource-analysis", Boolean.class);
 
     private static final String NATIVE_CONFIGURATION_SERVICE_NAME = "nativeConfigurationService";
     private static final String JUNIT_PLATFORM_LISTENERS_UID_TRACKING_ENABLED = "junit.platform.listeners.uid.tracking.enabled";
@@ -307,6 +314,13 @@ public class NativeImagePlugin implements Plugin<Project> {
             t.getFrom().attribute(JAR_ANALYSIS_ATTRIBUTE, false);
             t.getTo().attribute(JAR_ANALYSIS_ATTRIBUTE, true);
         });
+        // Configure artifact transform which lists the resources of jars for resource detection
+        project.getDependencies().getAttributesSchema().attribute(RESOURCE_ANALYSIS_ATTRIBUTE);
+        project.getDependencies().getArtifactTypes().getByName("jar").getAttributes().attribute(RESOURCE_ANALYSIS_ATTRIBUTE, false);
+        project.getDependencies().registerTransform(ResourceAnalyzerTransform.class, t -> {
+            t.getFrom().attribute(RESOURCE_ANALYSIS_ATTRIBUTE, false);
+            t.getTo().attribute(RESOURCE_ANALYSIS_ATTRIBUTE, true);
+        });
 
         // Register Native Image tasks
         TaskContainer tasks = project.getTasks();
@@ -364,6 +378,20 @@ public class NativeImagePlugin implements Plugin<Project> {
             task.getModuleToConfigVersion().convention(metadataRepositoryExtension.getModuleToConfigVersion());
             task.getInto().convention(project.getLayout().getBuildDirectory().dir("native-reachability-metadata"));
         });
+        project.getTasks().register("generateMetadataLock", GenerateMetadataLock.class, task -> {
+            task.setGroup(LifecycleBasePlugin.BUILD_GROUP);
+            task.setDescription("Records the reachability metadata selected for the runtime classpath into a lock file.");
+            task.setClasspath(project.getConfigurations().getByName(JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME));
+            Provider<GraalVMReachabilityMetadataService> reachabilityMetadataService = graalVMReachabilityMetadataService(
+                project, metadataRepositoryExtension);
+            task.getMetadataService().set(reachabilityMetadataService);
+            task.usesService(reachabilityMetadataService);
+            task.getUri().convention(metadataRepositoryExtension.getUri());
+            task.getRepositoryContentHash().convention(reachabilityMetadataService.map(service -> service.getRepositoryContentHash().orElse(null)));
+            task.getExcludedModules().convention(metadataRepositoryExtension.getExcludedModules());
+            task.getModuleToConfigVersion().convention(metadataRepositoryExtension.getModuleToConfigVersion());
+            task.getLockFile().convention(metadataRepositoryExtension.getLockFile());
+        });
         project.getTasks().register("listLibrariesMissingMetadata", ListLibrariesMissingMetadata.class, task -> {
             task.setGroup(LifecycleBasePlugin.BUILD_GROUP);
             task.setDescription("Lists direct runtime dependencies that do not have reachability metadata support");
@@ -387,6 +415,13 @@ public class NativeImagePlugin implements Plugin<Project> {
             task.getProjectName().convention(project.getName());
             task.getExcludedModules().convention(metadataRepositoryExtension.getExcludedModules());
             task.getModuleToConfigVersion().convention(metadataRepositoryExtension.getModuleToConfigVersion());
+            task.getCacheDirectory().convention(
+                project.getProviders().gradleProperty("missingMetadataCacheDirectory")
+                    .map(path -> project.getLayout().getProjectDirectory().dir(path))
+            );
+            task.getCacheTtl().convention(project.getProviders().gradleProperty("missingMetadataCacheTtl").map(Duration::parse));
+            task.getNegativeCacheTtl().convention(project.getProviders().gradleProperty("missingMetadataNegativeCacheTtl").map(Duration::parse));
+            task.getOffline().convention(project.getGradle().getStartParameter().isOffline());
             task.getReportFile().convention(
                 project.getProviders().gradleProperty("reportFile")
                     .map(path -> project.getLayout().getProjectDirectory().file(path))
@@ -478,6 +513,7 @@ public class NativeImagePlugin implements Plugin<Project> {
                 options,
                 tasks,
                 transitiveProjectArtifacts(project, sourceSet.getRuntimeClasspathConfigurationName()),
+                project.getConfigurations().getByName(sourceSet.getRuntimeClasspathConfigurationName()),
                 deriveTaskName(binaryName, "generate", "ResourcesConfigFile"));
             options.getConfigurationFileDirectories().from(generateResourcesConfig.map(serializableTransformerOf(t ->
                 t.getOutputFile().map(serializableTransformerOf(f -> f.getAsFile().getParentFile()))
@@ -533,11 +569,30 @@ public class NativeImagePlugin implements Plugin<Project> {
                                                                   GraalVMExtension graalExtension,
                                                                   NativeImageOptions options,
                                                                   SourceSet sourceSet) {
+        GraalVMReachabilityMetadataRepositoryExtension extension = reachabilityExtensionOn(graalExtension);
+        Provider<List<File>> configurationDirectories = graalVMReachabilityQueryForConfigDirectories(project,
+            graalExtension,
+            sourceSet,
+            configuration -> true);
+        TaskProvider<MergeReachabilityMetadata> mergeReachabilityMetadata = project.getTasks().register(
+            deriveTaskName(options.getName(), "merge", "ReachabilityMetadata"), MergeReachabilityMetadata.class, task -> {
+                task.getConfigurationDirectories().from(configurationDirectories);
+                task.getPruneMetadata().convention(extension.getPruneMetadata());
+                // Pruning must only keep the types of the classpath the binary is actually built with
+                FileCollection classpathAnalysis = options.getClasspath();
+                task.getClasspathAnalysis().from(extension.getPruneMetadata().map(serializableTransformerOf(prune ->
+                    Boolean.TRUE.equals(prune) ? classpathAnalysis : Collections.emptyList())));
+                task.getOutputDirectory().convention(project.getLayout().getBuildDirectory().dir("native-reachability-metadata-merged/" + options.getName()));
+            });
+        // A merged directory saves Native Image from parsing the many small files of the selected directories
         options.getConfigurationFileDirectories().from(
-            graalVMReachabilityQueryForConfigDirectories(project,
-                graalExtension,
-                sourceSet,
-                configuration -> true)
+            extension.getMergeMetadata().zip(extension.getPruneMetadata(), serializableBiFunctionOf((merge, prune) -> Boolean.TRUE.equals(merge) || Boolean.TRUE.equals(prune))).flatMap(serializableTransformerOf(merge -> {
+                if (Boolean.TRUE.equals(merge)) {
+                    return mergeReachabilityMetadata.flatMap(serializableTransformerOf(task ->
+                        task.getOutputDirectory().map(serializableTransformerOf(dir -> Collections.singletonList(dir.getAsFile())))));
+                }
+                return configurationDirectories;
+            }))
         );
     }
 
@@ -563,14 +618,14 @@ public class NativeImagePlugin implements Plugin<Project> {
                 Set<String> excludedModules = excludedModulesProperty.getOrElse(Collections.emptySet());
                 Map<String, String> forcedVersions = moduleToConfigVersion.getOrElse(Collections.emptyMap());
                 return metadataServiceProvider.map(serializableTransformerOf(service -> {
-                    Set<ResolvedComponentResult> components = findAllComponentsFrom(rootComponent.get());
-                    return components.stream().flatMap(serializableFunctionOf(component -> {
-                        ModuleVersionIdentifier moduleVersion = component.getModuleVersion();
-                        Set<DirectoryConfiguration> configurations = service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersion);
-                        return configurations.stream()
-                            .filter(filter)
-                            .map(NativeImagePlugin::getConfigurationDirectory);
-                    })).collect(Collectors.<File>toList());
+                    List<ModuleVersionIdentifier> moduleVersions = moduleVersionsOf(findAllComponentsFrom(rootComponent.get()));
+                    return service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersions)
+                        .values()
+                        .stream()
+                        .flatMap(Set::stream)
+                        .filter(filter)
+                        .map(NativeImagePlugin::getConfigurationDirectory)
+                        .collect(Collectors.<File>toList());
                 }));
             }
             return providers.provider(Collections::emptyList);
@@ -595,14 +650,13 @@ public class NativeImagePlugin implements Plugin<Project> {
                 Set<String> excludedModules = excludedModulesProperty.getOrElse(Collections.emptySet());
                 Map<String, String> forcedVersions = moduleToConfigVersion.getOrElse(Collections.emptyMap());
                 return metadataServiceProvider.map(serializableTransformerOf(service -> {
-                    Set<ResolvedComponentResult> components = findAllComponentsFrom(rootComponent.get());
-                    return components.stream().flatMap(serializableFunctionOf(component -> {
-                        ModuleVersionIdentifier moduleVersion = component.getModuleVersion();
-                        Set<DirectoryConfiguration> configurations = service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersion);
-                        return configurations.stream()
-                            .filter(filter)
-                            .map(e -> getExclusionConfig(moduleVersion));
-                    })).collect(Collectors.toMap(ExcludeEntry::getGav, ExcludeEntry::getExcludes));
+                    List<ModuleVersionIdentifier> moduleVersions = moduleVersionsOf(findAllComponentsFrom(rootComponent.get()));
+                    return service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersions)
+                        .entrySet()
+                        .stream()
+                        .filter(entry -> entry.getValue().stream().anyMatch(filter))
+                        .map(entry -> getExclusionConfig(entry.getKey()))
+                        .collect(Collectors.toMap(ExcludeEntry::getGav, ExcludeEntry::getExcludes));
                 }));
             }
             return providers.provider(Collections::emptyMap);
@@ -615,6 +669,12 @@ public class NativeImagePlugin implements Plugin<Project> {
         return Collections.unmodifiableSet(all);
     }
 
+    private static List<ModuleVersionIdentifier> moduleVersionsOf(Set<ResolvedComponentResult> components) {
+        return components.stream()
+            .map(ResolvedComponentResult::getModuleVersion)
+            .collect(Collectors.toList());
+    }
+
     private static void findAllComponentsFrom(ResolvedComponentResult resolvedComponentResult, Set<ResolvedComponentResult> all) {
         if (all.add(resolvedComponentResult)) {
             Set<? extends DependencyResult> dependencies = resolvedComponentResult.getDependencies();
@@ -629,17 +689,32 @@ public class NativeImagePlugin implements Plugin<Project> {
     private Provider<GraalVMReachabilityMetadataService> graalVMReachabilityMetadataService(Project project,
                                                                                             GraalVMReachabilityMetadataRepositoryExtension repositoryExtension) {
         // Keep metadata repository service parameters project-local. §FS-resources-and-metadata.3.
+        // In shared mode, the services of all projects delegate to one repository per URI and are queried concurrently.
+        boolean shared = GradleUtils.booleanProperty(project.getProviders(), SHARED_METADATA_REPOSITORY_PROPERTY, false).get();
         return project.getGradle()
             .getSharedServices()
             .registerIfAbsent(NATIVE_CONFIGURATION_SERVICE_NAME + project.getPath(), GraalVMReachabilityMetadataService.class, spec -> {
                 LogLevel logLevel = determineLogLevel();
-                spec.getMaxParallelUsages().set(1);
+                if (!shared) {
+                    spec.getMaxParallelUsages().set(1);
+                }
+                spec.getParameters().getShared().set(shared);
                 spec.getParameters().getLogLevel().set(logLevel);
                 spec.getParameters().getEnabled().set(repositoryExtension.getEnabled());
+                spec.getParameters().getExtractOnDemand().set(repositoryExtension.getExtractOnDemand());
+                spec.getParameters().getLockFile().set(repositoryExtension.getLockFile());
+                if (GradleUtils.booleanProperty(project.getProviders(), METADATA_REPOSITORY_METRICS_PROPERTY, false).get()) {
+                    spec.getParameters().getMetricsFile().set(
+                        project.getLayout().getBuildDirectory().file("reports/native/reachability-metadata-metrics.json"));
+                }
                 spec.getParameters().getUri().set(repositoryExtension.getUri().map(serializableTransformerOf(configuredUri -> computeMetadataRepositoryUri(project, repositoryExtension, m -> logFallbackToDefaultUri(m, logger)))));
                 spec.getParameters().getRepositoryDescription().set(
                     repositoryExtension.getUri().zip(repositoryExtension.getVersion(),
                         serializableBiFunctionOf(NativeImagePlugin::describeSelectedMetadataRepository)));
+                // Custom repository URIs may be updated in place, so their cached downloads are revalidated
+                spec.getParameters().getRevalidateDownloads().set(
+                    repositoryExtension.getUri().zip(repositoryExtension.getVersion(),
+                        serializableBiFunctionOf((uri, version) -> !isReleasedMetadataRepository(uri, version))));
                 spec.getParameters().getCacheDir().set(
                     new File(project.getGradle().getGradleUserHomeDir(), "native-build-tools/repositories"));
                 spec.getParameters().getBackoffMaxRetries().convention(
@@ -657,17 +732,25 @@ public class NativeImagePlugin implements Plugin<Project> {
     }
 
     static String describeSelectedMetadataRepository(URI configuredUri, String version) {
+        if (isReleasedMetadataRepository(configuredUri, version)) {
+            return "version " + version;
+        }
+        return "from " + configuredUri.toASCIIString();
+    }
+
+    /**
+     * Tells if the URI points to a release of the official repository, whose content never changes.
+     */
+    static boolean isReleasedMetadataRepository(URI configuredUri, String version) {
         if (version != null) {
             try {
                 URI versionUri = new URI(String.format(METADATA_REPO_URL_TEMPLATE, version));
-                if (versionUri.equals(configuredUri)) {
-                    return "version " + version;
-                }
+                return versionUri.equals(configuredUri);
             } catch (URISyntaxException e) {
                 throw new RuntimeException("Unable to convert repository version to URI", e);
             }
         }
-        return "from " + configuredUri.toASCIIString();
+        return false;
     }
 
     static URI computeMetadataRepositoryUri(Project project,
@@ -775,11 +858,11 @@ public class NativeImagePlugin implements Plugin<Project> {
         graalvmNative.getGeneratedResourcesDirectory().set(project.getLayout()
             .getBuildDirectory()
             .dir("native/generated/"));
-        configureNativeConfigurationRepo((ExtensionAware) graalvmNative);
+        configureNativeConfigurationRepo(project, (ExtensionAware) graalvmNative);
         return graalvmNative;
     }
 
-    private void configureNativeConfigurationRepo(ExtensionAware graalvmNative) {
+    private void configureNativeConfigurationRepo(Project project, ExtensionAware graalvmNative) {
         GraalVMReachabilityMetadataRepositoryExtension configurationRepository = graalvmNative.getExtensions().create("metadataRepository", GraalVMReachabilityMetadataRepositoryExtension.class);
         // Defaults stay enabled and pinnable through version or URI. §FS-resources-and-metadata.3.
         configurationRepository.getEnabled().convention(true);
@@ -787,6 +870,10 @@ public class NativeImagePlugin implements Plugin<Project> {
         configurationRepository.getUri().convention(configurationRepository.getVersion().map(serializableTransformerOf(this::getReachabilityMetadataRepositoryUrlForVersion)));
         configurationRepository.getExcludedModules().convention(Collections.emptySet());
         configurationRepository.getModuleToConfigVersion().convention(Collections.emptyMap());
+        configurationRepository.getExtractOnDemand().convention(false);
+        configurationRepository.getMergeMetadata().convention(false);
+        configurationRepository.getPruneMetadata().convention(false);
+        configurationRepository.getLockFile().convention(project.getLayout().getProjectDirectory().file(MetadataLockFile.DEFAULT_FILE_NAME));
     }
 
     private URI getReachabilityMetadataRepositoryUrlForVersion(String version) {
@@ -801,12 +888,21 @@ public class NativeImagePlugin implements Plugin<Project> {
                                                                                   NativeImageOptions options,
                                                                                   TaskContainer tasks,
                                                                                   FileCollection transitiveProjectArtifacts,
+                                                                                  Configuration runtimeClasspath,
                                                                                   String name) {
         return tasks.register(name, GenerateResourcesConfigFile.class, task -> {
             task.setDescription("Scans resources and generates a resource-config.json file for the " + options.getName() + " binary.");
             task.getOptions().convention(options.getResources());
             task.getClasspath().from(options.getClasspath());
             task.getTransitiveProjectArtifacts().from(transitiveProjectArtifacts);
+            task.getResolvedJars().from(runtimeClasspath.getIncoming().getFiles());
+            // Jars are only transformed when resource detection is enabled
+            FileCollection resourceLists = runtimeClasspath.getIncoming()
+                .artifactView(view -> view.attributes(attributes -> attributes.attribute(RESOURCE_ANALYSIS_ATTRIBUTE, true)))
+                .getFiles();
+            FileCollection noResourceLists = task.getProject().files();
+            task.getResourceLists().from(options.getResources().getDetectionOptions().getEnabled()
+                .map(serializableTransformerOf(enabled -> enabled ? resourceLists : noResourceLists)));
             task.getOutputFile().convention(generatedDir.map(d -> d.file(name + "/resource-config.json")));
         });
     }
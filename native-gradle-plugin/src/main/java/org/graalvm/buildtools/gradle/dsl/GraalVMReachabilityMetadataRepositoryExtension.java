@@ -40,6 +40,7 @@
  */
 package org.graalvm.buildtools.gradle.dsl;
 
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
@@ -95,6 +96,49 @@ public interface GraalVMReachabilityMetadataRepositoryExtension {
      */
     MapProperty<String, String> getModuleToConfigVersion();
 
+    /**
+     * When enabled, a zipped repository is queried directly from the
+     * archive instead of being extracted first, and only the
+     * configuration directories which are selected for the build are
+     * extracted. This avoids extracting the whole repository on the first
+     * build, for example on ephemeral CI agents. Defaults to false.
+     *
+     * @return the extract on demand property
+     */
+    Property<Boolean> getExtractOnDemand();
+
+    /**
+     * The lock file recording the configuration directories selected for
+     * each dependency, as written by the {@code generateMetadataLock} task.
+     * When the file exists and was generated from the same repository
+     * contents, locked dependencies are resolved without querying the
+     * repository indexes. Defaults to {@code reachability-metadata-lock.json}
+     * in the project directory.
+     *
+     * @return the lock file property
+     */
+    RegularFileProperty getLockFile();
+
+    /**
+     * When enabled, the metadata selected for a binary is merged into a
+     * single configuration directory by the {@code merge*ReachabilityMetadata}
+     * tasks, instead of passing every selected directory to Native Image.
+     * Defaults to false.
+     *
+     * @return the merge metadata property
+     */
+    Property<Boolean> getMergeMetadata();
+
+    /**
+     * When enabled, the metadata selected for a binary is merged as with
+     * {@link #getMergeMetadata()}, and the reflection, JNI, resource and
+     * proxy entries which refer to types that aren't on the classpath of
+     * the binary are dropped. Defaults to false.
+     *
+     * @return the prune metadata property
+     */
+    Property<Boolean> getPruneMetadata();
+
     /**
      * Convenience method to use a String for the URI
      * property.
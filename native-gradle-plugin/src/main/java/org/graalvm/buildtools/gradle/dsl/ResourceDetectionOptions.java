@@ -87,6 +87,19 @@ public abstract class ResourceDetectionOptions {
     @Input
     public abstract SetProperty<String> getDetectionExclusionPatterns();
 
+    /**
+     * If set to true, then the detected resources of a directory are written as
+     * a single pattern when every file below that directory, in any entry of the
+     * classpath, is a detected resource. The resource lists of the jars of the
+     * classpath are reused to check it, and the set of included resources is
+     * unchanged.
+     * Default value is false.
+     *
+     * @return if detected resources should be compacted into directory patterns
+     */
+    @Input
+    public abstract Property<Boolean> getCompactPatterns();
+
     /**
      * Adds the default resource excludes for detection, which can be useful if
      * you want to add more excludes but still want the conventional ones to be
@@ -105,5 +118,6 @@ public abstract class ResourceDetectionOptions {
         getRestrictToProjectDependencies().convention(true);
         getIgnoreExistingResourcesConfigFile().convention(false);
         getDetectionExclusionPatterns().convention(SharedConstants.DEFAULT_EXCLUDES_FOR_RESOURCE_DETECTION);
+        getCompactPatterns().convention(false);
     }
 }
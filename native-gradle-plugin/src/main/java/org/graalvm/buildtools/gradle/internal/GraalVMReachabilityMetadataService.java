@@ -42,14 +42,18 @@ package org.graalvm.buildtools.gradle.internal;
 
 import org.graalvm.buildtools.utils.ExponentialBackoff;
 import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.buildtools.utils.ResumableDownloader;
 import org.graalvm.reachability.DirectoryConfiguration;
 import org.graalvm.reachability.GraalVMReachabilityMetadataRepository;
+import org.graalvm.reachability.MetadataLockFile;
 import org.graalvm.reachability.Query;
+import org.graalvm.reachability.RepositoryMetrics;
+import org.graalvm.reachability.RepositoryQueryListener;
+import org.graalvm.reachability.internal.ArchiveRepository;
 import org.graalvm.reachability.internal.FileSystemRepository;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
-import org.gradle.api.file.ArchiveOperations;
 import org.gradle.api.file.DirectoryProperty;
-import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -57,18 +61,17 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 
-import javax.inject.Inject;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -76,16 +79,13 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-public abstract class GraalVMReachabilityMetadataService implements BuildService<GraalVMReachabilityMetadataService.Params>, GraalVMReachabilityMetadataRepository {
+public abstract class GraalVMReachabilityMetadataService implements BuildService<GraalVMReachabilityMetadataService.Params>, GraalVMReachabilityMetadataRepository, AutoCloseable {
     private static final Logger LOGGER = Logging.getLogger(GraalVMReachabilityMetadataService.class);
 
+    private final FileSystemRepository sharedRepository;
     private final GraalVMReachabilityMetadataRepository repository;
-
-    @Inject
-    protected abstract ArchiveOperations getArchiveOperations();
-
-    @Inject
-    protected abstract FileSystemOperations getFileOperations();
+    private final RepositoryMetrics metrics;
+    private Optional<MetadataLockFile> lockFile;
 
     public interface Params extends BuildServiceParameters {
         Property<Integer> getBackoffMaxRetries();
@@ -100,94 +100,124 @@ public abstract class GraalVMReachabilityMetadataService implements BuildService
 
         Property<String> getRepositoryDescription();
 
+        Property<Boolean> getExtractOnDemand();
+
+        Property<Boolean> getRevalidateDownloads();
+
+        Property<Boolean> getShared();
+
         DirectoryProperty getCacheDir();
+
+        RegularFileProperty getLockFile();
+
+        RegularFileProperty getMetricsFile();
     }
 
     public GraalVMReachabilityMetadataService() throws URISyntaxException {
         URI uri = getParameters().getUri().get();
-        this.repository = newRepository(uri);
+        FileSystemRepository.Logger logger = newLogger(getParameters().getLogLevel().get());
+        if (getParameters().getShared().getOrElse(false)) {
+            // Projects using the same repository share a single instance, which isn't tied to the logger of the first project
+            this.sharedRepository = SharedMetadataRepositories.acquire(uri,
+                getParameters().getExtractOnDemand().get(),
+                getParameters().getCacheDir().get().getAsFile(),
+                () -> newRepository(uri, newLogger(LogLevel.DEBUG)));
+            // Queries go through a view of the shared instance, which logs and reports them for this project only
+            this.repository = sharedRepository.withLogger(logger);
+        } else {
+            this.sharedRepository = null;
+            this.repository = newRepository(uri, logger);
+        }
+        if (getParameters().getMetricsFile().isPresent()) {
+            this.metrics = new RepositoryMetrics();
+            repository.addQueryListener(metrics);
+        } else {
+            this.metrics = null;
+        }
         if (getParameters().getEnabled().get()) {
             // Normal Gradle output exposes the enabled repository selection. §FS-resources-and-metadata.3.
             GraalVMLogger.of(LOGGER).lifecycle("Using GraalVM reachability metadata repository " + getParameters().getRepositoryDescription().get());
         }
     }
 
-    private GraalVMReachabilityMetadataRepository newRepository(URI uri) throws URISyntaxException {
+    private FileSystemRepository newRepository(URI uri, FileSystemRepository.Logger logger) throws URISyntaxException {
         String cacheKey = FileUtils.hashFor(uri);
         String path = uri.getPath();
-        LogLevel logLevel = getParameters().getLogLevel().get();
         if (uri.getScheme().equals("file")) {
             File localFile = new File(uri);
             if (FileSystemRepository.isSupportedArchiveFormat(path)) {
-                return newRepositoryFromZipFile(cacheKey, localFile, logLevel);
+                return newRepositoryFromZipFile(cacheKey, localFile, logger);
             }
-            return newRepositoryFromDirectory(localFile.toPath(), logLevel);
+            return newRepositoryFromDirectory(localFile.toPath(), logger);
         }
         String format = FileSystemRepository.getArchiveFormat(path);
         if (format != null) {
             File zipped = getParameters().getCacheDir().file(cacheKey + "/archive" + format).get().getAsFile();
-            if (!zipped.exists()) {
-                File cacheDirParent = zipped.getParentFile();
-                if (cacheDirParent.exists()) {
-                    if (!cacheDirParent.isDirectory()) {
-                        throw new RuntimeException("Cache directory path must not exist or must be a directory: " + cacheDirParent.getAbsolutePath());
-                    }
-                } else {
-                    try {
-                        Files.createDirectories(cacheDirParent.toPath());
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                ExponentialBackoff.get()
-                    .withMaxRetries(getParameters().getBackoffMaxRetries().get())
-                    .withInitialWaitPeriod(Duration.ofMillis(getParameters().getInitialBackoffMillis().get()))
-                    .execute(() -> {
-                        try (ReadableByteChannel readableByteChannel = Channels.newChannel(uri.toURL().openStream())) {
-                            try (FileOutputStream fileOutputStream = new FileOutputStream(zipped)) {
-                                fileOutputStream.getChannel().transferFrom(readableByteChannel, 0, Long.MAX_VALUE);
-                            }
-                        }
-                    });
+            File cacheDirParent = zipped.getParentFile();
+            if (cacheDirParent.exists() && !cacheDirParent.isDirectory()) {
+                throw new RuntimeException("Cache directory path must not exist or must be a directory: " + cacheDirParent.getAbsolutePath());
             }
-            return newRepositoryFromZipFile(cacheKey, zipped, logLevel);
+            // Interrupted downloads are resumed by the next attempt, and corrupted ones are never published
+            ResumableDownloader downloader = ResumableDownloader.get()
+                .withRevalidation(getParameters().getRevalidateDownloads().getOrElse(false))
+                .withLogger(LOGGER::info);
+            ExponentialBackoff.get()
+                .withMaxRetries(getParameters().getBackoffMaxRetries().get())
+                .withInitialWaitPeriod(Duration.ofMillis(getParameters().getInitialBackoffMillis().get()))
+                .execute(() -> downloader.download(uri.toURL(), zipped.toPath()));
+            return newRepositoryFromZipFile(cacheKey, zipped, logger);
         }
         throw new UnsupportedOperationException("Remote URI must point to a zip, a tar.gz or tar.bz2 file");
     }
 
-    private FileSystemRepository newRepositoryFromZipFile(String cacheKey, File localFile, LogLevel logLevel) {
+    private FileSystemRepository newRepositoryFromZipFile(String cacheKey, File localFile, FileSystemRepository.Logger logger) {
+        if (getParameters().getExtractOnDemand().get() && localFile.getName().endsWith(".zip")) {
+            File onDemandEntry = getParameters().getCacheDir().file(cacheKey + "/on-demand").get().getAsFile();
+            try {
+                return ArchiveRepository.open(localFile.toPath(), onDemandEntry.toPath(), logger);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
         File explodedEntry = getParameters().getCacheDir().file(cacheKey + "/exploded").get().getAsFile();
-        if (!explodedEntry.exists()) {
-            if (explodedEntry.getParentFile().isDirectory() || explodedEntry.getParentFile().mkdirs()) {
-                LOGGER.info("Extracting {} to {}", localFile, explodedEntry);
-                getFileOperations().copy(spec -> {
-                    if (localFile.getName().endsWith(".zip")) {
-                        spec.from(getArchiveOperations().zipTree(localFile));
-                    } else if (localFile.getName().endsWith(".tar.gz")) {
-                        spec.from(getArchiveOperations().tarTree(localFile));
-                    } else if (localFile.getName().endsWith(".tar.bz2")) {
-                        spec.from(getArchiveOperations().tarTree(localFile));
-                    }
-                    spec.into(explodedEntry);
-                });
+        if (!FileUtils.isExtracted(localFile.toPath(), explodedEntry.toPath())) {
+            LOGGER.info("Extracting {} to {}", localFile, explodedEntry);
+            if (!FileUtils.extractAtomically(localFile.toPath(), explodedEntry.toPath(), LOGGER::error)) {
+                throw new RuntimeException("Unable to extract GraalVM reachability metadata repository " + localFile);
+            }
+            try {
+                FileSystemRepository.writeBinaryIndex(explodedEntry.toPath());
+            } catch (IOException e) {
+                LOGGER.warn("Unable to generate the binary index of the GraalVM reachability metadata repository at {}: {}", explodedEntry, e.getMessage());
             }
         }
-        return newRepositoryFromDirectory(explodedEntry.toPath(), logLevel);
+        return newRepositoryFromDirectory(explodedEntry.toPath(), logger);
     }
 
-    private FileSystemRepository newRepositoryFromDirectory(Path path, LogLevel logLevel) {
+    private FileSystemRepository newRepositoryFromDirectory(Path path, FileSystemRepository.Logger logger) {
         if (Files.isDirectory(path)) {
-            return new FileSystemRepository(path, new FileSystemRepository.Logger() {
-                @Override
-                public void log(String groupId, String artifactId, String version, Supplier<String> message) {
-                    LOGGER.log(logLevel, "[graalvm reachability metadata repository for {}:{}:{}]: {}", groupId, artifactId, version, message.get());
-                }
-            });
+            return new FileSystemRepository(path, logger);
         } else {
             throw new IllegalArgumentException("GraalVM reachability metadata repository URI must point to a directory");
         }
     }
 
+    private static FileSystemRepository.Logger newLogger(LogLevel logLevel) {
+        return new FileSystemRepository.Logger() {
+            @Override
+            public void log(String groupId, String artifactId, String version, Supplier<String> message) {
+                LOGGER.log(logLevel, "[graalvm reachability metadata repository for {}:{}:{}]: {}", groupId, artifactId, version, message.get());
+            }
+
+            @Override
+            public void debug(Supplier<String> message) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("[graalvm reachability metadata repository]: {}", message.get());
+                }
+            }
+        };
+    }
+
     /**
      * Performs a generic query on the repository, returning a list of
      * configurations. The query may be parameterized with
@@ -234,6 +264,16 @@ public abstract class GraalVMReachabilityMetadataService implements BuildService
         return repository.findConfigurationsFor(modules);
     }
 
+    @Override
+    public void addQueryListener(RepositoryQueryListener listener) {
+        repository.addQueryListener(listener);
+    }
+
+    @Override
+    public void removeQueryListener(RepositoryQueryListener listener) {
+        repository.removeQueryListener(listener);
+    }
+
     public Set<DirectoryConfiguration> findConfigurationsFor(Set<String> excludedModules, Map<String, String> forcedVersions, ModuleVersionIdentifier moduleVersion) {
         Objects.requireNonNull(moduleVersion);
         String groupAndArtifact = moduleVersion.getGroup() + ":" + moduleVersion.getName();
@@ -250,10 +290,125 @@ public abstract class GraalVMReachabilityMetadataService implements BuildService
         });
     }
 
+    @Override
+    public Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(Collection<String> gavCoordinates,
+                                                                                  Set<String> excludedModules,
+                                                                                  Map<String, String> forcedVersions) {
+        if (repository instanceof FileSystemRepository fsRepo) {
+            Optional<MetadataLockFile> lock = lockFileFor(fsRepo);
+            if (lock.isPresent()) {
+                return lock.get().findConfigurationsForClasspath(fsRepo, gavCoordinates, excludedModules, forcedVersions);
+            }
+        }
+        return repository.findConfigurationsForClasspath(gavCoordinates, excludedModules, forcedVersions);
+    }
+
+    private synchronized Optional<MetadataLockFile> lockFileFor(FileSystemRepository fsRepo) {
+        if (lockFile == null) {
+            lockFile = readLockFile(fsRepo);
+        }
+        return lockFile;
+    }
+
+    private Optional<MetadataLockFile> readLockFile(FileSystemRepository fsRepo) {
+        if (!getParameters().getLockFile().isPresent()) {
+            return Optional.empty();
+        }
+        Path file = getParameters().getLockFile().get().getAsFile().toPath();
+        try {
+            Optional<MetadataLockFile> lock = MetadataLockFile.read(file);
+            if (lock.isPresent() && !lock.get().isUpToDate(fsRepo)) {
+                LOGGER.warn("Ignoring GraalVM reachability metadata lock file {} because it was generated from a different repository. Run the generateMetadataLock task to update it.", file);
+                return Optional.empty();
+            }
+            lock.ifPresent(l -> LOGGER.info("Using GraalVM reachability metadata lock file {}", file));
+            return lock;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read GraalVM reachability metadata lock file {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Queries the repository for all the supplied modules, ignoring any existing
+     * lock file, and records the selected configuration directories.
+     *
+     * @param excludedModules the modules which must not be looked up
+     * @param forcedVersions the configuration version to use for a module
+     * @param moduleVersions the modules of the classpath
+     * @return the lock file
+     */
+    public MetadataLockFile generateLockFile(Set<String> excludedModules, Map<String, String> forcedVersions, Collection<ModuleVersionIdentifier> moduleVersions) {
+        if (!(repository instanceof FileSystemRepository fsRepo)) {
+            throw new IllegalStateException("Lock files can only be generated for file system repositories");
+        }
+        List<String> gavs = new ArrayList<>();
+        for (ModuleVersionIdentifier moduleVersion : moduleVersions) {
+            gavs.add(moduleVersion.getGroup() + ":" + moduleVersion.getName() + ":" + moduleVersion.getVersion());
+        }
+        return MetadataLockFile.generate(fsRepo, getParameters().getRepositoryDescription().getOrNull(), gavs, excludedModules, forcedVersions);
+    }
+
+    /**
+     * Returns the configurations of all the supplied modules, resolved in a single
+     * classpath query.
+     *
+     * @param excludedModules the modules which must not be looked up
+     * @param forcedVersions the configuration version to use for a module
+     * @param moduleVersions the modules of the classpath
+     * @return the configurations of each module, in the order of the supplied modules
+     */
+    public Map<ModuleVersionIdentifier, Set<DirectoryConfiguration>> findConfigurationsFor(Set<String> excludedModules, Map<String, String> forcedVersions, Collection<ModuleVersionIdentifier> moduleVersions) {
+        Map<String, ModuleVersionIdentifier> modulesByGav = new LinkedHashMap<>();
+        for (ModuleVersionIdentifier moduleVersion : moduleVersions) {
+            Objects.requireNonNull(moduleVersion);
+            modulesByGav.put(moduleVersion.getGroup() + ":" + moduleVersion.getName() + ":" + moduleVersion.getVersion(), moduleVersion);
+        }
+        Map<ModuleVersionIdentifier, Set<DirectoryConfiguration>> result = new LinkedHashMap<>();
+        findConfigurationsForClasspath(modulesByGav.keySet(), excludedModules, forcedVersions)
+            .forEach((gav, configurations) -> result.put(modulesByGav.get(gav), configurations));
+        return result;
+    }
+
+    /**
+     * Returns the content hash of the repository, which lock files record.
+     *
+     * @return the content hash, if the repository is a file system repository
+     */
+    public Optional<String> getRepositoryContentHash() {
+        if (repository instanceof FileSystemRepository fsRepo) {
+            return Optional.of(fsRepo.getContentHash());
+        }
+        return Optional.empty();
+    }
+
     public Optional<Path> getRepositoryDirectory() {
         if (repository instanceof FileSystemRepository fsRepo) {
             return Optional.of(fsRepo.getRootDirectory());
         }
         return Optional.empty();
     }
+
+    private void writeMetrics() {
+        Path file = getParameters().getMetricsFile().get().getAsFile().toPath();
+        try {
+            metrics.writeJson(file);
+            LOGGER.info("GraalVM reachability metadata repository metrics written to {}", file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write GraalVM reachability metadata repository metrics to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (metrics != null) {
+            repository.removeQueryListener(metrics);
+            writeMetrics();
+        }
+        if (sharedRepository != null) {
+            SharedMetadataRepositories.release(sharedRepository);
+        } else if (repository instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
 }
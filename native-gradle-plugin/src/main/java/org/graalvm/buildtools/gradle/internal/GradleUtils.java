@@ -98,6 +98,12 @@ public class GradleUtils {
             .orElse(defaultValue);
     }
 
+    public static Provider<Boolean> booleanProperty(ProviderFactory providers, String propertyName, boolean defaultValue) {
+        return stringProperty(providers, propertyName)
+            .map(Boolean::parseBoolean)
+            .orElse(defaultValue);
+    }
+
     private static Provider<String> stringProperty(ProviderFactory providers, String propertyName) {
         return providers.systemProperty(propertyName)
             .orElse(providers.gradleProperty(propertyName))
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.buildtools.gradle.internal;
+
+import org.graalvm.reachability.internal.FileSystemRepository;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the metadata repositories which are shared by all the projects
+ * of a build. A repository is opened by the first service which needs it, and
+ * closed when the last service using it is closed. Repositories are immutable
+ * once opened, so they can be queried concurrently.
+ * <p>
+ * Repositories are only identified by what determines their content. The
+ * parameters of each project, including its logger and log level, are
+ * applied by the view through which its service queries the repository.
+ */
+final class SharedMetadataRepositories {
+    private static final Map<Key, Entry> REPOSITORIES = new HashMap<>();
+
+    private SharedMetadataRepositories() {
+    }
+
+    interface RepositoryFactory {
+        FileSystemRepository create() throws URISyntaxException;
+    }
+
+    static synchronized FileSystemRepository acquire(URI uri, boolean extractOnDemand, File cacheDir, RepositoryFactory factory) throws URISyntaxException {
+        Key key = new Key(uri, extractOnDemand, cacheDir);
+        Entry entry = REPOSITORIES.get(key);
+        if (entry == null) {
+            entry = new Entry(factory.create());
+            REPOSITORIES.put(key, entry);
+        }
+        entry.usages++;
+        return entry.repository;
+    }
+
+    static void release(FileSystemRepository repository) throws Exception {
+        AutoCloseable closeable = null;
+        synchronized (SharedMetadataRepositories.class) {
+            var it = REPOSITORIES.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.repository == repository) {
+                    if (--entry.usages == 0) {
+                        it.remove();
+                        if (repository instanceof AutoCloseable c) {
+                            closeable = c;
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        if (closeable != null) {
+            closeable.close();
+        }
+    }
+
+    private record Key(URI uri, boolean extractOnDemand, File cacheDir) {
+    }
+
+    private static final class Entry {
+        private final FileSystemRepository repository;
+        private int usages;
+
+        private Entry(FileSystemRepository repository) {
+            this.repository = repository;
+        }
+    }
+}
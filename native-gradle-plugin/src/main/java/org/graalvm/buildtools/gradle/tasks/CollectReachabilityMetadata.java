@@ -61,8 +61,11 @@ import org.gradle.api.tasks.TaskAction;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -136,22 +139,26 @@ public abstract class CollectReachabilityMetadata extends DefaultTask {
             GraalVMReachabilityMetadataService service = getMetadataService().get();
             Set<String> excludedModules = getExcludedModules().getOrElse(Collections.emptySet());
             Map<String, String> forcedVersions = getModuleToConfigVersion().getOrElse(Collections.emptyMap());
-            visit(getRootComponent().get(), service, excludedModules, forcedVersions, new HashSet<>());
+            Set<ResolvedComponentResult> components = new LinkedHashSet<>();
+            visit(getRootComponent().get(), components);
+            List<ModuleVersionIdentifier> moduleVersions = new ArrayList<>();
+            for (ResolvedComponentResult component : components) {
+                moduleVersions.add(component.getModuleVersion());
+            }
+            Path destination = getInto().get().getAsFile().toPath();
+            Set<DirectoryConfiguration> configurations = new LinkedHashSet<>();
+            for (Set<DirectoryConfiguration> moduleConfigurations : service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersions).values()) {
+                configurations.addAll(moduleConfigurations);
+            }
+            DirectoryConfiguration.copy(configurations, destination, getTemporaryDir().toPath().resolve("copied-files.txt"));
         }
     }
 
-    private void visit(ResolvedComponentResult component,
-                       GraalVMReachabilityMetadataService service,
-                       Set<String> excludedModules,
-                       Map<String, String> forcedVersions,
-                       Set<ResolvedComponentResult> visited) throws IOException {
+    private static void visit(ResolvedComponentResult component, Set<ResolvedComponentResult> visited) {
         if (visited.add(component)) {
-            ModuleVersionIdentifier moduleVersion = component.getModuleVersion();
-            Set<DirectoryConfiguration> configurations = service.findConfigurationsFor(excludedModules, forcedVersions, moduleVersion);
-            DirectoryConfiguration.copy(configurations, getInto().get().getAsFile().toPath());
             for (DependencyResult dependency : component.getDependencies()) {
                 if (dependency instanceof ResolvedDependencyResult) {
-                    visit(((ResolvedDependencyResult) dependency).getSelected(), service, excludedModules, forcedVersions, visited);
+                    visit(((ResolvedDependencyResult) dependency).getSelected(), visited);
                 }
             }
         }
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.buildtools.gradle.tasks;
+
+import org.graalvm.buildtools.gradle.internal.GraalVMReachabilityMetadataService;
+import org.graalvm.reachability.MetadataLockFile;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the reachability metadata selected for the Gradle runtime dependencies
+ * into a lock file. §FS-common-libraries.5.3.
+ * Later builds resolve the locked dependencies without querying the repository.
+ */
+public abstract class GenerateMetadataLock extends DefaultTask {
+
+    public void setClasspath(Configuration classpath) {
+        getRootComponent().set(classpath.getIncoming().getResolutionResult().getRootComponent());
+    }
+
+    @Input
+    @Optional
+    protected abstract Property<ResolvedComponentResult> getRootComponent();
+
+    @Internal
+    public abstract Property<GraalVMReachabilityMetadataService> getMetadataService();
+
+    /**
+     * The URI of the GraalVM reachability metadata repository the lock file
+     * is generated from.
+     *
+     * @return the uri property
+     */
+    @Input
+    @Optional
+    public abstract Property<URI> getUri();
+
+    /**
+     * The content hash of the repository the lock file is generated from,
+     * so that the lock file is generated again when the repository changes.
+     *
+     * @return the content hash property
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getRepositoryContentHash();
+
+    /**
+     * The set of modules for which we don't want to use the
+     * configuration found in the repository. Modules must be
+     * declared with the `groupId:artifactId` syntax.
+     *
+     * @return the set of excluded modules
+     */
+    @Input
+    @Optional
+    public abstract SetProperty<String> getExcludedModules();
+
+    /**
+     * A map from a module (org.group:artifact) to configuration
+     * repository config version.
+     *
+     * @return the map of modules to forced configuration versions
+     */
+    @Input
+    @Optional
+    public abstract MapProperty<String, String> getModuleToConfigVersion();
+
+    /**
+     * The generated lock file.
+     *
+     * @return the lock file property
+     */
+    @OutputFile
+    public abstract RegularFileProperty getLockFile();
+
+    @TaskAction
+    void generateLockFile() throws IOException {
+        List<ModuleVersionIdentifier> moduleVersions = new ArrayList<>();
+        if (getRootComponent().isPresent()) {
+            Set<ResolvedComponentResult> components = new LinkedHashSet<>();
+            visit(getRootComponent().get(), components);
+            for (ResolvedComponentResult component : components) {
+                moduleVersions.add(component.getModuleVersion());
+            }
+        }
+        MetadataLockFile lockFile = getMetadataService().get().generateLockFile(
+            getExcludedModules().getOrElse(Collections.emptySet()),
+            getModuleToConfigVersion().getOrElse(Collections.emptyMap()),
+            moduleVersions);
+        Path destination = getLockFile().get().getAsFile().toPath();
+        lockFile.write(destination);
+        getLogger().lifecycle("Locked reachability metadata of {} dependencies in {}", lockFile.getArtifacts().size(), destination);
+    }
+
+    private static void visit(ResolvedComponentResult component, Set<ResolvedComponentResult> visited) {
+        if (visited.add(component)) {
+            for (DependencyResult dependency : component.getDependencies()) {
+                if (dependency instanceof ResolvedDependencyResult) {
+                    visit(((ResolvedDependencyResult) dependency).getSelected(), visited);
+                }
+            }
+        }
+    }
+
+}
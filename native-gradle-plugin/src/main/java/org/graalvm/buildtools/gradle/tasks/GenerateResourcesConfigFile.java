@@ -43,11 +43,14 @@ package org.graalvm.buildtools.gradle.tasks;
 import org.graalvm.buildtools.gradle.dsl.NativeResourcesOptions;
 import org.graalvm.buildtools.gradle.dsl.ResourceDetectionOptions;
 import org.graalvm.buildtools.gradle.internal.GraalVMLogger;
+import org.graalvm.buildtools.gradle.tasks.scanner.ResourceAnalyzerTransform;
 import org.graalvm.buildtools.model.resources.ClassPathEntryAnalyzer;
 import org.graalvm.buildtools.model.resources.Helper;
+import org.graalvm.buildtools.model.resources.JarResourceList;
 import org.graalvm.buildtools.model.resources.NamedValue;
 import org.graalvm.buildtools.model.resources.PatternValue;
 import org.graalvm.buildtools.model.resources.ResourceFilter;
+import org.graalvm.buildtools.model.resources.ResourcePatternCompactor;
 import org.graalvm.buildtools.model.resources.ResourcesConfigModel;
 import org.graalvm.buildtools.model.resources.ResourcesModel;
 import org.graalvm.buildtools.model.resources.ResourcesConfigModelSerializer;
@@ -58,15 +61,24 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -88,6 +100,21 @@ public abstract class GenerateResourcesConfigFile extends DefaultTask {
     @Classpath
     public abstract ConfigurableFileCollection getTransitiveProjectArtifacts();
 
+    /**
+     * The jars of the classpath which are resolved from dependencies. They are already
+     * part of the classpath, and are only used to find their resource lists.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getResolvedJars();
+
+    /**
+     * The resource lists computed by the {@link ResourceAnalyzerTransform} for each
+     * of the {@link #getResolvedJars() resolved jars}, in the same order.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getResourceLists();
+
     @OutputFile
     public abstract RegularFileProperty getOutputFile();
 
@@ -112,37 +139,60 @@ public abstract class GenerateResourcesConfigFile extends DefaultTask {
         Set<String> detectedResources = new LinkedHashSet<>();
         boolean projectLocalOnly = detectionOptions.getRestrictToProjectDependencies().get();
         Set<File> projectsArtifacts = getTransitiveProjectArtifacts().getFiles();
+        List<File> entries = new ArrayList<>();
         for (File file : classpath) {
             if (projectLocalOnly && file.getName().endsWith(".jar") && !projectsArtifacts.contains(file)) {
                 continue;
             }
-            // todo: ideally we should try to find a way for Gradle to cache the analysis per jar
-            // which should be doable via artifact transforms instead
-            detectResourcesFromClasspathEntry(filter, detectedResources, file, detectionOptions.getIgnoreExistingResourcesConfigFile().get());
+            entries.add(file);
+        }
+        // Entries are analyzed concurrently, and merged in classpath order. Resolved jars
+        // are read from the resource lists which Gradle computes once per jar.
+        Map<File, File> resourceListFiles = resourceListsByJar();
+        JarResourceList.Provider resourceLists = jar -> {
+            File resourceList = resourceListFiles.get(jar);
+            return resourceList != null ? JarResourceList.read(resourceList.toPath()) : null;
+        };
+        for (ClassPathEntryAnalyzer.Analysis analysis : ClassPathEntryAnalyzer.analyzeAll(entries, filter::shouldIncludeResource,
+                detectionOptions.getIgnoreExistingResourcesConfigFile().get(), resourceLists)) {
+            GraalVMLogger.of(getLogger()).log("Detected resources for {} in {} ms are {}", analysis.file(),
+                    TimeUnit.NANOSECONDS.toMillis(analysis.durationNanos()), analysis.resources());
+            detectedResources.addAll(analysis.resources());
         }
         if (!detectedResources.isEmpty()) {
-            output.addAll(
-                    detectedResources.stream()
-                            .map(Pattern::quote)
-                            .map(PatternValue::new)
-                            .collect(Collectors.toList())
-            );
+            if (detectionOptions.getCompactPatterns().get()) {
+                List<String> patterns = ResourcePatternCompactor.compactForClasspath(detectedResources, classpath, resourceLists);
+                GraalVMLogger.of(getLogger()).lifecycle("Compacted " + detectedResources.size() + " detected resources into "
+                        + patterns.size() + " patterns");
+                output.addAll(patterns.stream().map(PatternValue::new).collect(Collectors.toList()));
+            } else {
+                output.addAll(
+                        detectedResources.stream()
+                                .map(Pattern::quote)
+                                .map(PatternValue::new)
+                                .collect(Collectors.toList())
+                );
+            }
         }
     }
 
-    /**
-     * Infers the resources to add to resource-config.json for a single classpath entry.
-     * If it's a directory, we will walk the directory and collect resources found in
-     * the directory. If it's a jar we do the same but with jar entries instead.
-     */
-    private void detectResourcesFromClasspathEntry(ResourceFilter filter,
-                                                   Set<String> detectedResources,
-                                                   File file,
-                                                   boolean ignoreExistingResourcesConfig) throws IOException {
-        ClassPathEntryAnalyzer analyzer = ClassPathEntryAnalyzer.of(file, filter::shouldIncludeResource, ignoreExistingResourcesConfig);
-        List<String> resources = analyzer.getResources();
-        GraalVMLogger.of(getLogger()).log("Detected resources for {} are {}", file, resources);
-        detectedResources.addAll(resources);
+    private Map<File, File> resourceListsByJar() {
+        Set<File> jars = getResolvedJars().getFiles();
+        Set<File> resourceLists = getResourceLists().getFiles();
+        if (jars.size() != resourceLists.size()) {
+            // Files resolved more than once can't be matched, so every jar is analyzed directly
+            return Collections.emptyMap();
+        }
+        Map<File, File> result = new HashMap<>();
+        Iterator<File> lists = resourceLists.iterator();
+        for (File jar : jars) {
+            File resourceList = lists.next();
+            // Artifacts which aren't jars are not transformed
+            if (resourceList.getName().equals(jar.getName() + ResourceAnalyzerTransform.RESOURCE_LIST_EXTENSION)) {
+                result.put(jar, resourceList);
+            }
+        }
+        return result;
     }
 
     private void serializeModel(ResourcesConfigModel model, File outputFile) throws IOException {
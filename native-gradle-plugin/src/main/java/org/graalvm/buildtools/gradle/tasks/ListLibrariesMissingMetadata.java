@@ -50,6 +50,7 @@ import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.result.DependencyResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
@@ -61,8 +62,10 @@ import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -118,6 +121,31 @@ public abstract class ListLibrariesMissingMetadata extends DefaultTask {
     @OutputFile
     public abstract RegularFileProperty getReportFile();
 
+    /**
+     * The directory in which Maven Central and GitHub issue lookups are cached
+     * across builds. Defaults to the user cache directory.
+     */
+    @Internal
+    public abstract DirectoryProperty getCacheDirectory();
+
+    /**
+     * How long cached lookups which found the artifact or issue are reused.
+     */
+    @Internal
+    public abstract Property<Duration> getCacheTtl();
+
+    /**
+     * How long cached lookups which found no artifact or issue are reused.
+     */
+    @Internal
+    public abstract Property<Duration> getNegativeCacheTtl();
+
+    /**
+     * When true, no remote lookup is performed and cached lookups are used even if expired.
+     */
+    @Internal
+    public abstract Property<Boolean> getOffline();
+
     @TaskAction
     void listLibrariesMissingMetadata() throws IOException {
         if (!Boolean.TRUE.equals(getMetadataRepositoryEnabled().get())) {
@@ -128,7 +156,7 @@ public abstract class ListLibrariesMissingMetadata extends DefaultTask {
         }
         GraalVMReachabilityMetadataService service = getMetadataService().get();
         List<MissingMetadataCommandSupport.DependencyCoordinate> dependencies = directExternalRuntimeDependencies(getRootComponent().get());
-        MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+        try (MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
             dependencies,
             service,
             getExcludedModules().getOrElse(Collections.emptySet()),
@@ -143,11 +171,18 @@ public abstract class ListLibrariesMissingMetadata extends DefaultTask {
                 getGithubApiUrl().get(),
                 null,
                 message -> getLogger().warn(message)
-            )
-        );
-        String reportFilePath = getReportFile().get().getAsFile().getAbsolutePath();
-        writeReport(report.toJsonString());
-        getLogger().lifecycle(report.renderConsoleOutput(reportFilePath));
+            ).withCache(
+                getCacheDirectory().isPresent()
+                    ? getCacheDirectory().get().getAsFile().toPath()
+                    : MissingMetadataCommandSupport.defaultCacheDirectory(),
+                getCacheTtl().getOrNull(),
+                getNegativeCacheTtl().getOrNull()
+            ).withOffline(getOffline().getOrElse(false))
+        )) {
+            String reportFilePath = getReportFile().get().getAsFile().getAbsolutePath();
+            writeReport(report);
+            report.writeConsoleOutput(reportFilePath, line -> getLogger().lifecycle(line));
+        }
     }
 
     static List<MissingMetadataCommandSupport.DependencyCoordinate> directExternalRuntimeDependencies(ResolvedComponentResult rootComponent) {
@@ -168,10 +203,12 @@ public abstract class ListLibrariesMissingMetadata extends DefaultTask {
         return dependencies;
     }
 
-    private void writeReport(String reportJson) throws IOException {
+    private void writeReport(MissingMetadataCommandSupport.Report report) throws IOException {
         if (getReportFile().get().getAsFile().getParentFile() != null) {
             Files.createDirectories(getReportFile().get().getAsFile().getParentFile().toPath());
         }
-        Files.writeString(getReportFile().get().getAsFile().toPath(), reportJson, StandardCharsets.UTF_8);
+        try (Writer writer = Files.newBufferedWriter(getReportFile().get().getAsFile().toPath(), StandardCharsets.UTF_8)) {
+            report.writeJson(writer);
+        }
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.buildtools.gradle.tasks;
+
+import org.graalvm.buildtools.gradle.internal.GraalVMLogger;
+import org.graalvm.buildtools.utils.JarScanner;
+import org.graalvm.reachability.ReachabilityMetadataMerger;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Merges the reachability metadata selected for a binary into a single configuration
+ * directory, optionally pruning the entries for types missing from the image classpath.
+ * §FS-resources-and-metadata.3.
+ */
+@CacheableTask
+public abstract class MergeReachabilityMetadata extends DefaultTask {
+
+    /**
+     * The configuration directories selected from the metadata repository.
+     *
+     * @return the configuration directories
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getConfigurationDirectories();
+
+    /**
+     * When enabled, entries which refer to types that aren't on the image
+     * classpath are dropped from the merged metadata.
+     *
+     * @return the prune metadata property
+     */
+    @Input
+    public abstract Property<Boolean> getPruneMetadata();
+
+    /**
+     * The classpath of the binary, whose jars and class directories are
+     * scanned for packages. Other files are ignored.
+     *
+     * @return the classpath analysis
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspathAnalysis();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @TaskAction
+    void mergeReachabilityMetadata() throws IOException {
+        List<Path> directories = new ArrayList<>();
+        for (File directory : getConfigurationDirectories()) {
+            directories.add(directory.toPath());
+        }
+        Path outputDirectory = getOutputDirectory().get().getAsFile().toPath();
+        if (getPruneMetadata().getOrElse(false)) {
+            ReachabilityMetadataMerger.Result result = ReachabilityMetadataMerger.merge(directories, outputDirectory, classpathPackages());
+            GraalVMLogger.of(getLogger()).lifecycle("Pruned " + result.getPrunedEntries() + " reachability metadata entries referring to types missing from the classpath");
+        } else {
+            ReachabilityMetadataMerger.merge(directories, outputDirectory);
+        }
+    }
+
+    private Set<String> classpathPackages() throws IOException {
+        Set<String> packages = new HashSet<>();
+        for (File file : getClasspathAnalysis()) {
+            packages.addAll(JarScanner.scanPackages(file.toPath()));
+        }
+        return packages;
+    }
+}
@@ -54,10 +54,13 @@ import org.apache.maven.toolchain.ToolchainManager;
 import org.codehaus.plexus.logging.Logger;
 import org.graalvm.buildtools.maven.config.ExcludeConfigConfiguration;
 import org.graalvm.buildtools.model.resources.NativeImageFlags;
+import org.graalvm.buildtools.utils.JarScanner;
 import org.graalvm.buildtools.utils.NativeImageConfigurationUtils;
 import org.graalvm.buildtools.utils.NativeImageUtils;
 import org.graalvm.buildtools.utils.SchemaValidationUtils;
 import org.graalvm.buildtools.utils.SharedConstants;
+import org.graalvm.reachability.DirectoryConfiguration;
+import org.graalvm.reachability.ReachabilityMetadataMerger;
 import org.graalvm.reachability.internal.FileSystemRepository;
 
 import javax.inject.Inject;
@@ -76,6 +79,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -99,6 +103,7 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
     protected static final String NATIVE_IMAGE_META_INF = "META-INF/native-image";
     protected static final String NATIVE_IMAGE_PROPERTIES_FILENAME = "native-image.properties";
     protected static final String NATIVE_IMAGE_DRY_RUN = "nativeDryRun";
+    private static final String MERGED_REACHABILITY_METADATA_DIRECTORY = "native/merged-reachability-metadata";
     private static final Pattern LAYER_CREATE_ARG = Pattern.compile(
             Pattern.quote(NativeImageFlags.LAYER_CREATE) + "(@[^=]*)?=.+");
     private static String nativeImageVersionInformation = null;
@@ -489,6 +494,7 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
     protected void addDependenciesToClasspath() throws MojoExecutionException {
         configureMetadataRepository();
         Set<Artifact> collected = new HashSet<>();
+        List<Artifact> metadataDependencies = new ArrayList<>();
         // Must keep classpath order is the same with surefire test
         for (Artifact dependency : project.getArtifacts()) {
             if (getDependencyScopes().contains(dependency.getScope()) && collected.add(dependency) && !isExcluded(dependency)) {
@@ -496,15 +502,16 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
                 if (dependencyPath != null) {
                     imageClasspath.add(dependencyPath);
                     if (dependency.getFile() != null) {
-                        maybeAddDependencyMetadata(dependency, file -> {
-                            buildArgs.add("--exclude-config");
-                            buildArgs.add(Pattern.quote(dependency.getFile().getAbsolutePath()));
-                            buildArgs.add("^/META-INF/native-image/");
-                        });
+                        metadataDependencies.add(dependency);
                     }
                 }
             }
         }
+        maybeAddDependenciesMetadata(metadataDependencies, dependency -> {
+            buildArgs.add("--exclude-config");
+            buildArgs.add(Pattern.quote(dependency.getFile().getAbsolutePath()));
+            buildArgs.add("^/META-INF/native-image/");
+        });
     }
 
     protected void addInferredDependenciesToClasspath() {
@@ -519,6 +526,13 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
         super.maybeAddDependencyMetadata(dependency, excludeAction);
     }
 
+    @Override
+    protected void maybeAddDependenciesMetadata(Collection<Artifact> dependencies, Consumer<Artifact> excludeAction) {
+        super.maybeAddDependenciesMetadata(dependencies.stream()
+            .filter(dependency -> !isExcluded(dependency))
+            .collect(Collectors.toList()), excludeAction);
+    }
+
     protected boolean isExcluded(Artifact dependency) {
         if (exclusions == null) {
             return false;
@@ -694,6 +708,26 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
 
     protected void maybeAddReachabilityMetadata(List<String> configDirs) {
         if (isMetadataRepositoryEnabled() && !metadataRepositoryConfigurations.isEmpty()) {
+            boolean prune = metadataRepositoryConfiguration != null && metadataRepositoryConfiguration.isPruneMetadata();
+            if (prune || metadataRepositoryConfiguration != null && metadataRepositoryConfiguration.isMergeMetadata()) {
+                Path mergedDirectory = outputDirectory.toPath().resolve(MERGED_REACHABILITY_METADATA_DIRECTORY).resolve(imageName);
+                List<Path> directories = metadataRepositoryConfigurations.stream()
+                        .map(DirectoryConfiguration::getDirectory)
+                        .collect(Collectors.toList());
+                try {
+                    ReachabilityMetadataMerger.Result result = ReachabilityMetadataMerger.merge(directories, mergedDirectory, prune ? imageClasspathPackages() : null);
+                    if (result.isWritten()) {
+                        logger.info("Merged " + directories.size() + " reachability metadata directories into " + mergedDirectory);
+                    }
+                    if (prune) {
+                        logger.info("Pruned " + result.getPrunedEntries() + " reachability metadata entries referring to types missing from the classpath");
+                    }
+                    configDirs.add(mergedDirectory.toAbsolutePath().toString());
+                    return;
+                } catch (IOException e) {
+                    logger.warn("Unable to merge reachability metadata, passing the selected directories to Native Image instead: " + e.getMessage());
+                }
+            }
             metadataRepositoryConfigurations.stream()
                     .map(configuration -> configuration.getDirectory().toAbsolutePath())
                     .map(Path::toFile)
@@ -701,4 +735,12 @@ public abstract class AbstractNativeImageMojo extends AbstractNativeMojo {
                     .forEach(configDirs::add);
         }
     }
+
+    private Set<String> imageClasspathPackages() throws IOException {
+        Set<String> packages = new HashSet<>();
+        for (Path entry : imageClasspath) {
+            packages.addAll(JarScanner.scanPackages(entry));
+        }
+        return packages;
+    }
 }
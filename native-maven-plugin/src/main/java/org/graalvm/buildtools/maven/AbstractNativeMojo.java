@@ -61,8 +61,11 @@ import org.graalvm.buildtools.VersionInfo;
 import org.graalvm.buildtools.maven.config.MetadataRepositoryConfiguration;
 import org.graalvm.buildtools.utils.ExponentialBackoff;
 import org.graalvm.buildtools.utils.FileUtils;
+import org.graalvm.buildtools.utils.ResumableDownloader;
 import org.graalvm.reachability.DirectoryConfiguration;
 import org.graalvm.reachability.GraalVMReachabilityMetadataRepository;
+import org.graalvm.reachability.MetadataLockFile;
+import org.graalvm.reachability.RepositoryMetrics;
 import org.graalvm.reachability.internal.FileSystemRepository;
 
 import javax.inject.Inject;
@@ -75,7 +78,14 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -116,6 +126,31 @@ public abstract class AbstractNativeMojo extends AbstractSkippableMojo {
 
     protected GraalVMReachabilityMetadataRepository metadataRepository;
 
+    /**
+     * The lock file recording the configuration directories selected for
+     * each dependency, as written by the {@code generate-metadata-lock} goal.
+     * Locked dependencies are resolved without querying the repository.
+     */
+    @Parameter(property = "graalvm.metadataLockFile", defaultValue = "${project.basedir}/" + MetadataLockFile.DEFAULT_FILE_NAME)
+    protected File metadataLockFile;
+
+    private Optional<MetadataLockFile> loadedMetadataLockFile;
+
+    /**
+     * Whether to collect metrics about the queries answered by the metadata
+     * repository, written as JSON to {@link #metadataRepositoryMetricsFile}
+     * at the end of the build, or after each goal when the plugin is not
+     * loaded as an extension. The metrics add up the queries of all the
+     * goals which write to the same file.
+     */
+    @Parameter(property = "graalvm.metadataRepositoryMetrics", defaultValue = "false")
+    protected boolean metadataRepositoryMetrics;
+
+    @Parameter(property = "graalvm.metadataRepositoryMetricsFile", defaultValue = "${project.build.directory}/native/reachability-metadata-metrics.json")
+    protected File metadataRepositoryMetricsFile;
+
+    private RepositoryMetrics repositoryMetrics;
+
     @Component
     protected Logger logger;
 
@@ -163,21 +198,60 @@ public abstract class AbstractNativeMojo extends AbstractSkippableMojo {
                     "https://graalvm.github.io/native-build-tools/latest/maven-plugin.html#_configuring_the_metadata_repository)");
         } else {
             logSelectedMetadataRepository();
-            metadataRepository = new FileSystemRepository(repoPath, new FileSystemRepository.Logger() {
-                @Override
-                public void log(String groupId, String artifactId, String version, Supplier<String> message) {
-                    logger.info(String.format("[graalvm reachability metadata repository for %s:%s:%s]: %s", groupId, artifactId, version, message.get()));
+            if (Files.isRegularFile(repoPath) && FileUtils.isZip(repoPath)) {
+                Path extractionDirectory = destinationRoot.resolve(FileUtils.hashFor(repoPath.toUri()) + "-on-demand");
+                try {
+                    // Archives are shared by the executions of the session, so each execution queries its own view
+                    metadataRepository = ArchiveRepositories.open(session, repoPath, extractionDirectory, newRepositoryLogger(), logger::warn)
+                            .withLogger(newRepositoryLogger());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
                 }
-            });
+            } else {
+                metadataRepository = new FileSystemRepository(repoPath, newRepositoryLogger());
+            }
+            if (metadataRepositoryMetrics && repositoryMetrics == null) {
+                repositoryMetrics = RepositoryMetricsFiles.metricsFor(session, metadataRepositoryMetricsFile.toPath());
+                metadataRepository.addQueryListener(repositoryMetrics);
+            }
+        }
+    }
+
+    @Override
+    protected void executionFinished() {
+        if (repositoryMetrics != null) {
+            metadataRepository.removeQueryListener(repositoryMetrics);
+            RepositoryMetricsFiles.executionFinished(session, metadataRepositoryMetricsFile.toPath(), logger::info, logger::warn);
+            repositoryMetrics = null;
         }
     }
 
+    private FileSystemRepository.Logger newRepositoryLogger() {
+        return new FileSystemRepository.Logger() {
+            @Override
+            public void log(String groupId, String artifactId, String version, Supplier<String> message) {
+                logger.info(String.format("[graalvm reachability metadata repository for %s:%s:%s]: %s", groupId, artifactId, version, message.get()));
+            }
+
+            @Override
+            public void debug(Supplier<String> message) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[graalvm reachability metadata repository]: " + message.get());
+                }
+            }
+        };
+    }
+
+    private boolean isMetadataRepositoryExtractedOnDemand() {
+        return metadataRepositoryConfiguration != null && metadataRepositoryConfiguration.isExtractOnDemand();
+    }
+
     private void logSelectedMetadataRepository() {
         // Normal Maven output exposes the repository selection. §FS-resources-and-metadata.2.
         logger.info("Using GraalVM reachability metadata repository " + describeSelectedMetadataRepository());
     }
 
-    private String describeSelectedMetadataRepository() {
+    protected String describeSelectedMetadataRepository() {
         if (metadataRepositoryConfiguration != null) {
             if (metadataRepositoryConfiguration.getVersion() != null) {
                 return "version " + metadataRepositoryConfiguration.getVersion();
@@ -253,17 +327,25 @@ public abstract class AbstractNativeMojo extends AbstractSkippableMojo {
         } catch (URISyntaxException e) {
             throw new RuntimeException(e);
         }
-        if (Files.exists(destination)) {
-            return destination;
-        } else {
-            Optional<Path> download = downloadMetadata(targetUrl, destination);
-            if (download.isPresent()) {
-                logger.info("Downloaded GraalVM reachability metadata repository from " + targetUrl);
-                return unzipLocalMetadata(download.get(), destination);
+        // Archives are downloaded next to the extracted repository, which is published atomically
+        Path archive = downloadMetadataArchive(destination.resolveSibling(destination.getFileName() + "-archive"), targetUrl);
+        if (archive == null) {
+            return null;
+        }
+        Path repository = unzipLocalMetadata(archive, destination);
+        if (repository == null && !"file".equals(targetUrl.getProtocol())) {
+            // The archive may be truncated, download it again next time
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException e) {
+                logger.warn("Unable to delete " + archive + ": " + e.getMessage());
             }
         }
+        return repository;
+    }
 
-        return null;
+    private Path downloadMetadataArchive(Path destination, URL targetUrl) {
+        return downloadMetadata(targetUrl, destination).orElse(null);
     }
 
     /**
@@ -335,22 +417,79 @@ public abstract class AbstractNativeMojo extends AbstractSkippableMojo {
     }
 
     protected void maybeAddDependencyMetadata(Artifact dependency, Consumer<File> excludeAction) {
-        if (isMetadataRepositoryEnabled() && metadataRepository != null && !isArtifactExcludedFromMetadataRepository(dependency)) {
-            Set<DirectoryConfiguration> configurations = metadataRepository.findConfigurationsFor(q -> {
-                q.useLatestConfigWhenVersionIsUntested();
-                q.forArtifact(artifact -> {
-                    artifact.gav(String.join(":",
-                            dependency.getGroupId(),
-                            dependency.getArtifactId(),
-                            dependency.getVersion()));
-                    getMetadataVersion(dependency).ifPresent(artifact::forceConfigVersion);
-                });
-            });
-            metadataRepositoryConfigurations.addAll(configurations);
-            if (excludeAction != null && configurations.stream().anyMatch(DirectoryConfiguration::isOverride)) {
-                excludeAction.accept(dependency.getFile());
+        maybeAddDependenciesMetadata(Collections.singletonList(dependency),
+                excludeAction == null ? null : artifact -> excludeAction.accept(artifact.getFile()));
+    }
+
+    /**
+     * Looks up the metadata of all the supplied dependencies in a single
+     * repository query.
+     * @param dependencies the dependencies to look up
+     * @param excludeAction called, in dependency order, for each dependency whose metadata overrides its own
+     */
+    protected void maybeAddDependenciesMetadata(Collection<Artifact> dependencies, Consumer<Artifact> excludeAction) {
+        if (isMetadataRepositoryEnabled() && metadataRepository != null) {
+            Map<String, List<Artifact>> dependenciesByGav = new LinkedHashMap<>();
+            Map<String, String> forcedVersions = new HashMap<>();
+            collectMetadataQuery(dependencies, dependenciesByGav, forcedVersions);
+            findConfigurationsForClasspath(dependenciesByGav.keySet(), forcedVersions)
+                    .forEach((gav, configurations) -> {
+                        metadataRepositoryConfigurations.addAll(configurations);
+                        if (excludeAction != null && configurations.stream().anyMatch(DirectoryConfiguration::isOverride)) {
+                            dependenciesByGav.get(gav).forEach(excludeAction);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Groups the dependencies which aren't excluded from the metadata repository
+     * by coordinates, and collects the configuration versions forced for their modules.
+     * @param dependencies the dependencies to look up
+     * @param dependenciesByGav the dependencies, keyed by group:artifact:version coordinates
+     * @param forcedVersions the forced configuration versions, keyed by group:artifact module
+     */
+    protected void collectMetadataQuery(Collection<Artifact> dependencies, Map<String, List<Artifact>> dependenciesByGav,
+                                        Map<String, String> forcedVersions) {
+        for (Artifact dependency : dependencies) {
+            if (!isArtifactExcludedFromMetadataRepository(dependency)) {
+                String module = dependency.getGroupId() + ":" + dependency.getArtifactId();
+                dependenciesByGav.computeIfAbsent(module + ":" + dependency.getVersion(), gav -> new ArrayList<>()).add(dependency);
+                getMetadataVersion(dependency).ifPresent(version -> forcedVersions.put(module, version));
+            }
+        }
+    }
+
+    private Map<String, Set<DirectoryConfiguration>> findConfigurationsForClasspath(Collection<String> gavs, Map<String, String> forcedVersions) {
+        if (metadataRepository instanceof FileSystemRepository) {
+            FileSystemRepository fsRepo = (FileSystemRepository) metadataRepository;
+            Optional<MetadataLockFile> lock = readMetadataLockFile(fsRepo);
+            if (lock.isPresent()) {
+                return lock.get().findConfigurationsForClasspath(fsRepo, gavs, Collections.emptySet(), forcedVersions);
             }
         }
+        return metadataRepository.findConfigurationsForClasspath(gavs, Collections.emptySet(), forcedVersions);
+    }
+
+    private Optional<MetadataLockFile> readMetadataLockFile(FileSystemRepository fsRepo) {
+        if (loadedMetadataLockFile == null) {
+            loadedMetadataLockFile = Optional.empty();
+            if (metadataLockFile != null) {
+                try {
+                    Optional<MetadataLockFile> lock = MetadataLockFile.read(metadataLockFile.toPath());
+                    if (lock.isPresent() && !lock.get().isUpToDate(fsRepo)) {
+                        logger.warn("Ignoring GraalVM reachability metadata lock file " + metadataLockFile
+                                + " because it was generated from a different repository. Run the generate-metadata-lock goal to update it.");
+                    } else {
+                        lock.ifPresent(l -> logger.info("Using GraalVM reachability metadata lock file " + metadataLockFile));
+                        loadedMetadataLockFile = lock;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Unable to read GraalVM reachability metadata lock file " + metadataLockFile + ": " + e.getMessage());
+                }
+            }
+        }
+        return loadedMetadataLockFile;
     }
 
     protected Optional<String> getMetadataVersion(Artifact dependency) {
@@ -362,22 +501,45 @@ public abstract class AbstractNativeMojo extends AbstractSkippableMojo {
     }
 
     protected Optional<Path> downloadMetadata(URL url, Path destination) {
-        return FileUtils.download(url, destination, logger::error);
+        String path = url.getPath();
+        Path target = destination.resolve(path.substring(path.lastIndexOf('/') + 1));
+        // Custom repository URLs may be updated in place, so their cached downloads are revalidated
+        boolean revalidate = metadataRepositoryConfiguration != null && metadataRepositoryConfiguration.getUrl() != null;
+        try {
+            return Optional.of(ResumableDownloader.get()
+                    .withRevalidation(revalidate)
+                    .withLogger(logger::info)
+                    .download(url, target));
+        } catch (IOException e) {
+            logger.error("Failed to download from " + url + ": " + e.getMessage());
+            return Optional.empty();
+        }
     }
 
     protected Path unzipLocalMetadata(Path localPath, Path destination) {
         if (Files.exists(localPath)) {
-            if (FileUtils.isZip(localPath)) {
-                if (!Files.exists(destination) && !destination.toFile().mkdirs()) {
-                    throw new RuntimeException("Failed creating destination directory");
+            if (FileSystemRepository.isSupportedArchiveFormat(localPath.toString())) {
+                if (isMetadataRepositoryExtractedOnDemand() && FileUtils.isZip(localPath)) {
+                    // Queried directly from the archive, see configureMetadataRepository
+                    return localPath;
+                }
+                if (FileUtils.isExtracted(localPath, destination)) {
+                    return destination;
+                }
+                if (!FileUtils.extractAtomically(localPath, destination, logger::error)) {
+                    return null;
+                }
+                try {
+                    FileSystemRepository.writeBinaryIndex(destination);
+                } catch (IOException e) {
+                    logger.warn("Unable to generate the binary index of the GraalVM reachability metadata repository at " + destination + ": " + e.getMessage());
                 }
-                FileUtils.extract(localPath, destination, logger::error);
                 return destination;
             } else if (Files.isDirectory(localPath)) {
                 return localPath;
             } else {
                 logger.warn("Unable to extract metadata repository from " + localPath + ". " +
-                        "It needs to be either a ZIP file or an exploded directory");
+                        "It needs to be either a ZIP, tar.gz or tar.bz2 file or an exploded directory");
             }
         } else {
             logger.error("GraalVM reachability metadata repository path does not exist: " + localPath);
@@ -47,9 +47,11 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.graalvm.buildtools.model.resources.ClassPathEntryAnalyzer;
+import org.graalvm.buildtools.model.resources.JarResourceList;
 import org.graalvm.buildtools.model.resources.NamedValue;
 import org.graalvm.buildtools.model.resources.PatternValue;
 import org.graalvm.buildtools.model.resources.ResourceFilter;
+import org.graalvm.buildtools.model.resources.ResourcePatternCompactor;
 import org.graalvm.buildtools.model.resources.ResourcesConfigModel;
 import org.graalvm.buildtools.model.resources.ResourcesModel;
 import org.graalvm.buildtools.model.resources.ResourcesConfigModelSerializer;
@@ -57,12 +59,14 @@ import org.graalvm.buildtools.utils.SharedConstants;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -106,6 +110,22 @@ public abstract class AbstractResourceConfigMojo extends AbstractSkippableMojo {
     @Parameter(property = "resources.autodetection.ignoreExistingResourcesConfig", defaultValue = "false")
     private boolean ignoreExistingResourcesConfig;
 
+    /**
+     * The directory where the resources of dependency jars are cached, keyed by
+     * the location, size and modification time of the jar, so that only new or
+     * changed jars are analyzed.
+     */
+    @Parameter(property = "resources.autodetection.cacheDirectory", defaultValue = "${user.home}/.m2/native-build-tools/resource-lists")
+    private File detectionCacheDirectory;
+
+    /**
+     * Whether the detected resources of a directory are written as a single pattern
+     * when every file below that directory, in any artifact of the classpath, is a
+     * detected resource. The set of included resources is unchanged.
+     */
+    @Parameter(property = "resources.autodetection.compactPatterns", defaultValue = "false")
+    private boolean compactDetectedPatterns;
+
     @Override
     protected void executeInternal() throws MojoExecutionException {
         Set<PatternValue> includes = asPatternValues(resourceIncludedPatterns);
@@ -180,35 +200,39 @@ public abstract class AbstractResourceConfigMojo extends AbstractSkippableMojo {
     private void detectResourcesFromClasspath(Set<PatternValue> output) throws IOException {
         ResourceFilter filter = new ResourceFilter(safeAsSet(detectionExclusionPatterns == null ? SharedConstants.DEFAULT_EXCLUDES_FOR_RESOURCE_DETECTION : detectionExclusionPatterns));
         Set<String> detectedResources = new LinkedHashSet<>();
-        Set<File> artifacts = findAllProjectArtifacts();
+        Set<File> projectArtifacts = findAllProjectArtifacts();
+        Set<File> artifacts = new LinkedHashSet<>(projectArtifacts);
         if (!isDetectionRestrictedToModuleDependencies) {
             artifacts.addAll(findAllExternalArtifacts());
         }
-        for (File file : artifacts) {
-            detectResourcesFromClasspathEntry(filter, detectedResources, file);
+        // Entries are analyzed concurrently, and merged in classpath order. Project artifacts
+        // change with every build, so only the resources of dependency jars are cached.
+        Path cacheDirectory = detectionCacheDirectory.toPath();
+        JarResourceList.Provider resourceLists = jar -> projectArtifacts.contains(jar) ? null : JarResourceList.cached(jar.toPath(), cacheDirectory);
+        for (ClassPathEntryAnalyzer.Analysis analysis : ClassPathEntryAnalyzer.analyzeAll(artifacts, filter::shouldIncludeResource, ignoreExistingResourcesConfig,
+                resourceLists)) {
+            getLog().info(String.format("Detected resources for %s in %d ms are %s", analysis.file(),
+                    TimeUnit.NANOSECONDS.toMillis(analysis.durationNanos()), analysis.resources()));
+            detectedResources.addAll(analysis.resources());
         }
         if (!detectedResources.isEmpty()) {
-            output.addAll(
-                    detectedResources.stream()
-                            .map(Pattern::quote)
-                            .map(PatternValue::new)
-                            .collect(Collectors.toList())
-            );
+            if (compactDetectedPatterns) {
+                Set<File> classpath = new LinkedHashSet<>(projectArtifacts);
+                classpath.addAll(findAllExternalArtifacts());
+                List<String> patterns = ResourcePatternCompactor.compactForClasspath(detectedResources, classpath, resourceLists);
+                getLog().info("Compacted " + detectedResources.size() + " detected resources into " + patterns.size() + " patterns");
+                output.addAll(patterns.stream().map(PatternValue::new).collect(Collectors.toList()));
+            } else {
+                output.addAll(
+                        detectedResources.stream()
+                                .map(Pattern::quote)
+                                .map(PatternValue::new)
+                                .collect(Collectors.toList())
+                );
+            }
         }
     }
 
-    /**
-     * Infers the resources to add to resource-config.json for a single classpath entry.
-     * If it's a directory, we will walk the directory and collect resources found in
-     * the directory. If it's a jar we do the same but with jar entries instead.
-     */
-    private void detectResourcesFromClasspathEntry(ResourceFilter filter, Set<String> detectedResources, File file) throws IOException {
-        ClassPathEntryAnalyzer analyzer = ClassPathEntryAnalyzer.of(file, filter::shouldIncludeResource, ignoreExistingResourcesConfig);
-        List<String> resources = analyzer.getResources();
-        getLog().info(String.format("Detected resources for %s are %s", file, resources));
-        detectedResources.addAll(resources);
-    }
-
     private void serializeModel(ResourcesConfigModel model, File outputFile) throws IOException {
         ResourcesConfigModelSerializer.serialize(model, outputFile);
         getLog().info("Resources configuration written into " + outputFile);
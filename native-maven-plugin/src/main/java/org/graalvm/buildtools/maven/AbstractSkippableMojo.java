@@ -58,8 +58,19 @@ public abstract class AbstractSkippableMojo extends AbstractMojo {
             getLog().info("Skipping native Maven plugin goal (parameter 'skip' is true).");
             return;
         }
-        executeInternal();
+        try {
+            executeInternal();
+        } finally {
+            executionFinished();
+        }
     }
 
     protected abstract void executeInternal() throws MojoExecutionException, MojoFailureException;
+
+    /**
+     * Called once the goal has been executed, even if it failed.
+     */
+    protected void executionFinished() {
+
+    }
 }
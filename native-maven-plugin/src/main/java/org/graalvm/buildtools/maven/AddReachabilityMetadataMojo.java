@@ -47,6 +47,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -64,6 +65,8 @@ import org.graalvm.reachability.DirectoryConfiguration;
 @Mojo(name = "add-reachability-metadata", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, requiresDependencyResolution = ResolutionScope.RUNTIME, requiresDependencyCollection = ResolutionScope.RUNTIME)
 public class AddReachabilityMetadataMojo extends AbstractNativeMojo {
 
+    private static final String COPIED_FILES = "copied-reachability-metadata.txt";
+
     private static final Set<String> SCOPES;
     static {
         Set<String> scopes = new HashSet<>();
@@ -80,12 +83,15 @@ public class AddReachabilityMetadataMojo extends AbstractNativeMojo {
     @Override
     protected void executeInternal() throws MojoExecutionException, MojoFailureException {
         configureMetadataRepository();
-        project.getArtifacts().stream().filter(this::isInScope)
-                .forEach(dependency -> maybeAddDependencyMetadata(dependency, null));
-        if (isMetadataRepositoryEnabled() && !metadataRepositoryConfigurations.isEmpty()) {
+        maybeAddDependenciesMetadata(project.getArtifacts().stream()
+                .filter(this::isInScope)
+                .collect(Collectors.toList()), null);
+        if (isMetadataRepositoryEnabled()) {
             Path destination = outputDirectory.toPath();
+            // Kept out of the output directory, so that it isn't packaged
+            Path copiedFiles = reachabilityMetadataOutputDirectory.toPath().resolve(COPIED_FILES);
             try {
-                DirectoryConfiguration.copy(metadataRepositoryConfigurations, destination);
+                DirectoryConfiguration.copy(metadataRepositoryConfigurations, destination, copiedFiles);
             } catch (IOException ex) {
                 throw new MojoExecutionException(ex.getMessage(), ex);
             }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.buildtools.maven;
+
+import org.apache.maven.execution.MavenSession;
+import org.graalvm.reachability.internal.ArchiveRepository;
+import org.graalvm.reachability.internal.FileSystemRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The repositories which are queried directly from their archive, shared
+ * by the executions of a Maven session. A repository is identified by its
+ * extraction directory and by the size and modification time of the archive,
+ * so that an archive which is downloaded again is opened again. The
+ * repositories are closed when the session ends, or at the latest when
+ * the next session opens a repository.
+ */
+final class ArchiveRepositories {
+    private static MavenSession currentSession;
+    private static final Map<Key, ArchiveRepository> REPOSITORIES = new HashMap<>();
+
+    private ArchiveRepositories() {
+    }
+
+    static synchronized ArchiveRepository open(MavenSession session, Path archive, Path extractionDirectory,
+                                               FileSystemRepository.Logger logger, Consumer<String> warningLogger) throws IOException {
+        if (session != currentSession) {
+            closeRepositories(warningLogger);
+            currentSession = session;
+        }
+        Key key = new Key(extractionDirectory, Files.size(archive), Files.getLastModifiedTime(archive).toMillis());
+        ArchiveRepository repository = REPOSITORIES.get(key);
+        // The extraction directory is removed by a clean build
+        if (repository == null || !Files.isDirectory(repository.getRootDirectory())) {
+            if (repository != null) {
+                close(repository, warningLogger);
+            }
+            repository = ArchiveRepository.open(archive, extractionDirectory, logger);
+            REPOSITORIES.put(key, repository);
+        }
+        return repository;
+    }
+
+    static synchronized void close(MavenSession session, Consumer<String> warningLogger) {
+        if (session == currentSession) {
+            closeRepositories(warningLogger);
+            currentSession = null;
+        }
+    }
+
+    private static void closeRepositories(Consumer<String> warningLogger) {
+        List<ArchiveRepository> repositories = new ArrayList<>(REPOSITORIES.values());
+        REPOSITORIES.clear();
+        for (ArchiveRepository repository : repositories) {
+            close(repository, warningLogger);
+        }
+    }
+
+    private static void close(ArchiveRepository repository, Consumer<String> warningLogger) {
+        try {
+            repository.close();
+        } catch (IOException e) {
+            warningLogger.accept("Cannot close GraalVM reachability metadata repository " + repository.getRootDirectory() + ": " + e.getMessage());
+        }
+    }
+
+    private record Key(Path extractionDirectory, long archiveSize, long archiveModificationTime) {
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.buildtools.maven;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.graalvm.reachability.MetadataLockFile;
+import org.graalvm.reachability.internal.FileSystemRepository;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the reachability metadata selected for the project dependencies into a lock file.
+ * §FS-common-libraries.5.3.
+ * Later builds resolve the locked dependencies without querying the repository.
+ */
+@Mojo(name = "generate-metadata-lock", defaultPhase = LifecyclePhase.NONE, requiresDependencyResolution = ResolutionScope.TEST, requiresDependencyCollection = ResolutionScope.TEST)
+public class GenerateMetadataLockMojo extends AbstractNativeMojo {
+
+    @Override
+    protected void executeInternal() throws MojoExecutionException {
+        configureMetadataRepository();
+        if (!(metadataRepository instanceof FileSystemRepository)) {
+            throw new MojoExecutionException("A GraalVM reachability metadata repository is required to generate a lock file");
+        }
+        Map<String, List<Artifact>> dependenciesByGav = new LinkedHashMap<>();
+        Map<String, String> forcedVersions = new HashMap<>();
+        collectMetadataQuery(project.getArtifacts(), dependenciesByGav, forcedVersions);
+        MetadataLockFile lockFile = MetadataLockFile.generate((FileSystemRepository) metadataRepository,
+                describeSelectedMetadataRepository(), dependenciesByGav.keySet(), Collections.emptySet(), forcedVersions);
+        try {
+            lockFile.write(metadataLockFile.toPath());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write GraalVM reachability metadata lock file " + metadataLockFile, e);
+        }
+        logger.info("Locked reachability metadata of " + lockFile.getArtifacts().size() + " dependencies in " + metadataLockFile);
+    }
+
+}
@@ -51,8 +51,10 @@ import org.graalvm.reachability.MissingMetadataCommandSupport;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +83,15 @@ public class ListLibrariesMissingMetadataMojo extends AbstractNativeMojo {
     @Parameter(property = "reportFile", defaultValue = "${project.build.directory}/native/list-libraries-missing-metadata.json")
     private File reportFile;
 
+    @Parameter(property = "missingMetadataCacheDirectory")
+    private File cacheDirectory;
+
+    @Parameter(property = "missingMetadataCacheTtl")
+    private String cacheTtl;
+
+    @Parameter(property = "missingMetadataNegativeCacheTtl")
+    private String negativeCacheTtl;
+
     @Override
     protected void executeInternal() throws MojoExecutionException, MojoFailureException {
         if (!isMetadataRepositoryEnabled()) {
@@ -88,7 +99,7 @@ public class ListLibrariesMissingMetadataMojo extends AbstractNativeMojo {
         }
         try {
             configureMetadataRepository();
-            MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
+            try (MissingMetadataCommandSupport.Report report = MissingMetadataCommandSupport.run(
                 directRuntimeDependencies(),
                 metadataRepository,
                 project.getArtifacts().stream()
@@ -106,10 +117,15 @@ public class ListLibrariesMissingMetadataMojo extends AbstractNativeMojo {
                     githubApiUrl,
                     null,
                     message -> getLog().warn(message)
-                )
-            );
-            writeReport(report.toJsonString());
-            getLog().info(report.renderConsoleOutput(reportFile.getAbsolutePath()));
+                ).withCache(
+                    cacheDirectory == null ? MissingMetadataCommandSupport.defaultCacheDirectory() : cacheDirectory.toPath(),
+                    cacheTtl == null ? null : Duration.parse(cacheTtl),
+                    negativeCacheTtl == null ? null : Duration.parse(negativeCacheTtl)
+                ).withOffline(session.isOffline())
+            )) {
+                writeReport(report);
+                report.writeConsoleOutput(reportFile.getAbsolutePath(), line -> getLog().info(line));
+            }
         } catch (RuntimeException ex) {
             throw new MojoExecutionException(ex.getMessage(), ex);
         }
@@ -149,12 +165,14 @@ public class ListLibrariesMissingMetadataMojo extends AbstractNativeMojo {
             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (left, right) -> right));
     }
 
-    private void writeReport(String json) {
+    private void writeReport(MissingMetadataCommandSupport.Report report) {
         try {
             if (reportFile.getParentFile() != null) {
                 Files.createDirectories(reportFile.getParentFile().toPath());
             }
-            Files.writeString(reportFile.toPath(), json, StandardCharsets.UTF_8);
+            try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+                report.writeJson(writer);
+            }
         } catch (IOException ex) {
             throw new RuntimeException("Unable to write report file " + reportFile, ex);
         }
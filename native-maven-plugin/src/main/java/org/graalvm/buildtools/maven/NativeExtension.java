@@ -154,6 +154,7 @@ public class NativeExtension extends AbstractMavenLifecycleParticipant implement
 
     @Override
     public void afterProjectsRead(MavenSession session) {
+        RepositoryMetricsFiles.writeOnSessionEnd(session);
         for (MavenProject project : session.getProjects()) {
             Build build = project.getBuild();
             withPlugin(build, "native-maven-plugin", nativePlugin -> {
@@ -252,6 +253,8 @@ public class NativeExtension extends AbstractMavenLifecycleParticipant implement
 
     @Override
     public void afterSessionEnd(MavenSession session) {
+        ArchiveRepositories.close(session, message -> logger.warn(message));
+        RepositoryMetricsFiles.sessionEnded(session, message -> logger.info(message), message -> logger.warn(message));
         if (sessionAgentConfigDirectory == null) {
             return;
         }
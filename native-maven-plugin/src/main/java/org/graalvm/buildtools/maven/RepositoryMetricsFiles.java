@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.graalvm.buildtools.maven;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.graalvm.reachability.RepositoryMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The metadata repository metrics collected during a Maven session, one
+ * instance per metrics file, so that the goals of a project which share
+ * the default file add up their queries instead of overwriting each other.
+ * The metrics are written once, when the session ends, if the plugin is
+ * loaded as an extension. Otherwise, each goal writes the metrics collected
+ * so far when it finishes.
+ */
+final class RepositoryMetricsFiles {
+    // Parallel builds give each project a copy of the session, which shares the request
+    private static MavenExecutionRequest currentRequest;
+    private static boolean writtenOnSessionEnd;
+    private static final Map<Path, RepositoryMetrics> METRICS = new LinkedHashMap<>();
+
+    private RepositoryMetricsFiles() {
+    }
+
+    static synchronized void writeOnSessionEnd(MavenSession session) {
+        startSession(session);
+        writtenOnSessionEnd = true;
+    }
+
+    static synchronized RepositoryMetrics metricsFor(MavenSession session, Path metricsFile) {
+        startSession(session);
+        return METRICS.computeIfAbsent(normalize(metricsFile), file -> new RepositoryMetrics());
+    }
+
+    static synchronized void executionFinished(MavenSession session, Path metricsFile,
+                                               Consumer<String> infoLogger, Consumer<String> warningLogger) {
+        Path file = normalize(metricsFile);
+        if (session.getRequest() == currentRequest && !writtenOnSessionEnd && METRICS.containsKey(file)) {
+            write(file, METRICS.get(file), infoLogger, warningLogger);
+        }
+    }
+
+    static synchronized void sessionEnded(MavenSession session, Consumer<String> infoLogger, Consumer<String> warningLogger) {
+        if (session.getRequest() != currentRequest) {
+            return;
+        }
+        if (writtenOnSessionEnd) {
+            METRICS.forEach((file, metrics) -> write(file, metrics, infoLogger, warningLogger));
+        }
+        METRICS.clear();
+        currentRequest = null;
+        writtenOnSessionEnd = false;
+    }
+
+    private static void startSession(MavenSession session) {
+        if (session.getRequest() != currentRequest) {
+            METRICS.clear();
+            currentRequest = session.getRequest();
+            writtenOnSessionEnd = false;
+        }
+    }
+
+    private static Path normalize(Path metricsFile) {
+        return metricsFile.toAbsolutePath().normalize();
+    }
+
+    private static void write(Path file, RepositoryMetrics metrics, Consumer<String> infoLogger, Consumer<String> warningLogger) {
+        try {
+            metrics.writeJson(file);
+            infoLogger.accept("GraalVM reachability metadata repository metrics written to " + file);
+        } catch (IOException e) {
+            warningLogger.accept("Unable to write GraalVM reachability metadata repository metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -68,6 +68,15 @@ public class MetadataRepositoryConfiguration {
     @Parameter
     private List<DependencyConfiguration> dependencies;
 
+    @Parameter(defaultValue = "false")
+    private boolean extractOnDemand;
+
+    @Parameter(defaultValue = "false")
+    private boolean mergeMetadata;
+
+    @Parameter(defaultValue = "false")
+    private boolean pruneMetadata;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -100,6 +109,30 @@ public class MetadataRepositoryConfiguration {
         this.url = url;
     }
 
+    public boolean isExtractOnDemand() {
+        return extractOnDemand;
+    }
+
+    public void setExtractOnDemand(boolean extractOnDemand) {
+        this.extractOnDemand = extractOnDemand;
+    }
+
+    public boolean isMergeMetadata() {
+        return mergeMetadata;
+    }
+
+    public void setMergeMetadata(boolean mergeMetadata) {
+        this.mergeMetadata = mergeMetadata;
+    }
+
+    public boolean isPruneMetadata() {
+        return pruneMetadata;
+    }
+
+    public void setPruneMetadata(boolean pruneMetadata) {
+        this.pruneMetadata = pruneMetadata;
+    }
+
     public List<DependencyConfiguration> getDependencies() {
         return dependencies;
     }